@@ -0,0 +1,259 @@
+package fr.beapp.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.beapp.cache.storage.StorageKeys;
+
+/**
+ * A sampled and bounded log of how often each session and key is read from cache, used to know which keys to preload on next start.
+ * <br/>
+ * Only one read out of the sample rate is recorded, so recording costs an atomic increment most of the time. When the count of tracked
+ * keys reaches its maximum, the least accessed half is dropped.
+ * <br/>
+ * See {@link RxCache#withAccessLog(AccessLog)}, {@link RxCache#saveAccessLog()} and {@link RxCache#warmUpFromAccessLog(int)}.
+ */
+public class AccessLog {
+
+	/**
+	 * The reserved session under which manifests are stored
+	 */
+	public static final String MANIFEST_SESSION = "cache.accessLog";
+	public static final String MANIFEST_KEY = "manifest";
+
+	protected final int maxKeys;
+	protected final int sampleRate;
+
+	private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+	private final AtomicLong accesses = new AtomicLong();
+	private final AtomicLong sampledAccesses = new AtomicLong();
+
+	/**
+	 * @param maxKeys    The maximum count of tracked keys
+	 * @param sampleRate Record one read out of this count. Use 1 to record every read
+	 */
+	public AccessLog(int maxKeys, int sampleRate) {
+		this.maxKeys = maxKeys;
+		this.sampleRate = Math.max(1, sampleRate);
+	}
+
+	public int getMaxKeys() {
+		return maxKeys;
+	}
+
+	public int getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * @return How many reads were reported
+	 */
+	public long getAccesses() {
+		return accesses.get();
+	}
+
+	/**
+	 * @return How many reads were actually recorded
+	 */
+	public long getSampledAccesses() {
+		return sampledAccesses.get();
+	}
+
+	/**
+	 * @return The count of tracked keys
+	 */
+	public int size() {
+		return counters.size();
+	}
+
+	/**
+	 * Report a read of the given session and key
+	 */
+	public void record(@Nullable String session, @NotNull String key) {
+		if (accesses.incrementAndGet() % sampleRate != 0) {
+			return;
+		}
+		sampledAccesses.incrementAndGet();
+		increment(session, key, 1);
+	}
+
+	/**
+	 * @return The most accessed entries, most accessed first
+	 */
+	@NotNull
+	public List<Entry> top(int count) {
+		List<Entry> entries = snapshot();
+		return entries.size() > count ? new ArrayList<>(entries.subList(0, count)) : entries;
+	}
+
+	/**
+	 * @return A manifest of all tracked entries, to be persisted
+	 */
+	@NotNull
+	public Manifest toManifest() {
+		List<Entry> entries = snapshot();
+		String[] sessions = new String[entries.size()];
+		String[] keys = new String[entries.size()];
+		long[] counts = new long[entries.size()];
+		for (int i = 0; i < entries.size(); i++) {
+			Entry entry = entries.get(i);
+			sessions[i] = entry.session;
+			keys[i] = entry.key;
+			counts[i] = entry.count;
+		}
+		return new Manifest(sessions, keys, counts);
+	}
+
+	/**
+	 * Add counts of a persisted manifest, halved so keys which are no more accessed fade out over runs
+	 */
+	public void merge(@NotNull Manifest manifest) {
+		int count = Math.min(manifest.keys.length, Math.min(manifest.sessions.length, manifest.counts.length));
+		for (int i = 0; i < count; i++) {
+			long decayedCount = manifest.counts[i] / 2;
+			if (decayedCount > 0) {
+				increment(manifest.sessions[i], manifest.keys[i], decayedCount);
+			}
+		}
+	}
+
+	protected void increment(@Nullable String session, @NotNull String key, long delta) {
+		String resolvedKey = StorageKeys.resolve(session, key);
+		Counter counter = counters.get(resolvedKey);
+		if (counter == null) {
+			if (counters.size() >= maxKeys) {
+				prune();
+			}
+			Counter newCounter = new Counter(session, key);
+			counter = counters.putIfAbsent(resolvedKey, newCounter);
+			if (counter == null) {
+				counter = newCounter;
+			}
+		}
+		counter.count.addAndGet(delta);
+	}
+
+	/**
+	 * Drop the least accessed half of tracked keys
+	 */
+	protected synchronized void prune() {
+		if (counters.size() < maxKeys) {
+			return;
+		}
+
+		List<Entry> entries = snapshot();
+		for (int i = maxKeys / 2; i < entries.size(); i++) {
+			Entry entry = entries.get(i);
+			counters.remove(entry.resolvedKey);
+		}
+	}
+
+	private List<Entry> snapshot() {
+		List<Entry> entries = new ArrayList<>(counters.size());
+		for (Map.Entry<String, Counter> counter : counters.entrySet()) {
+			entries.add(new Entry(counter.getKey(), counter.getValue().session, counter.getValue().key, counter.getValue().count.get()));
+		}
+		Collections.sort(entries, new Comparator<Entry>() {
+			@Override
+			public int compare(Entry o1, Entry o2) {
+				return o1.count > o2.count ? -1 : (o1.count == o2.count ? 0 : 1);
+			}
+		});
+		return entries;
+	}
+
+	/**
+	 * A tracked session and key, with its access count
+	 */
+	public static class Entry {
+		private final String resolvedKey;
+		private final String session;
+		private final String key;
+		private final long count;
+
+		private Entry(@NotNull String resolvedKey, @Nullable String session, @NotNull String key, long count) {
+			this.resolvedKey = resolvedKey;
+			this.session = session;
+			this.key = key;
+			this.count = count;
+		}
+
+		@Override
+		public String toString() {
+			return "Entry{" +
+					"session=" + session +
+					", key=" + key +
+					", count=" + count +
+					'}';
+		}
+
+		@Nullable
+		public String getSession() {
+			return session;
+		}
+
+		@NotNull
+		public String getKey() {
+			return key;
+		}
+
+		public long getCount() {
+			return count;
+		}
+	}
+
+	/**
+	 * The persisted form of an access log
+	 */
+	public static class Manifest implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private String[] sessions;
+		private String[] keys;
+		private long[] counts;
+
+		public Manifest() {
+			// Needed for deserialization
+		}
+
+		public Manifest(@NotNull String[] sessions, @NotNull String[] keys, @NotNull long[] counts) {
+			this.sessions = sessions;
+			this.keys = keys;
+			this.counts = counts;
+		}
+
+		public String[] getSessions() {
+			return sessions;
+		}
+
+		public String[] getKeys() {
+			return keys;
+		}
+
+		public long[] getCounts() {
+			return counts;
+		}
+	}
+
+	private static class Counter {
+		private final String session;
+		private final String key;
+		private final AtomicLong count = new AtomicLong();
+
+		private Counter(@Nullable String session, @NotNull String key) {
+			this.session = session;
+			this.key = key;
+		}
+	}
+
+}
@@ -0,0 +1,123 @@
+package fr.beapp.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.beapp.cache.storage.ContentHasher;
+import fr.beapp.cache.storage.SerializedContentHasher;
+
+/**
+ * Learn the TTL of each key from how often its data actually changes.
+ * <br/>
+ * Each time an async load returns, a hash of the loaded data is compared to the hash stored with the cached data. If the data didn't
+ * change, the TTL of the key is multiplied by the growth factor, otherwise it's divided by it, always within the configured bounds.
+ * The learned TTL is stored with the data (see {@link CacheWrapper#getTtl()}) and used instead of the TTL of the cache resolution.
+ * <br/>
+ * See {@link RxCache.StrategyBuilder#withAdaptiveTTL(AdaptiveTTL)}.
+ */
+public class AdaptiveTTL {
+
+	public static final double DEFAULT_GROWTH_FACTOR = 2;
+
+	protected final long minTtl;
+	protected final long maxTtl;
+
+	protected double growthFactor = DEFAULT_GROWTH_FACTOR;
+	protected ContentHasher contentHasher = new SerializedContentHasher();
+
+	private final AtomicLong changes = new AtomicLong();
+	private final AtomicLong unchanged = new AtomicLong();
+
+	/**
+	 * @param minValue The minimum TTL
+	 * @param maxValue The maximum TTL
+	 * @param timeUnit The time unit of both TTL
+	 */
+	public AdaptiveTTL(long minValue, long maxValue, @NotNull TimeUnit timeUnit) {
+		this.minTtl = timeUnit.toMillis(minValue);
+		this.maxTtl = timeUnit.toMillis(maxValue);
+	}
+
+	/**
+	 * Set the factor applied to the TTL after each load. Defaults to {@link #DEFAULT_GROWTH_FACTOR}
+	 */
+	public AdaptiveTTL withGrowthFactor(double growthFactor) {
+		this.growthFactor = growthFactor;
+		return this;
+	}
+
+	/**
+	 * Set the way data content is hashed. Defaults to {@link SerializedContentHasher}, which costs a serialization on each load
+	 */
+	public AdaptiveTTL withContentHasher(@NotNull ContentHasher contentHasher) {
+		this.contentHasher = contentHasher;
+		return this;
+	}
+
+	/**
+	 * @return The minimum TTL, in milliseconds
+	 */
+	public long getMinTtl() {
+		return minTtl;
+	}
+
+	/**
+	 * @return The maximum TTL, in milliseconds
+	 */
+	public long getMaxTtl() {
+		return maxTtl;
+	}
+
+	/**
+	 * @return How many loads returned a data different from the cached one
+	 */
+	public long getChanges() {
+		return changes.get();
+	}
+
+	/**
+	 * @return How many loads returned the same data as the cached one
+	 */
+	public long getUnchanged() {
+		return unchanged.get();
+	}
+
+	/**
+	 * Wrap a loaded data with its content hash and its learned TTL
+	 *
+	 * @param previous   The data cached before this load, if any
+	 * @param data       The loaded data
+	 * @param defaultTtl The TTL to start from, in milliseconds, when nothing was learned yet
+	 */
+	@NotNull
+	public <T> CacheWrapper<T> wrap(@Nullable CacheWrapper<?> previous, @Nullable T data, long defaultTtl) {
+		long contentHash = contentHasher.hash(data);
+		long ttl;
+		if (previous == null || previous.getContentHash() == CacheWrapper.NO_CONTENT_HASH) {
+			ttl = defaultTtl;
+		} else {
+			long previousTtl = previous.getTtl() != CacheWrapper.NO_TTL ? previous.getTtl() : defaultTtl;
+			if (previous.getContentHash() == contentHash) {
+				unchanged.incrementAndGet();
+				ttl = (long) (previousTtl * growthFactor);
+			} else {
+				changes.incrementAndGet();
+				ttl = (long) (previousTtl / growthFactor);
+			}
+		}
+		return new CacheWrapper<>(System.currentTimeMillis(), data, null, null, contentHash, Math.max(minTtl, Math.min(maxTtl, ttl)));
+	}
+
+	@Override
+	public String toString() {
+		return "AdaptiveTTL{" +
+				"minTtl=" + minTtl +
+				", maxTtl=" + maxTtl +
+				", growthFactor=" + growthFactor +
+				'}';
+	}
+
+}
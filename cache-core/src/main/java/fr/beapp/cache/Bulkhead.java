@@ -0,0 +1,349 @@
+package fr.beapp.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.SingleEmitter;
+import io.reactivex.SingleObserver;
+import io.reactivex.SingleOnSubscribe;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Cancellable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * A limit on how many async loads of a group of keys run at once, so a burst of loads of one group doesn't starve other calls or
+ * overload the backend.
+ * <br/>
+ * Loads over the limit wait in a bounded queue, and start in order as running loads end. When the queue is full, the overflow policy
+ * decides which load is rejected with a {@link BulkheadFullException}. Queued loads are started on the start scheduler, so they never
+ * run on the thread which ended the previous load, typically the storage writer.
+ * <br/>
+ * See {@link RxCache#withBulkhead(Bulkhead)}.
+ */
+public class Bulkhead {
+
+	public static final int DEFAULT_MAX_QUEUED_LOADS = 32;
+
+	/**
+	 * What to do with a load when the queue is full
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * The new load is rejected, and the resolution emits the cached data instead, even if expired, or fails if there is none
+		 */
+		FALLBACK_TO_CACHE,
+		/**
+		 * The new load is rejected
+		 */
+		FAIL_FAST,
+		/**
+		 * The oldest queued load is rejected, and the new one is queued
+		 */
+		DROP_OLDEST
+	}
+
+	protected final String keyPrefix;
+	protected final Pattern keyPattern;
+	protected final int maxConcurrentLoads;
+
+	protected int maxQueuedLoads = DEFAULT_MAX_QUEUED_LOADS;
+	protected OverflowPolicy overflowPolicy = OverflowPolicy.FAIL_FAST;
+	protected Scheduler startScheduler = Schedulers.io();
+
+	private final Deque<QueuedLoad<?>> queue = new ArrayDeque<>();
+	private int runningLoads = 0;
+
+	private final AtomicLong startedLoads = new AtomicLong();
+	private final AtomicLong queuedLoads = new AtomicLong();
+	private final AtomicLong rejectedLoads = new AtomicLong();
+	private final AtomicLong totalWaitNanos = new AtomicLong();
+	private final AtomicLong maxQueueDepth = new AtomicLong();
+
+	/**
+	 * @param keyPrefix          The prefix of keys of the group, once formatted
+	 * @param maxConcurrentLoads The maximum count of loads of the group running at once
+	 */
+	public Bulkhead(@NotNull String keyPrefix, int maxConcurrentLoads) {
+		this(keyPrefix, null, maxConcurrentLoads);
+	}
+
+	/**
+	 * @param keyPattern         The pattern matching keys of the group, once formatted
+	 * @param maxConcurrentLoads The maximum count of loads of the group running at once
+	 */
+	public Bulkhead(@NotNull Pattern keyPattern, int maxConcurrentLoads) {
+		this(null, keyPattern, maxConcurrentLoads);
+	}
+
+	private Bulkhead(@Nullable String keyPrefix, @Nullable Pattern keyPattern, int maxConcurrentLoads) {
+		this.keyPrefix = keyPrefix;
+		this.keyPattern = keyPattern;
+		this.maxConcurrentLoads = Math.max(1, maxConcurrentLoads);
+	}
+
+	/**
+	 * Set the maximum count of loads waiting to start. Defaults to {@link #DEFAULT_MAX_QUEUED_LOADS}
+	 */
+	public Bulkhead withMaxQueuedLoads(int maxQueuedLoads) {
+		this.maxQueuedLoads = Math.max(0, maxQueuedLoads);
+		return this;
+	}
+
+	/**
+	 * Set what to do with loads when the queue is full. Defaults to {@link OverflowPolicy#FAIL_FAST}
+	 */
+	public Bulkhead withOverflowPolicy(@NotNull OverflowPolicy overflowPolicy) {
+		this.overflowPolicy = overflowPolicy;
+		return this;
+	}
+
+	/**
+	 * Set the scheduler on which queued loads are started. Defaults to {@link Schedulers#io()}
+	 */
+	public Bulkhead withStartScheduler(@NotNull Scheduler startScheduler) {
+		this.startScheduler = startScheduler;
+		return this;
+	}
+
+	public int getMaxConcurrentLoads() {
+		return maxConcurrentLoads;
+	}
+
+	public int getMaxQueuedLoads() {
+		return maxQueuedLoads;
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	/**
+	 * @return <code>true</code> if the given key belongs to this group
+	 */
+	public boolean matches(@NotNull String key) {
+		return keyPrefix != null ? key.startsWith(keyPrefix) : keyPattern.matcher(key).matches();
+	}
+
+	/**
+	 * @return How many loads are running
+	 */
+	public synchronized int getRunningLoads() {
+		return runningLoads;
+	}
+
+	/**
+	 * @return How many loads are waiting to start
+	 */
+	public synchronized int getQueueDepth() {
+		return queue.size();
+	}
+
+	/**
+	 * @return The highest count of loads waiting to start at once
+	 */
+	public long getMaxQueueDepth() {
+		return maxQueueDepth.get();
+	}
+
+	/**
+	 * @return How many loads were started
+	 */
+	public long getStartedLoads() {
+		return startedLoads.get();
+	}
+
+	/**
+	 * @return How many loads had to wait before starting
+	 */
+	public long getQueuedLoads() {
+		return queuedLoads.get();
+	}
+
+	/**
+	 * @return How many loads were rejected because the queue was full
+	 */
+	public long getRejectedLoads() {
+		return rejectedLoads.get();
+	}
+
+	/**
+	 * @return The average time loads waited before starting, in milliseconds
+	 */
+	public double getAverageWaitMillis() {
+		long started = startedLoads.get();
+		return started == 0 ? 0 : totalWaitNanos.get() / 1e6 / started;
+	}
+
+	@Override
+	public String toString() {
+		return "Bulkhead{" +
+				"keyPrefix=" + keyPrefix +
+				", keyPattern=" + keyPattern +
+				", maxConcurrentLoads=" + maxConcurrentLoads +
+				", maxQueuedLoads=" + maxQueuedLoads +
+				", overflowPolicy=" + overflowPolicy +
+				'}';
+	}
+
+	/**
+	 * Limit the given load: each subscription runs it right away if under the limit, or waits for a running load to end
+	 */
+	public <T> Single<T> limit(@NotNull final Single<T> load) {
+		return Single.create(new SingleOnSubscribe<T>() {
+			@Override
+			public void subscribe(@io.reactivex.annotations.NonNull SingleEmitter<T> emitter) throws Exception {
+				final QueuedLoad<T> queuedLoad = new QueuedLoad<>(load, emitter);
+				emitter.setCancellable(new Cancellable() {
+					@Override
+					public void cancel() throws Exception {
+						queuedLoad.cancel();
+					}
+				});
+				submit(queuedLoad);
+			}
+		});
+	}
+
+	protected void submit(@NotNull QueuedLoad<?> queuedLoad) {
+		QueuedLoad<?> rejectedLoad = null;
+		boolean start = false;
+		synchronized (this) {
+			if (runningLoads < maxConcurrentLoads) {
+				runningLoads++;
+				start = true;
+			} else if (queue.size() < maxQueuedLoads) {
+				enqueue(queuedLoad);
+			} else if (overflowPolicy == OverflowPolicy.DROP_OLDEST && !queue.isEmpty()) {
+				rejectedLoad = queue.poll();
+				enqueue(queuedLoad);
+			} else {
+				rejectedLoad = queuedLoad;
+			}
+		}
+
+		if (rejectedLoad != null) {
+			rejectedLoads.incrementAndGet();
+			rejectedLoad.reject(new BulkheadFullException(this));
+		}
+		if (start) {
+			queuedLoad.start();
+		}
+	}
+
+	/**
+	 * Must be called holding the lock
+	 */
+	private void enqueue(@NotNull QueuedLoad<?> queuedLoad) {
+		queue.offer(queuedLoad);
+		queuedLoads.incrementAndGet();
+		if (queue.size() > maxQueueDepth.get()) {
+			maxQueueDepth.set(queue.size());
+		}
+	}
+
+	/**
+	 * Free the slot of an ended load, starting the next queued one if any on the start scheduler
+	 */
+	protected void release() {
+		final QueuedLoad<?> next;
+		synchronized (this) {
+			next = queue.poll();
+			if (next == null) {
+				runningLoads--;
+			}
+		}
+		if (next != null) {
+			startScheduler.scheduleDirect(new Runnable() {
+				@Override
+				public void run() {
+					next.start();
+				}
+			});
+		}
+	}
+
+	protected synchronized boolean dequeue(@NotNull QueuedLoad<?> queuedLoad) {
+		return queue.remove(queuedLoad);
+	}
+
+	/**
+	 * A subscription to a load, waiting for its turn or running
+	 */
+	protected class QueuedLoad<T> implements SingleObserver<T> {
+		private final Single<T> load;
+		private final SingleEmitter<T> emitter;
+		private final long enqueueTime = System.nanoTime();
+		private final AtomicBoolean started = new AtomicBoolean(false);
+		private final AtomicBoolean released = new AtomicBoolean(false);
+		private volatile Disposable disposable;
+
+		private QueuedLoad(@NotNull Single<T> load, @NotNull SingleEmitter<T> emitter) {
+			this.load = load;
+			this.emitter = emitter;
+		}
+
+		private void start() {
+			started.set(true);
+			startedLoads.incrementAndGet();
+			totalWaitNanos.addAndGet(System.nanoTime() - enqueueTime);
+			if (emitter.isDisposed()) {
+				releaseOnce();
+				return;
+			}
+			load.subscribe(this);
+		}
+
+		private void reject(@NotNull Throwable throwable) {
+			emitter.tryOnError(throwable);
+		}
+
+		private void cancel() {
+			if (!started.get() && dequeue(this)) {
+				return;
+			}
+			// Loads not subscribed yet are released by start() or onSubscribe()
+			Disposable current = disposable;
+			if (current != null) {
+				current.dispose();
+				releaseOnce();
+			}
+		}
+
+		private void releaseOnce() {
+			if (released.compareAndSet(false, true)) {
+				release();
+			}
+		}
+
+		@Override
+		public void onSubscribe(@io.reactivex.annotations.NonNull Disposable disposable) {
+			this.disposable = disposable;
+			if (emitter.isDisposed()) {
+				disposable.dispose();
+				releaseOnce();
+			}
+		}
+
+		@Override
+		public void onSuccess(@io.reactivex.annotations.NonNull T value) {
+			releaseOnce();
+			emitter.onSuccess(value);
+		}
+
+		@Override
+		public void onError(@io.reactivex.annotations.NonNull Throwable throwable) {
+			releaseOnce();
+			emitter.tryOnError(throwable);
+		}
+	}
+
+}
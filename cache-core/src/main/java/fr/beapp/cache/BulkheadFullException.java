@@ -0,0 +1,23 @@
+package fr.beapp.cache;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Signals an async load rejected by a {@link Bulkhead}, because its queue was full
+ */
+public class BulkheadFullException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final transient Bulkhead bulkhead;
+
+	public BulkheadFullException(@NotNull Bulkhead bulkhead) {
+		super("Too many async loads queued by " + bulkhead);
+		this.bulkhead = bulkhead;
+	}
+
+	public Bulkhead getBulkhead() {
+		return bulkhead;
+	}
+
+}
@@ -0,0 +1,328 @@
+package fr.beapp.cache;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import fr.beapp.cache.event.CacheEvent;
+import fr.beapp.cache.scheduler.CacheThreadFactory;
+import fr.beapp.cache.storage.DelegatingStorage;
+import fr.beapp.cache.storage.MemoStorage;
+import fr.beapp.cache.storage.ObservedStorage;
+import fr.beapp.cache.storage.QuotaStorage;
+import fr.beapp.cache.storage.Storage;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.SingleEmitter;
+import io.reactivex.SingleOnSubscribe;
+import io.reactivex.SingleSource;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Remove entries older than a maximum age from the {@link Storage} of a {@link RxCache}.
+ * <br/>
+ * Storage is walked incrementally, in bounded time slices, on a low priority scheduler. Whenever foreground cache traffic is
+ * detected on the {@link RxCache}, the sweeper yields and resumes later. Cached <code>null</code> data expires like any other entry.
+ * <br/>
+ * Entries are read below any {@link MemoStorage}, {@link QuotaStorage} or {@link ObservedStorage} on top of the cache storage, so
+ * sweeping neither fills memos nor counts as an access. Expired entries are removed at the end of each slice on the write scheduler of
+ * the {@link RxCache}, and only if they were not written again since they were read.
+ */
+public class CacheSweeper {
+
+	private static Scheduler lowPriorityScheduler;
+
+	protected final RxCache rxCache;
+	protected final long maxAgeMillis;
+
+	protected String[] sessions = new String[]{""};
+	protected long sliceMillis = 8;
+	protected long quietPeriodMillis = 500;
+	protected Scheduler scheduler = getLowPriorityScheduler();
+
+	/**
+	 * @param rxCache     The cache to sweep
+	 * @param maxAge      The age above which entries are removed
+	 * @param maxAgeUnit  The time unit of the max age
+	 */
+	public CacheSweeper(@NotNull RxCache rxCache, long maxAge, @NotNull TimeUnit maxAgeUnit) {
+		this.rxCache = rxCache;
+		this.maxAgeMillis = maxAgeUnit.toMillis(maxAge);
+	}
+
+	private static synchronized Scheduler getLowPriorityScheduler() {
+		if (lowPriorityScheduler == null) {
+			lowPriorityScheduler = Schedulers.from(Executors.newSingleThreadExecutor(new CacheThreadFactory("cache-sweeper", Thread.MIN_PRIORITY)));
+		}
+		return lowPriorityScheduler;
+	}
+
+	/**
+	 * Set the sessions to sweep. Defaults to the global session only, use <code>""</code> for it
+	 */
+	public CacheSweeper withSessions(@NotNull String... sessions) {
+		this.sessions = sessions;
+		return this;
+	}
+
+	/**
+	 * Set the maximum duration of a single slice of work. Defaults to 8 ms
+	 */
+	public CacheSweeper withSlice(long value, @NotNull TimeUnit timeUnit) {
+		this.sliceMillis = timeUnit.toMillis(value);
+		return this;
+	}
+
+	/**
+	 * Set for how long after a foreground cache access the sweeper yields. Defaults to 500 ms
+	 */
+	public CacheSweeper withQuietPeriod(long value, @NotNull TimeUnit timeUnit) {
+		this.quietPeriodMillis = timeUnit.toMillis(value);
+		return this;
+	}
+
+	/**
+	 * Set the scheduler to sweep on. Defaults to a dedicated low priority thread. It must not be the write scheduler of the {@link RxCache}
+	 */
+	public CacheSweeper withScheduler(@NotNull Scheduler scheduler) {
+		this.scheduler = scheduler;
+		return this;
+	}
+
+	/**
+	 * Run a single sweep pass over all configured sessions
+	 *
+	 * @return A {@link Single} emitting what was reclaimed by this pass
+	 */
+	public Single<Result> sweep() {
+		return Single.create(new SingleOnSubscribe<Result>() {
+			@Override
+			public void subscribe(@io.reactivex.annotations.NonNull SingleEmitter<Result> emitter) throws Exception {
+				new SweepTask(emitter).schedule(0);
+			}
+		});
+	}
+
+	/**
+	 * Run a sweep pass periodically, until disposed
+	 *
+	 * @return A {@link Flowable} emitting what was reclaimed by each pass
+	 */
+	public Flowable<Result> sweepPeriodically(long period, @NotNull TimeUnit timeUnit) {
+		return Flowable.interval(period, timeUnit, scheduler)
+				.onBackpressureDrop()
+				.concatMapSingle(new Function<Long, SingleSource<Result>>() {
+					@Override
+					public SingleSource<Result> apply(@io.reactivex.annotations.NonNull Long tick) throws Exception {
+						return sweep();
+					}
+				}, 1);
+	}
+
+	protected boolean isForegroundActive() {
+		return System.currentTimeMillis() - rxCache.getLastForegroundAccess() < quietPeriodMillis;
+	}
+
+	/**
+	 * @return The storage to read entries from, below the decorators which would record sweeping reads as accesses
+	 */
+	protected Storage getScanStorage() {
+		Storage storage = rxCache.getStorage();
+		while (storage instanceof MemoStorage || storage instanceof QuotaStorage || storage instanceof ObservedStorage) {
+			storage = ((DelegatingStorage) storage).getDelegate();
+		}
+		return storage;
+	}
+
+	private class SweepTask implements Runnable {
+		private final SingleEmitter<Result> emitter;
+		private final Storage storage = rxCache.getStorage();
+		private final Storage scanStorage = getScanStorage();
+		private final List<Candidate> candidates = new ArrayList<>();
+		private final long startTime = System.currentTimeMillis();
+		private final long expirationDate = startTime - maxAgeMillis;
+
+		private int sessionIndex = 0;
+		private List<String> keys = null;
+		private int keyIndex = 0;
+
+		private int scanned = 0;
+		private int removed = 0;
+		private int yields = 0;
+
+		private SweepTask(@NotNull SingleEmitter<Result> emitter) {
+			this.emitter = emitter;
+		}
+
+		private void schedule(long delayMillis) {
+			emitter.setDisposable(scheduler.scheduleDirect(this, delayMillis, TimeUnit.MILLISECONDS));
+		}
+
+		@Override
+		public void run() {
+			if (emitter.isDisposed()) {
+				return;
+			}
+			if (isForegroundActive()) {
+				yields++;
+				schedule(quietPeriodMillis);
+				return;
+			}
+
+			try {
+				long sliceEnd = System.currentTimeMillis() + sliceMillis;
+				boolean hasNext = true;
+				while (hasNext && System.currentTimeMillis() < sliceEnd) {
+					hasNext = sweepNext();
+				}
+				removeExpired();
+
+				if (hasNext) {
+					schedule(0);
+				} else {
+					emitter.onSuccess(new Result(scanned, removed, yields, System.currentTimeMillis() - startTime));
+				}
+			} catch (Exception e) {
+				emitter.tryOnError(e);
+			}
+		}
+
+		/**
+		 * @return <code>false</code> if there is nothing left to sweep
+		 */
+		private boolean sweepNext() {
+			while (keys == null || keyIndex >= keys.size()) {
+				if (keys != null) {
+					sessionIndex++;
+				}
+				if (sessionIndex >= sessions.length) {
+					return false;
+				}
+				keys = storage.keys(sessions[sessionIndex], "");
+				keyIndex = 0;
+			}
+
+			String session = sessions[sessionIndex];
+			String key = keys.get(keyIndex++);
+			scanned++;
+
+			long version = scanStorage.getVersion(session, key);
+			CacheWrapper<Object> cachedData = scanStorage.get(session, key, Object.class);
+			if (cachedData != null && cachedData.getCachedDate() < expirationDate) {
+				candidates.add(new Candidate(session, key, version));
+			}
+			return true;
+		}
+
+		/**
+		 * Remove the expired entries found during this slice, on the write scheduler so they can't be replaced by the cache meanwhile
+		 */
+		private void removeExpired() {
+			if (candidates.isEmpty()) {
+				return;
+			}
+
+			Completable.fromAction(new Action() {
+				@Override
+				public void run() throws Exception {
+					for (Candidate candidate : candidates) {
+						if (isStillExpired(candidate)) {
+							storage.delete(candidate.session, candidate.key);
+							removed++;
+							if (rxCache.getEventDispatcher().isEnabled()) {
+								rxCache.getEventDispatcher().dispatch(CacheEvent.eviction(candidate.session, candidate.key, -1, CacheEvent.EvictionCause.EXPIRED));
+							}
+						}
+					}
+				}
+			}).subscribeOn(rxCache.getWriteScheduler()).blockingAwait();
+			candidates.clear();
+		}
+
+		private boolean isStillExpired(@NotNull Candidate candidate) {
+			if (candidate.version != Storage.NO_VERSION) {
+				return scanStorage.getVersion(candidate.session, candidate.key) == candidate.version;
+			}
+			CacheWrapper<Object> cachedData = scanStorage.get(candidate.session, candidate.key, Object.class);
+			return cachedData != null && cachedData.getCachedDate() < expirationDate;
+		}
+	}
+
+	/**
+	 * An entry found expired, with the version it had when read
+	 */
+	private static class Candidate {
+		private final String session;
+		private final String key;
+		private final long version;
+
+		private Candidate(@NotNull String session, @NotNull String key, long version) {
+			this.session = session;
+			this.key = key;
+			this.version = version;
+		}
+	}
+
+	/**
+	 * What a sweep pass reclaimed
+	 */
+	public static class Result {
+		private final int scanned;
+		private final int removed;
+		private final int yields;
+		private final long durationMillis;
+
+		public Result(int scanned, int removed, int yields, long durationMillis) {
+			this.scanned = scanned;
+			this.removed = removed;
+			this.yields = yields;
+			this.durationMillis = durationMillis;
+		}
+
+		@Override
+		public String toString() {
+			return "Result{" +
+					"scanned=" + scanned +
+					", removed=" + removed +
+					", yields=" + yields +
+					", durationMillis=" + durationMillis +
+					'}';
+		}
+
+		/**
+		 * @return How many entries were read
+		 */
+		public int getScanned() {
+			return scanned;
+		}
+
+		/**
+		 * @return How many entries were removed
+		 */
+		public int getRemoved() {
+			return removed;
+		}
+
+		/**
+		 * @return How many times the sweep yielded to foreground cache traffic
+		 */
+		public int getYields() {
+			return yields;
+		}
+
+		/**
+		 * @return The wall-clock duration of the pass, yields included
+		 */
+		public long getDurationMillis() {
+			return durationMillis;
+		}
+	}
+
+}
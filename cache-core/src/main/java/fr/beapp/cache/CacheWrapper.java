@@ -1,12 +1,30 @@
 package fr.beapp.cache;
 
 import java.io.Serializable;
-
+import java.util.Arrays;
+
+/**
+ * A cached data, with its cache metadata.
+ * <br/>
+ * Instances are immutable, so they can be shared between threads and handed out by storages without any copy.
+ * Whether the data comes from cache is carried by a memoized view, see {@link #asFromCache()}.
+ */
 public class CacheWrapper<T> implements Serializable {
 
+	public static final long NO_CONTENT_HASH = 0;
+	public static final long NO_TTL = 0;
+	public static final String[] NO_TAGS = new String[0];
+
 	private boolean fromCache = false;
 	private long cachedDate;
 	private T data;
+	private String etag;
+	private String lastModified;
+	private long contentHash;
+	private long ttl;
+	private String[] tags;
+
+	private transient volatile CacheWrapper<T> fromCacheView;
 
 	public CacheWrapper() {
 		// Needed for deserialization
@@ -21,12 +39,53 @@ public class CacheWrapper<T> implements Serializable {
 		this.data = data;
 	}
 
+	/**
+	 * @param cachedDate   The date the data was cached
+	 * @param data         The data
+	 * @param etag         An opaque validator of the data, such as an HTTP ETag
+	 * @param lastModified An opaque last modification marker of the data, such as an HTTP Last-Modified value
+	 */
+	public CacheWrapper(long cachedDate, T data, String etag, String lastModified) {
+		this(cachedDate, data);
+		this.etag = etag;
+		this.lastModified = lastModified;
+	}
+
+	/**
+	 * @param cachedDate   The date the data was cached
+	 * @param data         The data
+	 * @param etag         An opaque validator of the data, such as an HTTP ETag
+	 * @param lastModified An opaque last modification marker of the data, such as an HTTP Last-Modified value
+	 * @param contentHash  A hash of the data content, or {@link #NO_CONTENT_HASH}
+	 * @param ttl          The TTL learned for this data, in milliseconds, or {@link #NO_TTL} to use the TTL of the cache resolution
+	 */
+	public CacheWrapper(long cachedDate, T data, String etag, String lastModified, long contentHash, long ttl) {
+		this(cachedDate, data, etag, lastModified);
+		this.contentHash = contentHash;
+		this.ttl = ttl;
+	}
+
+	/**
+	 * Build the "from cache" view of the given wrapper
+	 */
+	private CacheWrapper(CacheWrapper<T> source) {
+		this(source.cachedDate, source.data, source.etag, source.lastModified, source.contentHash, source.ttl);
+		this.tags = source.tags;
+		this.fromCache = true;
+		this.fromCacheView = this;
+	}
+
 	@Override
 	public String toString() {
 		return "CacheWrapper{" +
 				"fromCache=" + fromCache +
 				", cachedDate=" + cachedDate +
 				", data=" + data +
+				", etag=" + etag +
+				", lastModified=" + lastModified +
+				", contentHash=" + contentHash +
+				", ttl=" + ttl +
+				", tags=" + Arrays.toString(tags) +
 				'}';
 	}
 
@@ -49,28 +108,84 @@ public class CacheWrapper<T> implements Serializable {
 		return result;
 	}
 
-	public boolean isFromCache() {
-		return fromCache;
+	/**
+	 * @return A view of this wrapper flagged as coming from cache. The view is created once and then reused
+	 */
+	public CacheWrapper<T> asFromCache() {
+		CacheWrapper<T> view = fromCacheView;
+		if (view == null) {
+			// A race may build two equivalent views, which is harmless
+			view = fromCache ? this : new CacheWrapper<>(this);
+			fromCacheView = view;
+		}
+		return view;
 	}
 
-	public CacheWrapper<T> setFromCache(boolean fromCache) {
-		this.fromCache = fromCache;
-		return this;
+	/**
+	 * @return A copy of this wrapper with the given cached date
+	 */
+	public CacheWrapper<T> withCachedDate(long cachedDate) {
+		CacheWrapper<T> copy = new CacheWrapper<>(cachedDate, data, etag, lastModified, contentHash, ttl);
+		copy.tags = tags;
+		return copy;
 	}
 
-	public long getCachedDate() {
-		return cachedDate;
+	/**
+	 * @return A copy of this wrapper with the given data, keeping all cache metadata
+	 */
+	public <U> CacheWrapper<U> withData(U data) {
+		CacheWrapper<U> copy = new CacheWrapper<>(cachedDate, data, etag, lastModified, contentHash, ttl);
+		copy.tags = tags;
+		return copy;
 	}
 
-	public void setCachedDate(long cachedDate) {
-		this.cachedDate = cachedDate;
+	/**
+	 * @return A copy of this wrapper with the given invalidation tags, see {@link fr.beapp.cache.storage.TaggedStorage}
+	 */
+	public CacheWrapper<T> withTags(String... tags) {
+		CacheWrapper<T> copy = new CacheWrapper<>(cachedDate, data, etag, lastModified, contentHash, ttl);
+		copy.tags = tags != null && tags.length > 0 ? tags.clone() : null;
+		return copy;
+	}
+
+	public boolean isFromCache() {
+		return fromCache;
+	}
+
+	public long getCachedDate() {
+		return cachedDate;
 	}
 
 	public T getData() {
 		return data;
 	}
 
-	public void setData(T data) {
-		this.data = data;
+	public String getEtag() {
+		return etag;
+	}
+
+	public String getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * @return A hash of the data content, or {@link #NO_CONTENT_HASH} if it wasn't computed
+	 */
+	public long getContentHash() {
+		return contentHash;
+	}
+
+	/**
+	 * @return The TTL learned for this data, in milliseconds, or {@link #NO_TTL} to use the TTL of the cache resolution
+	 */
+	public long getTtl() {
+		return ttl;
+	}
+
+	/**
+	 * @return The invalidation tags of this data, or {@link #NO_TAGS}
+	 */
+	public String[] getTags() {
+		return tags != null ? tags.clone() : NO_TAGS;
 	}
 }
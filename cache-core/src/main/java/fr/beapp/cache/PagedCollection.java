@@ -0,0 +1,246 @@
+package fr.beapp.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import fr.beapp.cache.storage.Storage;
+import io.reactivex.Completable;
+import io.reactivex.Emitter;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.BiFunction;
+
+/**
+ * A collection cached page by page.
+ * <br/>
+ * Each page is stored under its own key, derived from the collection key, and a small manifest entry stored under the collection key
+ * keeps track of pages and their expiration. Appending a page only writes this page and the manifest, whatever the collection length.
+ * <br/>
+ * Writes are done on the storage write scheduler, reads on the storage read scheduler.
+ *
+ * @param <T> The type of a page
+ */
+public class PagedCollection<T> {
+
+	protected static final String PAGE_KEY_SEPARATOR = "#page_";
+
+	protected final RxCache rxCache;
+	protected final Storage storage;
+	protected final String key;
+
+	protected String sessionName;
+	protected long ttlValue;
+	protected TimeUnit ttlTimeUnit;
+	protected boolean keepExpiredCache = false;
+
+	public PagedCollection(@NotNull RxCache rxCache, @NotNull String key, Object... args) {
+		this.rxCache = rxCache;
+		this.storage = rxCache.getStorage();
+		this.key = String.format(key, args);
+		this.sessionName = rxCache.getDefaultSessionName();
+		this.ttlValue = rxCache.getDefaultTTLValue();
+		this.ttlTimeUnit = rxCache.getDefaultTTLTimeUnit();
+	}
+
+	/**
+	 * The session to use with the key. This allows us to isolate data from different sessions
+	 */
+	public PagedCollection<T> withSession(@Nullable String sessionName) {
+		this.sessionName = sessionName;
+		return this;
+	}
+
+	/**
+	 * Apply the default TTL (Time-To-Live) of appended pages. If a page creation date exceeds its TTL, it will be considered expired
+	 */
+	public PagedCollection<T> withTTL(long value, @NotNull TimeUnit timeUnit) {
+		this.ttlValue = value;
+		this.ttlTimeUnit = timeUnit;
+		return this;
+	}
+
+	/**
+	 * Configure this collection to keep reading expired pages
+	 */
+	public PagedCollection<T> keepExpiredCache() {
+		this.keepExpiredCache = true;
+		return this;
+	}
+
+	/**
+	 * Configure this collection to stop reading at the first expired page
+	 */
+	public PagedCollection<T> ignoreExpiredCache() {
+		this.keepExpiredCache = false;
+		return this;
+	}
+
+	/**
+	 * @return A {@link Single} emitting the count of cached pages, expired ones included
+	 */
+	public Single<Integer> pageCount() {
+		return Single.fromCallable(new Callable<Integer>() {
+			@Override
+			public Integer call() throws Exception {
+				return readManifest().expirationDates.length;
+			}
+		}).subscribeOn(rxCache.getReadScheduler());
+	}
+
+	/**
+	 * Append a page using the default TTL
+	 */
+	public Completable appendPage(@NotNull T page) {
+		return appendPage(page, ttlValue, ttlTimeUnit);
+	}
+
+	/**
+	 * Append a page at the end of the collection
+	 *
+	 * @param page     The page to append
+	 * @param value    The TTL of this page
+	 * @param timeUnit The time unit of the TTL
+	 */
+	public Completable appendPage(@NotNull final T page, final long value, @NotNull final TimeUnit timeUnit) {
+		return Completable.fromAction(new Action() {
+			@Override
+			public void run() throws Exception {
+				synchronized (rxCache.getKeyLock(sessionName, key)) {
+					long cachedDate = System.currentTimeMillis();
+					PageManifest manifest = readManifest();
+					int pageIndex = manifest.expirationDates.length;
+
+					storage.put(sessionName, buildPageKey(pageIndex), new CacheWrapper<>(cachedDate, page));
+					storage.put(sessionName, key, new CacheWrapper<>(cachedDate, manifest.append(cachedDate + timeUnit.toMillis(value))));
+				}
+			}
+		}).subscribeOn(rxCache.getWriteScheduler());
+	}
+
+	/**
+	 * Remove the page at the given index and all pages after it
+	 */
+	public Completable invalidateFrom(final int pageIndex) {
+		return Completable.fromAction(new Action() {
+			@Override
+			public void run() throws Exception {
+				synchronized (rxCache.getKeyLock(sessionName, key)) {
+					PageManifest manifest = readManifest();
+					int fromIndex = Math.max(0, pageIndex);
+					if (fromIndex >= manifest.expirationDates.length) {
+						return;
+					}
+
+					storage.put(sessionName, key, new CacheWrapper<>(manifest.truncate(fromIndex)));
+					for (int i = fromIndex; i < manifest.expirationDates.length; i++) {
+						storage.delete(sessionName, buildPageKey(i));
+					}
+				}
+			}
+		}).subscribeOn(rxCache.getWriteScheduler());
+	}
+
+	/**
+	 * Remove all pages
+	 */
+	public Completable clear() {
+		return invalidateFrom(0);
+	}
+
+	/**
+	 * Stream cached pages in order. Each page is read only when requested downstream.
+	 * The stream completes at the last page, or at the first missing or expired page.
+	 */
+	public Flowable<T> pages() {
+		return Flowable.generate(new Callable<PageCursor>() {
+			@Override
+			public PageCursor call() throws Exception {
+				return new PageCursor(readManifest());
+			}
+		}, new BiFunction<PageCursor, Emitter<T>, PageCursor>() {
+			@Override
+			@SuppressWarnings("unchecked")
+			public PageCursor apply(@io.reactivex.annotations.NonNull PageCursor cursor, @io.reactivex.annotations.NonNull Emitter<T> emitter) throws Exception {
+				long[] expirationDates = cursor.manifest.expirationDates;
+				if (cursor.pageIndex >= expirationDates.length || (!keepExpiredCache && System.currentTimeMillis() >= expirationDates[cursor.pageIndex])) {
+					emitter.onComplete();
+					return cursor;
+				}
+
+				rxCache.notifyForegroundAccess();
+				CacheWrapper<T> page = (CacheWrapper<T>) storage.get(sessionName, buildPageKey(cursor.pageIndex), Object.class);
+				if (page == null || page.getData() == null) {
+					emitter.onComplete();
+				} else {
+					emitter.onNext(page.getData());
+					cursor.pageIndex++;
+				}
+				return cursor;
+			}
+		}).subscribeOn(rxCache.getReadScheduler());
+	}
+
+	@SuppressWarnings("unchecked")
+	protected PageManifest readManifest() {
+		CacheWrapper<PageManifest> manifest = (CacheWrapper<PageManifest>) (CacheWrapper<?>) storage.get(sessionName, key, Object.class);
+		return manifest != null && manifest.getData() != null ? manifest.getData() : new PageManifest(new long[0]);
+	}
+
+	protected String buildPageKey(int pageIndex) {
+		return key + PAGE_KEY_SEPARATOR + pageIndex;
+	}
+
+	/**
+	 * The manifest entry of a paged collection, holding the expiration date of each page
+	 */
+	public static class PageManifest implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private long[] expirationDates;
+
+		public PageManifest() {
+			// Needed for deserialization
+		}
+
+		public PageManifest(@NotNull long[] expirationDates) {
+			this.expirationDates = expirationDates;
+		}
+
+		@Override
+		public String toString() {
+			return "PageManifest{" +
+					"expirationDates=" + Arrays.toString(expirationDates) +
+					'}';
+		}
+
+		public long[] getExpirationDates() {
+			return expirationDates;
+		}
+
+		private PageManifest append(long expirationDate) {
+			long[] newExpirationDates = Arrays.copyOf(expirationDates, expirationDates.length + 1);
+			newExpirationDates[expirationDates.length] = expirationDate;
+			return new PageManifest(newExpirationDates);
+		}
+
+		private PageManifest truncate(int pageCount) {
+			return new PageManifest(Arrays.copyOf(expirationDates, pageCount));
+		}
+	}
+
+	private static class PageCursor {
+		private final PageManifest manifest;
+		private int pageIndex = 0;
+
+		private PageCursor(@NotNull PageManifest manifest) {
+			this.manifest = manifest;
+		}
+	}
+
+}
@@ -0,0 +1,69 @@
+package fr.beapp.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The outcome of a conditional request made by a {@link Revalidator}: either a new value with its validators, or "not modified".
+ */
+public final class Revalidation<T> {
+
+	private static final Revalidation<?> NOT_MODIFIED = new Revalidation<>(false, null, null, null);
+
+	private final boolean modified;
+	private final T data;
+	private final String etag;
+	private final String lastModified;
+
+	private Revalidation(boolean modified, T data, String etag, String lastModified) {
+		this.modified = modified;
+		this.data = data;
+		this.etag = etag;
+		this.lastModified = lastModified;
+	}
+
+	/**
+	 * The cached data is still valid and will be kept as is
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> Revalidation<T> notModified() {
+		return (Revalidation<T>) NOT_MODIFIED;
+	}
+
+	/**
+	 * The cached data must be replaced by the given one
+	 *
+	 * @param data         The new data
+	 * @param etag         The new opaque validator of the data, such as an HTTP ETag
+	 * @param lastModified The new opaque last modification marker of the data, such as an HTTP Last-Modified value
+	 */
+	public static <T> Revalidation<T> modified(@NotNull T data, @Nullable String etag, @Nullable String lastModified) {
+		return new Revalidation<>(true, data, etag, lastModified);
+	}
+
+	@Override
+	public String toString() {
+		return "Revalidation{" +
+				"modified=" + modified +
+				", data=" + data +
+				", etag=" + etag +
+				", lastModified=" + lastModified +
+				'}';
+	}
+
+	public boolean isModified() {
+		return modified;
+	}
+
+	public T getData() {
+		return data;
+	}
+
+	public String getEtag() {
+		return etag;
+	}
+
+	public String getLastModified() {
+		return lastModified;
+	}
+}
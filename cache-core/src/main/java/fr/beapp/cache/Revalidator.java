@@ -0,0 +1,21 @@
+package fr.beapp.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import io.reactivex.Single;
+
+/**
+ * An async source able to make conditional requests, based on the validators stored alongside the cached data.
+ */
+public interface Revalidator<T> {
+
+	/**
+	 * @param etag         The opaque validator of the cached data, <code>null</code> if unknown or if nothing is cached
+	 * @param lastModified The opaque last modification marker of the cached data, <code>null</code> if unknown or if nothing is cached
+	 * @return A {@link Single} emitting {@link Revalidation#notModified()} if the cached data is still valid, or the new data otherwise
+	 */
+	@NotNull
+	Single<Revalidation<T>> revalidate(@Nullable String etag, @Nullable String lastModified);
+
+}
@@ -2,19 +2,55 @@ package fr.beapp.cache;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.reactivestreams.Publisher;
 
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+import fr.beapp.cache.event.CacheEvent;
+import fr.beapp.cache.event.CacheEventDispatcher;
+import fr.beapp.cache.event.CacheEventListener;
+import fr.beapp.cache.scheduler.Priority;
+import fr.beapp.cache.scheduler.StorageScheduler;
+import fr.beapp.cache.storage.AsyncStorage;
+import fr.beapp.cache.storage.AsyncStorageAdapter;
+import fr.beapp.cache.storage.ContentHasher;
+import fr.beapp.cache.storage.DelegatingStorage;
+import fr.beapp.cache.storage.InMemoryStorage;
+import fr.beapp.cache.storage.SerializedContentHasher;
 import fr.beapp.cache.storage.Storage;
+import fr.beapp.cache.storage.StorageKeys;
+import fr.beapp.cache.storage.StorageStreams;
+import fr.beapp.cache.storage.TaggedStorage;
 import fr.beapp.cache.strategy.CacheStrategy;
+import io.reactivex.Completable;
 import io.reactivex.Flowable;
 import io.reactivex.Maybe;
+import io.reactivex.MaybeSource;
 import io.reactivex.Scheduler;
 import io.reactivex.Single;
+import io.reactivex.SingleSource;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.BiConsumer;
+import io.reactivex.functions.BiPredicate;
 import io.reactivex.functions.Consumer;
 import io.reactivex.functions.Function;
+import io.reactivex.functions.Predicate;
 import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.CompletableSubject;
 
 /**
  * This class is the entry point of the Cache management.
@@ -27,7 +63,33 @@ public class RxCache {
 	protected String defaultSessionName = null;
 	protected long defaultTTLValue = 30;
 	protected TimeUnit defaultTTLTimeUnit = TimeUnit.MINUTES;
-	protected Scheduler defaultScheduler = Schedulers.io();
+	protected StorageScheduler storageScheduler = StorageScheduler.getDefault();
+	protected Scheduler defaultScheduler = null;
+	protected boolean awaitWarmUp = true;
+	protected CacheEventDispatcher eventDispatcher = new CacheEventDispatcher();
+
+	protected final Map<String, WarmedUpEntry> warmedUpEntries = new ConcurrentHashMap<>();
+	protected final AtomicBoolean warmUpStarted = new AtomicBoolean(false);
+	protected final CompletableSubject warmUpCompletion = CompletableSubject.create();
+	protected final AtomicLong warmUpLoads = new AtomicLong();
+	protected final AtomicLong warmUpHits = new AtomicLong();
+	protected AccessLog accessLog = null;
+
+	protected volatile long lastForegroundAccess = 0;
+
+	protected final ConcurrentMap<String, Single<?>> inFlightLoads = new ConcurrentHashMap<>();
+	protected final AtomicLong sharedLoads = new AtomicLong();
+	protected final AtomicLong suppressedWrites = new AtomicLong();
+	protected final AtomicLong suppressedEmissions = new AtomicLong();
+	protected final List<Bulkhead> bulkheads = new CopyOnWriteArrayList<>();
+	protected final Object[] keyLocks = new Object[32];
+
+	private final Action completeWarmUp = new Action() {
+		@Override
+		public void run() throws Exception {
+			warmUpCompletion.onComplete();
+		}
+	};
 
 	/**
 	 * Initialize the cache with the given {@link Storage} implementation.
@@ -36,6 +98,9 @@ public class RxCache {
 	 */
 	public RxCache(@NotNull Storage storage) {
 		this.storage = storage;
+		for (int i = 0; i < keyLocks.length; i++) {
+			keyLocks[i] = new Object();
+		}
 	}
 
 	public Storage getStorage() {
@@ -65,15 +130,396 @@ public class RxCache {
 		return this;
 	}
 
+	public StorageScheduler getStorageScheduler() {
+		return storageScheduler;
+	}
+
+	/**
+	 * Set the schedulers used for storage reads and writes. Defaults to {@link StorageScheduler#getDefault()}
+	 */
+	public RxCache withStorageScheduler(@NotNull StorageScheduler storageScheduler) {
+		this.storageScheduler = storageScheduler;
+		return this;
+	}
+
+	/**
+	 * @return The scheduler configured with {@link #withDefaultScheduler(Scheduler)}, or the storage read scheduler otherwise
+	 */
 	public Scheduler getDefaultScheduler() {
-		return defaultScheduler;
+		return defaultScheduler != null ? defaultScheduler : storageScheduler.reads();
 	}
 
+	/**
+	 * Use the given scheduler for all storage operations, instead of the {@link StorageScheduler}
+	 */
 	public RxCache withDefaultScheduler(@NotNull Scheduler scheduler) {
 		this.defaultScheduler = scheduler;
 		return this;
 	}
 
+	/**
+	 * @return The scheduler configured with {@link #withDefaultScheduler(Scheduler)}, or the storage read scheduler otherwise
+	 */
+	protected Scheduler getReadScheduler() {
+		return getDefaultScheduler();
+	}
+
+	/**
+	 * @return The scheduler configured with {@link #withDefaultScheduler(Scheduler)}, or the storage single-writer lane otherwise
+	 */
+	protected Scheduler getWriteScheduler() {
+		return defaultScheduler != null ? defaultScheduler : storageScheduler.writes();
+	}
+
+	public CacheEventDispatcher getEventDispatcher() {
+		return eventDispatcher;
+	}
+
+	/**
+	 * Set the dispatcher delivering events of this cache, for instance to share it with storages such as
+	 * {@link fr.beapp.cache.storage.ObservedStorage} or {@link fr.beapp.cache.storage.QuotaStorage}
+	 */
+	public RxCache withEventDispatcher(@NotNull CacheEventDispatcher eventDispatcher) {
+		this.eventDispatcher = eventDispatcher;
+		return this;
+	}
+
+	/**
+	 * Receive hit, miss and load events of this cache, and any event dispatched by storages sharing its {@link CacheEventDispatcher}
+	 */
+	public RxCache addEventListener(@NotNull CacheEventListener listener) {
+		eventDispatcher.addListener(listener);
+		return this;
+	}
+
+	public RxCache removeEventListener(@NotNull CacheEventListener listener) {
+		eventDispatcher.removeListener(listener);
+		return this;
+	}
+
+	public boolean isAwaitWarmUp() {
+		return awaitWarmUp;
+	}
+
+	/**
+	 * Configure how cache reads behave while a {@link #warmUp(String, Collection)} is running.
+	 *
+	 * @param awaitWarmUp <code>true</code> to delay cache reads until warm-up is done (default), <code>false</code> to read the storage right away
+	 */
+	public RxCache withAwaitWarmUp(boolean awaitWarmUp) {
+		this.awaitWarmUp = awaitWarmUp;
+		return this;
+	}
+
+	/**
+	 * Warm-up the cache using the default session.
+	 *
+	 * @see #warmUp(String, Collection)
+	 */
+	public Completable warmUp(@NotNull Collection<String> keys) {
+		return warmUp(defaultSessionName, keys);
+	}
+
+	/**
+	 * Open the {@link Storage} on the default scheduler and preload the given keys in memory.
+	 * <br/>
+	 * Each preloaded value will be served once by the first cache read of its key, saving a storage access right after application start.
+	 * Nothing happens until the returned {@link Completable} is subscribed.
+	 *
+	 * @param session The session to use
+	 * @param keys    The keys to preload
+	 */
+	public Completable warmUp(@Nullable final String session, @NotNull final Collection<String> keys) {
+		return decorateWarmUp(Completable.fromAction(new Action() {
+			@Override
+			public void run() throws Exception {
+				storage.open();
+				for (String key : keys) {
+					preload(session, key);
+				}
+			}
+		}));
+	}
+
+	/**
+	 * Open the {@link Storage} on the default scheduler and preload the keys most read in previous runs, most read first.
+	 * <br/>
+	 * The manifest saved by {@link #saveAccessLog()} is merged into the access log configured with {@link #withAccessLog(AccessLog)}, if any,
+	 * so access counts carry over runs. Preloaded values are served like {@link #warmUp(String, Collection)} ones.
+	 *
+	 * @param count The maximum count of keys to preload
+	 */
+	public Completable warmUpFromAccessLog(final int count) {
+		return decorateWarmUp(Completable.fromAction(new Action() {
+			@Override
+			public void run() throws Exception {
+				storage.open();
+				AccessLog log = accessLog != null ? accessLog : new AccessLog(Integer.MAX_VALUE, 1);
+				CacheWrapper<Object> manifest = storage.get(AccessLog.MANIFEST_SESSION, AccessLog.MANIFEST_KEY, Object.class);
+				if (manifest != null && manifest.getData() instanceof AccessLog.Manifest) {
+					log.merge((AccessLog.Manifest) manifest.getData());
+				}
+				for (AccessLog.Entry entry : log.top(count)) {
+					preload(entry.getSession(), entry.getKey());
+				}
+			}
+		}));
+	}
+
+	protected void preload(@Nullable String session, @NotNull String key) {
+		CacheWrapper<Object> value = storage.get(session, key, Object.class);
+		if (value != null && value.getData() != null) {
+			warmedUpEntries.put(buildResolvedKey(session, key), new WarmedUpEntry(value, storage.getVersion(session, key)));
+			warmUpLoads.incrementAndGet();
+		}
+	}
+
+	protected Completable decorateWarmUp(@NotNull Completable warmUp) {
+		return warmUp
+				.subscribeOn(getDefaultScheduler())
+				.doOnSubscribe(new Consumer<Disposable>() {
+					@Override
+					public void accept(@io.reactivex.annotations.NonNull Disposable disposable) throws Exception {
+						warmUpStarted.set(true);
+					}
+				})
+				.doOnTerminate(completeWarmUp)
+				.doOnDispose(completeWarmUp);
+	}
+
+	/**
+	 * @return <code>true</code> if a warm-up was started and is not yet terminated
+	 */
+	public boolean isWarmingUp() {
+		return warmUpStarted.get() && !warmUpCompletion.hasComplete();
+	}
+
+	/**
+	 * @return <code>true</code> if a warm-up was started and is terminated
+	 */
+	public boolean isWarmedUp() {
+		return warmUpCompletion.hasComplete();
+	}
+
+	/**
+	 * @return A {@link Completable} completing as soon as the first warm-up terminates
+	 */
+	public Completable whenWarmedUp() {
+		return warmUpCompletion.hide();
+	}
+
+	/**
+	 * @return <code>true</code> if some preloaded values were not served yet
+	 */
+	protected boolean hasWarmedUpEntries() {
+		return !warmedUpEntries.isEmpty();
+	}
+
+	/**
+	 * Retrieve and forget a value preloaded by {@link #warmUp(String, Collection)}, unless it was removed or replaced in storage since.
+	 * <br/>
+	 * This checks the storage, so it must be called on a storage read scheduler.
+	 */
+	@Nullable
+	protected CacheWrapper<?> takeWarmedUp(@Nullable String session, @NotNull String key) {
+		if (warmedUpEntries.isEmpty()) {
+			return null;
+		}
+		WarmedUpEntry entry = warmedUpEntries.remove(buildResolvedKey(session, key));
+		if (entry == null || !isCurrent(session, key, entry)) {
+			return null;
+		}
+		warmUpHits.incrementAndGet();
+		return entry.value;
+	}
+
+	/**
+	 * Entries may be removed by deletes, clears, evictions or sweeps done directly on the storage or its decorators, so preloaded values
+	 * are checked against the storage: by version if tracked, or else by existence, which is still cheaper than reading the entry.
+	 */
+	protected boolean isCurrent(@Nullable String session, @NotNull String key, @NotNull WarmedUpEntry entry) {
+		if (entry.version != Storage.NO_VERSION) {
+			return storage.getVersion(session, key) == entry.version;
+		}
+		return storage.exists(session, key);
+	}
+
+	/**
+	 * @return How many values were preloaded by warm-ups
+	 */
+	public long getWarmUpLoads() {
+		return warmUpLoads.get();
+	}
+
+	/**
+	 * @return How many preloaded values were served by a cache read
+	 */
+	public long getWarmUpHits() {
+		return warmUpHits.get();
+	}
+
+	/**
+	 * @return The ratio of preloaded values which were served by a cache read, between 0 and 1
+	 */
+	public double getWarmUpHitRate() {
+		long loads = warmUpLoads.get();
+		return loads == 0 ? 0 : (double) warmUpHits.get() / loads;
+	}
+
+	public AccessLog getAccessLog() {
+		return accessLog;
+	}
+
+	/**
+	 * Record cache reads in the given log, so the most read keys can be preloaded on next start, see {@link #warmUpFromAccessLog(int)}.
+	 * Defaults to no log
+	 */
+	public RxCache withAccessLog(@Nullable AccessLog accessLog) {
+		this.accessLog = accessLog;
+		return this;
+	}
+
+	/**
+	 * Persist the access log in the {@link Storage}, under the {@link AccessLog#MANIFEST_SESSION} session. Completes right away if there is no access log
+	 */
+	public Completable saveAccessLog() {
+		return Completable.fromAction(new Action() {
+			@Override
+			public void run() throws Exception {
+				AccessLog log = accessLog;
+				if (log != null) {
+					storage.put(AccessLog.MANIFEST_SESSION, AccessLog.MANIFEST_KEY, new CacheWrapper<>(log.toManifest()));
+				}
+			}
+		}).subscribeOn(getWriteScheduler());
+	}
+
+	/**
+	 * Record a cache read in the access log, if any
+	 */
+	protected void recordAccess(@Nullable String session, @NotNull String key) {
+		AccessLog log = accessLog;
+		if (log != null) {
+			log.record(session, key);
+		}
+	}
+
+	/**
+	 * Forget a value preloaded by {@link #warmUp(String, Collection)}, as it's about to be overwritten
+	 */
+	protected void forgetWarmedUp(@Nullable String session, @NotNull String key) {
+		if (!warmedUpEntries.isEmpty()) {
+			warmedUpEntries.remove(buildResolvedKey(session, key));
+		}
+	}
+
+	/**
+	 * @return How many async loads were spared by joining an in-flight load of the same key
+	 */
+	public long getSharedLoads() {
+		return sharedLoads.get();
+	}
+
+	/**
+	 * @return How many loaded data were not written again because they were equal to cached data, see {@link StrategyBuilder#withSkipUnchanged(boolean)}
+	 */
+	public long getSuppressedWrites() {
+		return suppressedWrites.get();
+	}
+
+	/**
+	 * @return How many loaded data were not emitted because they were equal to the emitted cached data, see {@link StrategyBuilder#withSkipUnchanged(boolean)}
+	 */
+	public long getSuppressedEmissions() {
+		return suppressedEmissions.get();
+	}
+
+	/**
+	 * Limit how many async loads of keys matching the given bulkhead run at once. When several bulkheads match a key, the first added is used.
+	 * Only resolutions built after this call are limited
+	 */
+	public RxCache withBulkhead(@NotNull Bulkhead bulkhead) {
+		bulkheads.add(bulkhead);
+		return this;
+	}
+
+	public List<Bulkhead> getBulkheads() {
+		return Collections.unmodifiableList(bulkheads);
+	}
+
+	/**
+	 * @return The bulkhead limiting async loads of the given key, if any
+	 */
+	@Nullable
+	protected Bulkhead findBulkhead(@NotNull String key) {
+		for (Bulkhead bulkhead : bulkheads) {
+			if (bulkhead.matches(key)) {
+				return bulkhead;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Share the given async load with concurrent loads of the same key: while a load is in flight, subscribers join it instead of starting a new one.
+	 * <br/>
+	 * The load is disposed, and forgotten, once all its subscribers are disposed.
+	 */
+	protected <T> Single<CacheWrapper<T>> shareLoad(@Nullable final String session, @NotNull final String key, @NotNull final Single<CacheWrapper<T>> load) {
+		return Single.defer(new Callable<SingleSource<CacheWrapper<T>>>() {
+			@Override
+			@SuppressWarnings("unchecked")
+			public SingleSource<CacheWrapper<T>> call() throws Exception {
+				final String resolvedKey = buildResolvedKey(session, key);
+				final AtomicReference<Single<?>> sharedLoadRef = new AtomicReference<>();
+				Single<CacheWrapper<T>> sharedLoad = load
+						.toObservable()
+						.doFinally(new Action() {
+							@Override
+							public void run() throws Exception {
+								inFlightLoads.remove(resolvedKey, sharedLoadRef.get());
+							}
+						})
+						.publish()
+						.refCount()
+						.singleOrError();
+				sharedLoadRef.set(sharedLoad);
+
+				Single<CacheWrapper<T>> inFlightLoad = (Single<CacheWrapper<T>>) inFlightLoads.putIfAbsent(resolvedKey, sharedLoad);
+				if (inFlightLoad != null) {
+					sharedLoads.incrementAndGet();
+					return inFlightLoad;
+				}
+				return sharedLoad;
+			}
+		});
+	}
+
+	/**
+	 * @return The lock to hold while reading then writing entries of the given key, shared by all users of this cache
+	 */
+	protected Object getKeyLock(@Nullable String session, @NotNull String key) {
+		return keyLocks[(buildResolvedKey(session, key).hashCode() & 0x7fffffff) % keyLocks.length];
+	}
+
+	protected String buildResolvedKey(@Nullable String session, @NotNull String key) {
+		return StorageKeys.resolve(session, key);
+	}
+
+	/**
+	 * @return The last time the storage was accessed by a cache resolution, in milliseconds
+	 */
+	public long getLastForegroundAccess() {
+		return lastForegroundAccess;
+	}
+
+	/**
+	 * Record a storage access by a cache resolution, so background work can yield to it
+	 */
+	protected void notifyForegroundAccess() {
+		lastForegroundAccess = System.currentTimeMillis();
+	}
+
 	/**
 	 * Create a new builder to configure data cache resolution strategy for the given key.
 	 *
@@ -85,26 +531,161 @@ public class RxCache {
 		return new StrategyBuilder<>(this, key, args);
 	}
 
+	/**
+	 * Create a new collection cached page by page under the given key.
+	 *
+	 * @param key  The key pattern of the collection in {@link Storage}
+	 * @param args The arguments to inject in the given key pattern
+	 * @return The paged collection, stored in the default session with the default TTL
+	 */
+	public <T> PagedCollection<T> fromPagedKey(@NotNull String key, Object... args) {
+		return new PagedCollection<>(this, key, args);
+	}
+
+	/**
+	 * Stream a cached byte array from the default session, see {@link #openStream(String, String)}
+	 */
+	public Maybe<CacheWrapper<InputStream>> openStream(@NotNull String key) {
+		return openStream(defaultSessionName, key);
+	}
+
+	/**
+	 * Stream a cached byte array, without loading it fully in memory when the storage supports it (see {@link fr.beapp.cache.storage.StreamingStorage}).
+	 * Other storages read the byte array as usual. The stream must be closed by the subscriber, and expiration is left to it, using the cached date.
+	 *
+	 * @param session The session to use
+	 * @param key     The key of the data
+	 * @return A {@link Maybe} emitting the stream, or completing if there is no data or if it isn't a byte array
+	 */
+	public Maybe<CacheWrapper<InputStream>> openStream(@Nullable final String session, @NotNull final String key) {
+		return Maybe.fromCallable(new Callable<CacheWrapper<InputStream>>() {
+			@Override
+			public CacheWrapper<InputStream> call() throws Exception {
+				notifyForegroundAccess();
+				CacheWrapper<InputStream> stream = StorageStreams.getStream(storage, session, key);
+				return stream != null ? stream.asFromCache() : null;
+			}
+		}).subscribeOn(getReadScheduler());
+	}
+
+	/**
+	 * Remove all data tagged with any of the given tags (see {@link StrategyBuilder#withTags(String...)}).
+	 * The {@link Storage} must be, or decorate, a {@link TaggedStorage}, otherwise the returned {@link Single} fails.
+	 *
+	 * @return A {@link Single} emitting the count of removed entries
+	 */
+	public Single<Integer> invalidateTags(@NotNull final String... tags) {
+		return Single.fromCallable(new Callable<Integer>() {
+			@Override
+			public Integer call() throws Exception {
+				TaggedStorage taggedStorage = findTaggedStorage();
+				if (taggedStorage == null) {
+					throw new IllegalStateException("Tags are not indexed, the storage must be or decorate a TaggedStorage");
+				}
+
+				// Removed through the whole storage chain, so decorators above the index forget them too
+				List<TaggedStorage.TaggedKey> removedKeys = taggedStorage.invalidateTags(storage, tags);
+				for (TaggedStorage.TaggedKey taggedKey : removedKeys) {
+					forgetWarmedUp(taggedKey.getSession(), taggedKey.getKey());
+				}
+				return removedKeys.size();
+			}
+		}).subscribeOn(getWriteScheduler());
+	}
+
+	@Nullable
+	protected TaggedStorage findTaggedStorage() {
+		Storage current = storage;
+		while (current != null) {
+			if (current instanceof TaggedStorage) {
+				return (TaggedStorage) current;
+			}
+			current = current instanceof DelegatingStorage ? ((DelegatingStorage) current).getDelegate() : null;
+		}
+		return null;
+	}
+
+	/**
+	 * A value preloaded by a warm-up, with its version in storage at that time
+	 */
+	protected static class WarmedUpEntry {
+		private final CacheWrapper<?> value;
+		private final long version;
+
+		private WarmedUpEntry(@NotNull CacheWrapper<?> value, long version) {
+			this.value = value;
+			this.version = version;
+		}
+	}
+
 	public static class StrategyBuilder<T> {
+		public static final int DEFAULT_MAX_POLLING_BACKOFF_FACTOR = 16;
+
+		private static final ContentHasher DEFAULT_CONTENT_HASHER = new SerializedContentHasher();
+		private static final Function<CacheWrapper<Object>, Object> UNWRAP_DATA = new Function<CacheWrapper<Object>, Object>() {
+			@Override
+			public Object apply(@io.reactivex.annotations.NonNull CacheWrapper<Object> cacheWrapper) throws Exception {
+				return cacheWrapper.getData();
+			}
+		};
+		/**
+		 * Emitted by loads rejected by a bulkhead once cached data was already emitted, and filtered out before reaching subscribers
+		 */
+		private static final CacheWrapper<Object> SKIPPED_LOAD = new CacheWrapper<>(0, null);
+
+		protected final RxCache rxCache;
 		protected final String key;
 		protected final Storage storage;
 
 		protected long ttlValue;
 		protected TimeUnit ttlTimeUnit;
 		protected String sessionName;
+		protected StorageScheduler storageScheduler;
 		protected Scheduler scheduler;
+		protected Priority priority = Priority.NORMAL;
 
 		protected CacheStrategy cacheStrategy = null;
 		protected boolean keepExpiredCache = false;
+		protected boolean singleFlight = false;
 		protected Single<T> asyncObservable = Single.never();
+		protected Revalidator<T> revalidator = null;
+		protected AdaptiveTTL adaptiveTTL = null;
+		protected boolean skipUnchanged = false;
+		protected long maxPollingBackoffMillis = 0;
+		protected ContentHasher contentHasher = DEFAULT_CONTENT_HASHER;
+		protected String[] tags = CacheWrapper.NO_TAGS;
+
+		private Flowable<CacheWrapper<T>> wrapperPipeline = null;
+		private Flowable<T> dataPipeline = null;
+		private volatile CacheHit<T> lastCacheHit = null;
+		private final BiPredicate<CacheWrapper<T>, CacheWrapper<T>> unchangedContent = new BiPredicate<CacheWrapper<T>, CacheWrapper<T>>() {
+			@Override
+			public boolean test(@io.reactivex.annotations.NonNull CacheWrapper<T> previous, @io.reactivex.annotations.NonNull CacheWrapper<T> current) throws Exception {
+				boolean unchanged = hashOf(previous) == hashOf(current);
+				if (unchanged) {
+					rxCache.suppressedEmissions.incrementAndGet();
+				}
+				return unchanged;
+			}
+		};
+		private final Action dispatchMiss = new Action() {
+			@Override
+			public void run() throws Exception {
+				if (rxCache.getEventDispatcher().isEnabled()) {
+					rxCache.getEventDispatcher().dispatch(CacheEvent.miss(sessionName, key));
+				}
+			}
+		};
 
 		public StrategyBuilder(@NotNull RxCache rxCache, @NotNull final String key, Object... args) {
-			this.key = String.format(key, args);
+			this.rxCache = rxCache;
+			this.key = args.length > 0 ? String.format(key, args) : key;
 			this.storage = rxCache.getStorage();
 			this.ttlValue = rxCache.getDefaultTTLValue();
 			this.ttlTimeUnit = rxCache.getDefaultTTLTimeUnit();
 			this.sessionName = rxCache.getDefaultSessionName();
-			this.scheduler = rxCache.getDefaultScheduler();
+			this.storageScheduler = rxCache.getStorageScheduler();
+			this.scheduler = rxCache.defaultScheduler;
 		}
 
 		/**
@@ -112,6 +693,7 @@ public class RxCache {
 		 */
 		public StrategyBuilder<T> withStrategy(@NotNull CacheStrategy cacheStrategy) {
 			this.cacheStrategy = cacheStrategy;
+			resetPipelines();
 			return this;
 		}
 
@@ -121,6 +703,7 @@ public class RxCache {
 		public StrategyBuilder<T> withTTL(long value, @NotNull TimeUnit timeUnit) {
 			this.ttlValue = value;
 			this.ttlTimeUnit = timeUnit;
+			resetPipelines();
 			return this;
 		}
 
@@ -129,14 +712,26 @@ public class RxCache {
 		 */
 		public StrategyBuilder<T> withSession(@Nullable String sessionName) {
 			this.sessionName = sessionName;
+			resetPipelines();
 			return this;
 		}
 
 		/**
-		 * Set the scheduler to use for cache observable
+		 * Set the scheduler to use for all storage operations of this resolution, instead of the {@link StorageScheduler}
 		 */
 		public StrategyBuilder<T> withDefaultScheduler(@NotNull Scheduler scheduler) {
 			this.scheduler = scheduler;
+			resetPipelines();
+			return this;
+		}
+
+		/**
+		 * Set the priority of the storage reads of this resolution on the {@link StorageScheduler}. Defaults to {@link Priority#NORMAL}.
+		 * Ignored when a default scheduler is set
+		 */
+		public StrategyBuilder<T> withPriority(@NotNull Priority priority) {
+			this.priority = priority;
+			resetPipelines();
 			return this;
 		}
 
@@ -145,6 +740,66 @@ public class RxCache {
 		 */
 		public StrategyBuilder<T> withAsync(@Nullable Single<T> asyncObservable) {
 			this.asyncObservable = asyncObservable == null ? Single.<T>never() : asyncObservable;
+			resetPipelines();
+			return this;
+		}
+
+		/**
+		 * The {@link Revalidator} to use for async operations, instead of {@link #withAsync(Single)}.
+		 * <br/>
+		 * It receives the validators of the cached data. When it answers "not modified", only the cached date of the stored data is updated.
+		 */
+		public StrategyBuilder<T> withRevalidatingAsync(@Nullable Revalidator<T> revalidator) {
+			this.revalidator = revalidator;
+			resetPipelines();
+			return this;
+		}
+
+		/**
+		 * Learn the TTL of this key from how often its data changes, starting from the TTL of this resolution.
+		 * The learned TTL is used by {@link CacheStrategy#cacheOrAsync()}. Each load then costs a storage read to compare with cached data
+		 */
+		public StrategyBuilder<T> withAdaptiveTTL(@Nullable AdaptiveTTL adaptiveTTL) {
+			this.adaptiveTTL = adaptiveTTL;
+			resetPipelines();
+			return this;
+		}
+
+		/**
+		 * Compare loaded data to cached data using their content hash. When they are equal, only the cached date is updated instead of
+		 * writing the data again, and strategies emitting both cached and loaded data don't emit it twice.
+		 * Each load then costs a storage read, and hashing the loaded data
+		 */
+		public StrategyBuilder<T> withSkipUnchanged(boolean skipUnchanged) {
+			this.skipUnchanged = skipUnchanged;
+			resetPipelines();
+			return this;
+		}
+
+		/**
+		 * Set the way data content is hashed by {@link #withSkipUnchanged(boolean)}. Defaults to {@link SerializedContentHasher}
+		 */
+		public StrategyBuilder<T> withContentHasher(@NotNull ContentHasher contentHasher) {
+			this.contentHasher = contentHasher;
+			resetPipelines();
+			return this;
+		}
+
+		/**
+		 * Tag the loaded data, so it can be removed along other data of the same tags by {@link RxCache#invalidateTags(String...)}
+		 */
+		public StrategyBuilder<T> withTags(@NotNull String... tags) {
+			this.tags = tags.clone();
+			resetPipelines();
+			return this;
+		}
+
+		/**
+		 * Set the longest interval between loads after consecutive failures of {@link #pollWrapper(long, TimeUnit, Scheduler)}.
+		 * Defaults to {@link #DEFAULT_MAX_POLLING_BACKOFF_FACTOR} times the polling interval
+		 */
+		public StrategyBuilder<T> withMaxPollingBackoff(long value, @NotNull TimeUnit timeUnit) {
+			this.maxPollingBackoffMillis = timeUnit.toMillis(value);
 			return this;
 		}
 
@@ -153,6 +808,7 @@ public class RxCache {
 		 */
 		public StrategyBuilder<T> keepExpiredCache() {
 			this.keepExpiredCache = true;
+			resetPipelines();
 			return this;
 		}
 
@@ -161,68 +817,535 @@ public class RxCache {
 		 */
 		public StrategyBuilder<T> ignoreExpiredCache() {
 			this.keepExpiredCache = false;
+			resetPipelines();
 			return this;
 		}
 
 		/**
-		 * Convert this resolution data strategy to a Rx {@link Flowable}
+		 * Share async loads with concurrent resolutions of the same key. Some strategies always do it
+		 *
+		 * @see CacheStrategy#isSingleFlight()
 		 */
+		public StrategyBuilder<T> withSingleFlight(boolean singleFlight) {
+			this.singleFlight = singleFlight;
+			resetPipelines();
+			return this;
+		}
+
+		/**
+		 * Convert this resolution data strategy to a Rx {@link Flowable}.
+		 * <br/>
+		 * The {@link Flowable} is built once and reused until this builder is configured again, so keeping it and subscribing to it
+		 * for each resolution spares rebuilding the whole pipeline.
+		 * <br/>
+		 * When the cache storage is a plain {@link InMemoryStorage} and no default scheduler is set, cache hits are delivered
+		 * synchronously on the subscribing thread, instead of a storage scheduler thread.
+		 */
+		@SuppressWarnings("unchecked")
 		public Flowable<T> fetch() {
-			return fetchWrapper()
-					.map(new Function<CacheWrapper<T>, T>() {
+			if (dataPipeline == null) {
+				dataPipeline = fetchWrapper().map((Function<CacheWrapper<T>, T>) (Function<?, ?>) UNWRAP_DATA);
+			}
+			return dataPipeline;
+		}
+
+		/**
+		 * Convert this resolution data strategy to a Rx {@link Flowable}.
+		 * <br/>
+		 * The {@link Flowable} is built once and reused until this builder is configured again. Cache hits may be delivered on the
+		 * subscribing thread, see {@link #fetch()}.
+		 */
+		public Flowable<CacheWrapper<T>> fetchWrapper() {
+			if (wrapperPipeline == null) {
+				wrapperPipeline = buildPipeline();
+			}
+			return wrapperPipeline;
+		}
+
+		protected void resetPipelines() {
+			wrapperPipeline = null;
+			dataPipeline = null;
+		}
+
+		protected Flowable<CacheWrapper<T>> buildPipeline() {
+			CacheStrategy cacheStrategy = this.cacheStrategy != null ? this.cacheStrategy : CacheStrategy.cacheOrAsync(keepExpiredCache, ttlValue, ttlTimeUnit);
+
+			final AsyncStorage asyncStorage = buildAsyncStorage();
+			Single<CacheWrapper<T>> asyncObservableCaching = revalidator != null
+					? buildRevalidatingObservableCaching(asyncStorage, revalidator, sessionName, key)
+					: buildAsyncObservableCaching(asyncStorage, asyncObservable, sessionName, key);
+			asyncObservableCaching = instrumentLoad(asyncObservableCaching, rxCache.getEventDispatcher(), sessionName, key);
+			Bulkhead bulkhead = rxCache.findBulkhead(key);
+			if (bulkhead != null) {
+				asyncObservableCaching = bulkhead.limit(asyncObservableCaching);
+			}
+			if (singleFlight || cacheStrategy.isSingleFlight()) {
+				asyncObservableCaching = rxCache.shareLoad(sessionName, key, asyncObservableCaching);
+			}
+			final Maybe<CacheWrapper<T>> cacheObservable = buildCacheObservable(asyncStorage, sessionName, key);
+
+			Flowable<CacheWrapper<T>> strategyObservable = bulkhead != null && bulkhead.getOverflowPolicy() == Bulkhead.OverflowPolicy.FALLBACK_TO_CACHE
+					? buildFallbackStrategyObservable(cacheStrategy, asyncStorage, cacheObservable, asyncObservableCaching)
+					: cacheStrategy.getStrategyObservable(cacheObservable, asyncObservableCaching);
+			if (skipUnchanged) {
+				strategyObservable = strategyObservable.distinctUntilChanged(unchangedContent);
+			}
+			return strategyObservable;
+		}
+
+		/**
+		 * Poll the async source on {@link Schedulers#computation()}, see {@link #pollWrapper(long, TimeUnit, Scheduler)}
+		 */
+		public Flowable<T> poll(long interval, @NotNull TimeUnit timeUnit) {
+			return poll(interval, timeUnit, Schedulers.computation());
+		}
+
+		/**
+		 * Poll the async source, see {@link #pollWrapper(long, TimeUnit, Scheduler)}
+		 */
+		@SuppressWarnings("unchecked")
+		public Flowable<T> poll(long interval, @NotNull TimeUnit timeUnit, @NotNull Scheduler scheduler) {
+			return pollWrapper(interval, timeUnit, scheduler).map((Function<CacheWrapper<T>, T>) (Function<?, ?>) UNWRAP_DATA);
+		}
+
+		/**
+		 * Poll the async source on {@link Schedulers#computation()}, see {@link #pollWrapper(long, TimeUnit, Scheduler)}
+		 */
+		public Flowable<CacheWrapper<T>> pollWrapper(long interval, @NotNull TimeUnit timeUnit) {
+			return pollWrapper(interval, timeUnit, Schedulers.computation());
+		}
+
+		/**
+		 * Load data from the async source on the given interval, storing it as usual, and emit it only when its content changed.
+		 * <br/>
+		 * On subscription, the cached data is emitted first, whatever its age, and the first load waits for the rest of the interval since
+		 * its cached date, so polling resumes where the previous process left it. Unchanged loaded data only updates the cached date.
+		 * After a failed load, the interval is doubled for each consecutive failure, up to {@link #withMaxPollingBackoff(long, TimeUnit)}.
+		 * <br/>
+		 * The returned {@link Flowable} is shared: polling runs while it has subscribers, and stops when the last one is disposed.
+		 * Keep it and subscribe to it, so all subscribers share the same polling. Late subscribers first receive the latest emitted data.
+		 *
+		 * @param interval  The interval between the end of a load and the start of the next one, strictly positive
+		 * @param timeUnit  The time unit of the interval
+		 * @param scheduler The scheduler to wait on
+		 */
+		public Flowable<CacheWrapper<T>> pollWrapper(long interval, @NotNull TimeUnit timeUnit, @NotNull final Scheduler scheduler) {
+			final long intervalMillis = timeUnit.toMillis(interval);
+			if (intervalMillis <= 0) {
+				throw new IllegalArgumentException("Polling interval must be positive, got " + interval + " " + timeUnit);
+			}
+			final long maxBackoffMillis = Math.max(intervalMillis, maxPollingBackoffMillis != 0 ? maxPollingBackoffMillis : intervalMillis * DEFAULT_MAX_POLLING_BACKOFF_FACTOR);
+
+			final AsyncStorage asyncStorage = buildAsyncStorage();
+			Single<CacheWrapper<T>> asyncObservableCaching = revalidator != null
+					? buildRevalidatingObservableCaching(asyncStorage, revalidator, sessionName, key)
+					: buildAsyncObservableCaching(asyncStorage, asyncObservable, sessionName, key, true);
+			asyncObservableCaching = instrumentLoad(asyncObservableCaching, rxCache.getEventDispatcher(), sessionName, key);
+			asyncObservableCaching = limitLoad(asyncObservableCaching, asyncStorage, sessionName, key);
+			if (singleFlight) {
+				asyncObservableCaching = rxCache.shareLoad(sessionName, key, asyncObservableCaching);
+			}
+			final Single<CacheWrapper<T>> load = asyncObservableCaching;
+
+			return Flowable.defer(new Callable<Publisher<CacheWrapper<T>>>() {
+				@Override
+				public Publisher<CacheWrapper<T>> call() throws Exception {
+					final PollingState state = new PollingState(intervalMillis, maxBackoffMillis);
+					Flowable<CacheWrapper<T>> cachedData = readStorage(asyncStorage, sessionName, key)
+							.map(new Function<CacheWrapper<T>, CacheWrapper<T>>() {
+								@Override
+								public CacheWrapper<T> apply(@io.reactivex.annotations.NonNull CacheWrapper<T> cachedData) throws Exception {
+									state.resumeFrom(cachedData.getCachedDate());
+									return cachedData.asFromCache();
+								}
+							})
+							.toFlowable();
+
+					Flowable<CacheWrapper<T>> loads = Single.defer(new Callable<SingleSource<CacheWrapper<T>>>() {
 						@Override
-						public T apply(@io.reactivex.annotations.NonNull CacheWrapper<T> cacheWrapper) throws Exception {
-							return cacheWrapper.getData();
+						public SingleSource<CacheWrapper<T>> call() throws Exception {
+							return load.delaySubscription(state.nextDelayMillis, TimeUnit.MILLISECONDS, scheduler);
+						}
+					})
+							.doOnEvent(new BiConsumer<CacheWrapper<T>, Throwable>() {
+								@Override
+								public void accept(CacheWrapper<T> value, Throwable throwable) throws Exception {
+									state.onLoadEnd(throwable == null);
+								}
+							})
+							.retry()
+							.repeat();
+					return cachedData.concatWith(loads);
+				}
+			})
+					.distinctUntilChanged(unchangedContent)
+					.replay(1)
+					.refCount();
+		}
+
+		/**
+		 * Use the storage natively if it implements {@link AsyncStorage}, or run its blocking operations on the configured scheduler.
+		 * Without any, reads go to the {@link StorageScheduler} read pool with the priority of this resolution, and writes to its single-writer lane.
+		 */
+		protected AsyncStorage buildAsyncStorage() {
+			if (scheduler != null) {
+				return AsyncStorageAdapter.adapt(storage, scheduler, scheduler);
+			}
+			return AsyncStorageAdapter.adapt(storage, storageScheduler.reads(priority), storageScheduler.writes());
+		}
+
+		/**
+		 * Report start and end of each async load, when listeners are registered
+		 */
+		protected Single<CacheWrapper<T>> instrumentLoad(@NotNull final Single<CacheWrapper<T>> load, @NotNull final CacheEventDispatcher eventDispatcher, @Nullable final String sessionName, @NotNull final String key) {
+			return Single.defer(new Callable<SingleSource<CacheWrapper<T>>>() {
+				@Override
+				public SingleSource<CacheWrapper<T>> call() throws Exception {
+					if (!eventDispatcher.isEnabled()) {
+						return load;
+					}
+
+					final long startTime = System.currentTimeMillis();
+					eventDispatcher.dispatch(CacheEvent.loadStart(sessionName, key));
+					return load.doOnEvent(new BiConsumer<CacheWrapper<T>, Throwable>() {
+						@Override
+						public void accept(CacheWrapper<T> value, Throwable throwable) throws Exception {
+							eventDispatcher.dispatch(CacheEvent.loadEnd(sessionName, key, System.currentTimeMillis() - startTime, throwable));
 						}
 					});
+				}
+			});
 		}
 
 		/**
-		 * Convert this resolution data strategy to a Rx {@link Flowable}
+		 * Apply the bulkhead of this key, if any. Loads shared by {@link #withSingleFlight(boolean)} take a single slot
 		 */
-		public Flowable<CacheWrapper<T>> fetchWrapper() {
-			final Single<CacheWrapper<T>> asyncObservableCaching = buildAsyncObservableCaching(asyncObservable, sessionName, key);
-			final Maybe<CacheWrapper<T>> cacheObservable = buildCacheObservable(sessionName, key);
+		protected Single<CacheWrapper<T>> limitLoad(@NotNull Single<CacheWrapper<T>> load, @NotNull final AsyncStorage asyncStorage, @Nullable final String sessionName, @NotNull final String key) {
+			Bulkhead bulkhead = rxCache.findBulkhead(key);
+			if (bulkhead == null) {
+				return load;
+			}
 
-			if (cacheStrategy == null) {
-				cacheStrategy = CacheStrategy.cacheOrAsync(keepExpiredCache, ttlValue, ttlTimeUnit);
+			Single<CacheWrapper<T>> limitedLoad = bulkhead.limit(load);
+			if (bulkhead.getOverflowPolicy() != Bulkhead.OverflowPolicy.FALLBACK_TO_CACHE) {
+				return limitedLoad;
 			}
+			return fallbackToCache(limitedLoad, asyncStorage, sessionName, key, null);
+		}
 
-			return cacheStrategy.getStrategyObservable(cacheObservable, asyncObservableCaching);
+		/**
+		 * Run the strategy with loads rejected by a bulkhead falling back to cached data, unless the strategy already emitted it
+		 */
+		protected Flowable<CacheWrapper<T>> buildFallbackStrategyObservable(@NotNull final CacheStrategy cacheStrategy, @NotNull final AsyncStorage asyncStorage, @NotNull final Maybe<CacheWrapper<T>> cacheObservable, @NotNull final Single<CacheWrapper<T>> load) {
+			return Flowable.defer(new Callable<Publisher<CacheWrapper<T>>>() {
+				@Override
+				public Publisher<CacheWrapper<T>> call() throws Exception {
+					final AtomicBoolean cacheEmitted = new AtomicBoolean(false);
+					return cacheStrategy.getStrategyObservable(cacheObservable, fallbackToCache(load, asyncStorage, sessionName, key, cacheEmitted))
+							.filter(new Predicate<CacheWrapper<T>>() {
+								@Override
+								public boolean test(@io.reactivex.annotations.NonNull CacheWrapper<T> cacheWrapper) throws Exception {
+									if (cacheWrapper == SKIPPED_LOAD) {
+										return false;
+									}
+									if (cacheWrapper.isFromCache()) {
+										cacheEmitted.set(true);
+									}
+									return true;
+								}
+							});
+				}
+			});
 		}
 
-		protected Single<CacheWrapper<T>> buildAsyncObservableCaching(@NotNull Single<T> asyncObservable, @Nullable final String sessionName, @NotNull final String key) {
+		/**
+		 * @param cacheEmitted Set once cached data was emitted, in which case a rejected load emits nothing instead of cached data again
+		 */
+		@SuppressWarnings("unchecked")
+		protected Single<CacheWrapper<T>> fallbackToCache(@NotNull Single<CacheWrapper<T>> load, @NotNull final AsyncStorage asyncStorage, @Nullable final String sessionName, @NotNull final String key, @Nullable final AtomicBoolean cacheEmitted) {
+			return load.onErrorResumeNext(new Function<Throwable, SingleSource<CacheWrapper<T>>>() {
+				@Override
+				public SingleSource<CacheWrapper<T>> apply(@io.reactivex.annotations.NonNull Throwable throwable) throws Exception {
+					if (!(throwable instanceof BulkheadFullException)) {
+						return Single.error(throwable);
+					}
+					if (cacheEmitted != null && cacheEmitted.get()) {
+						return Single.just((CacheWrapper<T>) (CacheWrapper<?>) SKIPPED_LOAD);
+					}
+					return readStorage(asyncStorage, sessionName, key)
+							.map(new Function<CacheWrapper<T>, CacheWrapper<T>>() {
+								@Override
+								public CacheWrapper<T> apply(@io.reactivex.annotations.NonNull CacheWrapper<T> cachedData) throws Exception {
+									return cachedData.asFromCache();
+								}
+							})
+							.switchIfEmpty(Single.<CacheWrapper<T>>error(throwable));
+				}
+			});
+		}
+
+		protected Single<CacheWrapper<T>> buildAsyncObservableCaching(@NotNull AsyncStorage asyncStorage, @NotNull Single<T> asyncObservable, @Nullable String sessionName, @NotNull String key) {
+			return buildAsyncObservableCaching(asyncStorage, asyncObservable, sessionName, key, skipUnchanged);
+		}
+
+		/**
+		 * @param touchUnchanged <code>true</code> to only update the cached date when the loaded data is equal to the cached one
+		 */
+		protected Single<CacheWrapper<T>> buildAsyncObservableCaching(@NotNull final AsyncStorage asyncStorage, @NotNull Single<T> asyncObservable, @Nullable final String sessionName, @NotNull final String key, final boolean touchUnchanged) {
+			if (adaptiveTTL == null && !touchUnchanged) {
+				return asyncObservable
+						.flatMap(new Function<T, SingleSource<CacheWrapper<T>>>() {
+							@Override
+							public SingleSource<CacheWrapper<T>> apply(@io.reactivex.annotations.NonNull T value) throws Exception {
+								return putAsyncResult(asyncStorage, sessionName, key, new CacheWrapper<>(value));
+							}
+						});
+			}
+
+			// Loaded data is compared to cached data, which must be read first
+			final CacheWrapper<T> noCachedData = new CacheWrapper<>(0, null);
 			return asyncObservable
-					.map(new Function<T, CacheWrapper<T>>() {
+					.flatMap(new Function<T, SingleSource<CacheWrapper<T>>>() {
 						@Override
-						public CacheWrapper<T> apply(@io.reactivex.annotations.NonNull T value) throws Exception {
-							return new CacheWrapper<>(value);
+						public SingleSource<CacheWrapper<T>> apply(@io.reactivex.annotations.NonNull final T value) throws Exception {
+							return readStorage(asyncStorage, sessionName, key)
+									.toSingle(noCachedData)
+									.flatMap(new Function<CacheWrapper<T>, SingleSource<CacheWrapper<T>>>() {
+										@Override
+										public SingleSource<CacheWrapper<T>> apply(@io.reactivex.annotations.NonNull CacheWrapper<T> cachedData) throws Exception {
+											return storeAsyncResult(asyncStorage, sessionName, key, cachedData.getData() != null ? cachedData : null, value, touchUnchanged);
+										}
+									});
 						}
-					})
-					.doOnSuccess(new Consumer<CacheWrapper<T>>() {
+					});
+		}
+
+		/**
+		 * Store a loaded data with its content hash and learned TTL. If it's unchanged and touchUnchanged is set,
+		 * only the cached date of the cached data is updated
+		 */
+		protected Single<CacheWrapper<T>> storeAsyncResult(@NotNull final AsyncStorage asyncStorage, @Nullable final String sessionName, @NotNull final String key, @Nullable final CacheWrapper<T> cachedData, @Nullable T value, boolean touchUnchanged) {
+			final CacheWrapper<T> cacheWrapper = adaptiveTTL != null
+					? adaptiveTTL.wrap(cachedData, value, ttlTimeUnit.toMillis(ttlValue))
+					: new CacheWrapper<>(System.currentTimeMillis(), value, null, null, contentHasher.hash(value), CacheWrapper.NO_TTL);
+
+			if (!touchUnchanged || cachedData == null || cachedData.getTtl() != cacheWrapper.getTtl() || hashOf(cachedData) != cacheWrapper.getContentHash()
+					|| !Arrays.equals(cachedData.getTags(), tags)) {
+				return putAsyncResult(asyncStorage, sessionName, key, cacheWrapper);
+			}
+
+			rxCache.notifyForegroundAccess();
+			rxCache.forgetWarmedUp(sessionName, key);
+			return asyncStorage.touchAsync(sessionName, key, cacheWrapper.getCachedDate())
+					.flatMap(new Function<Boolean, SingleSource<CacheWrapper<T>>>() {
+						@Override
+						public SingleSource<CacheWrapper<T>> apply(@io.reactivex.annotations.NonNull Boolean touched) throws Exception {
+							if (!touched) {
+								// Cached data was removed meanwhile
+								return putAsyncResult(asyncStorage, sessionName, key, cacheWrapper);
+							}
+							rxCache.suppressedWrites.incrementAndGet();
+							return Single.just(cachedData.withCachedDate(cacheWrapper.getCachedDate()));
+						}
+					});
+		}
+
+		protected long hashOf(@NotNull CacheWrapper<T> cacheWrapper) {
+			return cacheWrapper.getContentHash() != CacheWrapper.NO_CONTENT_HASH ? cacheWrapper.getContentHash() : contentHasher.hash(cacheWrapper.getData());
+		}
+
+		protected Single<CacheWrapper<T>> putAsyncResult(@NotNull AsyncStorage asyncStorage, @Nullable String sessionName, @NotNull String key, @NotNull CacheWrapper<T> cacheWrapper) {
+			rxCache.notifyForegroundAccess();
+			rxCache.forgetWarmedUp(sessionName, key);
+			CacheWrapper<T> taggedWrapper = applyTags(cacheWrapper);
+			return asyncStorage.putAsync(sessionName, key, taggedWrapper)
+					.toSingleDefault(taggedWrapper);
+		}
+
+		protected CacheWrapper<T> applyTags(@NotNull CacheWrapper<T> cacheWrapper) {
+			return tags.length > 0 ? cacheWrapper.withTags(tags) : cacheWrapper;
+		}
+
+		protected Single<CacheWrapper<T>> buildRevalidatingObservableCaching(@NotNull final AsyncStorage asyncStorage, @NotNull final Revalidator<T> revalidator, @Nullable final String sessionName, @NotNull final String key) {
+			final CacheWrapper<T> noCachedData = new CacheWrapper<>(0, null);
+			return readStorage(asyncStorage, sessionName, key)
+					.toSingle(noCachedData)
+					.flatMap(new Function<CacheWrapper<T>, SingleSource<CacheWrapper<T>>>() {
 						@Override
-						public void accept(@io.reactivex.annotations.NonNull CacheWrapper<T> value) throws Exception {
-							storage.put(sessionName, key, value);
+						public SingleSource<CacheWrapper<T>> apply(@io.reactivex.annotations.NonNull final CacheWrapper<T> cachedData) throws Exception {
+							final boolean hasCachedData = cachedData.getData() != null;
+							return revalidator.revalidate(hasCachedData ? cachedData.getEtag() : null, hasCachedData ? cachedData.getLastModified() : null)
+									.flatMap(new Function<Revalidation<T>, SingleSource<CacheWrapper<T>>>() {
+										@Override
+										public SingleSource<CacheWrapper<T>> apply(@io.reactivex.annotations.NonNull Revalidation<T> revalidation) throws Exception {
+											rxCache.notifyForegroundAccess();
+											rxCache.forgetWarmedUp(sessionName, key);
+
+											if (revalidation.isModified()) {
+												CacheWrapper<T> cacheWrapper = applyTags(new CacheWrapper<>(System.currentTimeMillis(), revalidation.getData(), revalidation.getEtag(), revalidation.getLastModified()));
+												return asyncStorage.putAsync(sessionName, key, cacheWrapper)
+														.toSingleDefault(cacheWrapper);
+											} else if (!hasCachedData) {
+												return Single.error(new IllegalStateException("Data with key " + key + " was not modified, but nothing is cached"));
+											}
+
+											final CacheWrapper<T> cacheWrapper = cachedData.withCachedDate(System.currentTimeMillis());
+											return asyncStorage.touchAsync(sessionName, key, cacheWrapper.getCachedDate())
+													.flatMap(new Function<Boolean, SingleSource<CacheWrapper<T>>>() {
+														@Override
+														public SingleSource<CacheWrapper<T>> apply(@io.reactivex.annotations.NonNull Boolean touched) throws Exception {
+															if (!touched) {
+																// Cached data was removed meanwhile
+																return putAsyncResult(asyncStorage, sessionName, key, cacheWrapper);
+															}
+															return Single.just(cacheWrapper);
+														}
+													});
+										}
+									});
 						}
 					});
 		}
 
-		protected Maybe<CacheWrapper<T>> buildCacheObservable(@Nullable final String sessionName, @NotNull final String key) {
-			return Maybe.fromCallable(new Callable<CacheWrapper<T>>() {
+		@SuppressWarnings("unchecked")
+		protected Maybe<CacheWrapper<T>> readStorage(@NotNull AsyncStorage asyncStorage, @Nullable String sessionName, @NotNull String key) {
+			return (Maybe<CacheWrapper<T>>) (Maybe<?>) asyncStorage.getAsync(sessionName, key, Object.class);
+		}
+
+		protected Maybe<CacheWrapper<T>> buildCacheObservable(@NotNull final AsyncStorage asyncStorage, @Nullable final String sessionName, @NotNull final String key) {
+			// Built once, so a cache hit only goes through already built operators
+			final Maybe<CacheWrapper<T>> storageObservable = readStorage(asyncStorage, sessionName, key)
+					.flatMap(new Function<CacheWrapper<T>, MaybeSource<CacheWrapper<T>>>() {
+						@Override
+						public MaybeSource<CacheWrapper<T>> apply(@io.reactivex.annotations.NonNull CacheWrapper<T> cachedData) throws Exception {
+							return fromCachedData(asyncStorage, sessionName, key, cachedData);
+						}
+					})
+					.doOnComplete(dispatchMiss);
+			// Subclasses may block, and an explicit scheduler must be honored
+			final boolean nonBlockingStorage = scheduler == null && storage.getClass() == InMemoryStorage.class;
+			// Preloaded values are checked against the storage, so on the read scheduler
+			final Maybe<CacheWrapper<T>> warmedUpObservable = Maybe.fromCallable(new Callable<CacheWrapper<T>>() {
 				@Override
 				@SuppressWarnings("unchecked")
 				public CacheWrapper<T> call() throws Exception {
+					CacheWrapper<T> warmedUp = (CacheWrapper<T>) rxCache.takeWarmedUp(sessionName, key);
+					if (warmedUp == null) {
+						return null;
+					}
+					dispatchHit(warmedUp);
+					return warmedUp.asFromCache();
+				}
+			}).subscribeOn(scheduler != null ? scheduler : storageScheduler.reads(priority));
+
+			final Callable<MaybeSource<CacheWrapper<T>>> readCallable = new Callable<MaybeSource<CacheWrapper<T>>>() {
+				@Override
+				@SuppressWarnings("unchecked")
+				public MaybeSource<CacheWrapper<T>> call() throws Exception {
+					rxCache.notifyForegroundAccess();
+					rxCache.recordAccess(sessionName, key);
+					if (!nonBlockingStorage) {
+						return rxCache.hasWarmedUpEntries() ? warmedUpObservable.switchIfEmpty(storageObservable) : storageObservable;
+					}
+
+					CacheWrapper<T> warmedUp = (CacheWrapper<T>) rxCache.takeWarmedUp(sessionName, key);
+					if (warmedUp != null) {
+						dispatchHit(warmedUp);
+						return Maybe.just(warmedUp.asFromCache());
+					}
+
 					CacheWrapper<T> cachedData = (CacheWrapper<T>) storage.get(sessionName, key, Object.class);
-					if (cachedData != null) {
-						if (cachedData.getData() != null) {
-							return cachedData.setFromCache(true);
-						} else {
-							storage.delete(sessionName, key);
-						}
+					if (cachedData == null) {
+						dispatchMiss.run();
+						return Maybe.empty();
+					}
+					Maybe<CacheWrapper<T>> observable = fromCachedData(asyncStorage, sessionName, key, cachedData);
+					if (cachedData.getData() == null) {
+						dispatchMiss.run();
+					}
+					return observable;
+				}
+			};
+			final Maybe<CacheWrapper<T>> afterWarmUpObservable = Maybe.defer(readCallable);
+
+			return Maybe.defer(new Callable<MaybeSource<CacheWrapper<T>>>() {
+				@Override
+				public MaybeSource<CacheWrapper<T>> call() throws Exception {
+					if (rxCache.isAwaitWarmUp() && rxCache.isWarmingUp()) {
+						return rxCache.whenWarmedUp().andThen(afterWarmUpObservable);
 					}
-					return null;
+					return readCallable.call();
 				}
-			}).subscribeOn(scheduler);
+			});
+		}
+
+		/**
+		 * Emit the given cached data flagged as coming from cache, or delete it if it holds no data.
+		 * <br/>
+		 * The emitting {@link Maybe} is reused as long as the storage returns the same instance, which memory storages do between writes.
+		 */
+		protected Maybe<CacheWrapper<T>> fromCachedData(@NotNull AsyncStorage asyncStorage, @Nullable String sessionName, @NotNull String key, @NotNull CacheWrapper<T> cachedData) {
+			if (cachedData.getData() == null) {
+				return asyncStorage.deleteAsync(sessionName, key).toMaybe();
+			}
+
+			dispatchHit(cachedData);
+			CacheHit<T> cacheHit = lastCacheHit;
+			if (cacheHit == null || cacheHit.cachedData != cachedData) {
+				cacheHit = new CacheHit<>(cachedData, Maybe.just(cachedData.asFromCache()));
+				lastCacheHit = cacheHit;
+			}
+			return cacheHit.observable;
+		}
+
+		protected void dispatchHit(@NotNull CacheWrapper<T> cachedData) {
+			CacheEventDispatcher eventDispatcher = rxCache.getEventDispatcher();
+			if (eventDispatcher.isEnabled()) {
+				long ttl = cachedData.getTtl() != CacheWrapper.NO_TTL ? cachedData.getTtl() : ttlTimeUnit.toMillis(ttlValue);
+				boolean stale = System.currentTimeMillis() >= cachedData.getCachedDate() + ttl;
+				eventDispatcher.dispatch(CacheEvent.hit(sessionName, key, stale));
+			}
+		}
+
+		/**
+		 * The delay before the next load of a polling
+		 */
+		private static class PollingState {
+			private final long intervalMillis;
+			private final long maxBackoffMillis;
+			private volatile long nextDelayMillis = 0;
+			private volatile int consecutiveFailures = 0;
+
+			private PollingState(long intervalMillis, long maxBackoffMillis) {
+				this.intervalMillis = intervalMillis;
+				this.maxBackoffMillis = maxBackoffMillis;
+			}
+
+			private void resumeFrom(long cachedDate) {
+				long elapsedMillis = System.currentTimeMillis() - cachedDate;
+				nextDelayMillis = Math.max(0, Math.min(intervalMillis, intervalMillis - elapsedMillis));
+			}
+
+			private void onLoadEnd(boolean succeeded) {
+				if (succeeded) {
+					consecutiveFailures = 0;
+					nextDelayMillis = intervalMillis;
+				} else {
+					consecutiveFailures++;
+					long backoffMillis = intervalMillis << Math.min(consecutiveFailures, 30);
+					nextDelayMillis = backoffMillis < intervalMillis ? maxBackoffMillis : Math.min(maxBackoffMillis, backoffMillis);
+				}
+			}
+		}
+
+		private static class CacheHit<T> {
+			private final CacheWrapper<T> cachedData;
+			private final Maybe<CacheWrapper<T>> observable;
+
+			private CacheHit(@NotNull CacheWrapper<T> cachedData, @NotNull Maybe<CacheWrapper<T>> observable) {
+				this.cachedData = cachedData;
+				this.observable = observable;
+			}
 		}
 	}
 }
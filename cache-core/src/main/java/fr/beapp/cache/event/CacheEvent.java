@@ -0,0 +1,199 @@
+package fr.beapp.cache.event;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Something which happened in the cache, delivered to {@link CacheEventListener}s.
+ * <br/>
+ * Values which don't apply to the event type are <code>-1</code> or <code>null</code>.
+ */
+public class CacheEvent {
+
+	public enum Type {
+		/**
+		 * Valid cached data was read
+		 */
+		HIT,
+		/**
+		 * Expired cached data was read
+		 */
+		STALE_HIT,
+		/**
+		 * No cached data was found
+		 */
+		MISS,
+		/**
+		 * An async load started
+		 */
+		LOAD_START,
+		/**
+		 * An async load ended, successfully or not
+		 */
+		LOAD_END,
+		/**
+		 * Data was written to storage
+		 */
+		PUT,
+		/**
+		 * Data was removed from storage
+		 */
+		DELETE,
+		/**
+		 * A session or a key prefix was cleared
+		 */
+		CLEAR,
+		/**
+		 * Data was removed from storage by the cache itself
+		 */
+		EVICTION
+	}
+
+	public enum EvictionCause {
+		/**
+		 * The storage exceeded its quota
+		 */
+		QUOTA,
+		/**
+		 * The data was older than the maximum age
+		 */
+		EXPIRED
+	}
+
+	private final Type type;
+	private final long timestamp;
+	private final String session;
+	private final String key;
+	private final long durationMillis;
+	private final long size;
+	private final int count;
+	private final EvictionCause evictionCause;
+	private final Throwable error;
+
+	protected CacheEvent(@NotNull Type type, @Nullable String session, @Nullable String key, long durationMillis, long size, int count, @Nullable EvictionCause evictionCause, @Nullable Throwable error) {
+		this.type = type;
+		this.timestamp = System.currentTimeMillis();
+		this.session = session;
+		this.key = key;
+		this.durationMillis = durationMillis;
+		this.size = size;
+		this.count = count;
+		this.evictionCause = evictionCause;
+		this.error = error;
+	}
+
+	public static CacheEvent hit(@Nullable String session, @NotNull String key, boolean stale) {
+		return new CacheEvent(stale ? Type.STALE_HIT : Type.HIT, session, key, -1, -1, -1, null, null);
+	}
+
+	public static CacheEvent miss(@Nullable String session, @NotNull String key) {
+		return new CacheEvent(Type.MISS, session, key, -1, -1, -1, null, null);
+	}
+
+	public static CacheEvent loadStart(@Nullable String session, @NotNull String key) {
+		return new CacheEvent(Type.LOAD_START, session, key, -1, -1, -1, null, null);
+	}
+
+	/**
+	 * @param error The error the load failed with, <code>null</code> if it succeeded
+	 */
+	public static CacheEvent loadEnd(@Nullable String session, @NotNull String key, long durationMillis, @Nullable Throwable error) {
+		return new CacheEvent(Type.LOAD_END, session, key, durationMillis, -1, -1, null, error);
+	}
+
+	/**
+	 * @param size The approximate size of the data, in bytes, or <code>-1</code> if unknown
+	 */
+	public static CacheEvent put(@Nullable String session, @NotNull String key, long size) {
+		return new CacheEvent(Type.PUT, session, key, -1, size, -1, null, null);
+	}
+
+	public static CacheEvent delete(@Nullable String session, @NotNull String key) {
+		return new CacheEvent(Type.DELETE, session, key, -1, -1, -1, null, null);
+	}
+
+	/**
+	 * @param keyPrefix The cleared key prefix, <code>null</code> if the whole storage was cleared
+	 * @param count     How many entries were cleared
+	 */
+	public static CacheEvent clear(@Nullable String session, @Nullable String keyPrefix, int count) {
+		return new CacheEvent(Type.CLEAR, session, keyPrefix, -1, -1, count, null, null);
+	}
+
+	/**
+	 * @param size The approximate size of the data, in bytes, or <code>-1</code> if unknown
+	 */
+	public static CacheEvent eviction(@Nullable String session, @NotNull String key, long size, @NotNull EvictionCause evictionCause) {
+		return new CacheEvent(Type.EVICTION, session, key, -1, size, -1, evictionCause, null);
+	}
+
+	@Override
+	public String toString() {
+		return "CacheEvent{" +
+				"type=" + type +
+				", timestamp=" + timestamp +
+				", session=" + session +
+				", key=" + key +
+				", durationMillis=" + durationMillis +
+				", size=" + size +
+				", count=" + count +
+				", evictionCause=" + evictionCause +
+				", error=" + error +
+				'}';
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * @return When the event happened, in milliseconds
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public String getSession() {
+		return session;
+	}
+
+	/**
+	 * @return The key of the data, or the cleared key prefix for {@link Type#CLEAR}
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * @return The duration of the load for {@link Type#LOAD_END}
+	 */
+	public long getDurationMillis() {
+		return durationMillis;
+	}
+
+	/**
+	 * @return The approximate size of the data in bytes for {@link Type#PUT} and {@link Type#EVICTION}, <code>-1</code> if unknown
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * @return How many entries were cleared for {@link Type#CLEAR}
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	public EvictionCause getEvictionCause() {
+		return evictionCause;
+	}
+
+	/**
+	 * @return The error the load failed with for {@link Type#LOAD_END}
+	 */
+	public Throwable getError() {
+		return error;
+	}
+
+}
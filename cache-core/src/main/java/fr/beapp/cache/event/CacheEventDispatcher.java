@@ -0,0 +1,144 @@
+package fr.beapp.cache.event;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.beapp.cache.scheduler.CacheThreadFactory;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Deliver {@link CacheEvent}s to {@link CacheEventListener}s, in batches and asynchronously.
+ * <br/>
+ * Dispatching only queues the event, listeners being called later on a dedicated thread. Events are collected during a short window
+ * before being delivered together. Nothing is queued while no listener is registered, and events are dropped when the queue is full,
+ * so a slow listener can't make the cache hold memory. Exceptions thrown by listeners are ignored.
+ */
+public class CacheEventDispatcher {
+
+	public static final int DEFAULT_MAX_QUEUE_SIZE = 10000;
+
+	private static Scheduler eventScheduler;
+
+	protected Scheduler scheduler = getEventScheduler();
+	protected long batchWindowMillis = 100;
+	protected int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+
+	private final List<CacheEventListener> listeners = new CopyOnWriteArrayList<>();
+	private final Queue<CacheEvent> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger queueSize = new AtomicInteger();
+	private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+	private final AtomicLong droppedEvents = new AtomicLong();
+
+	private static synchronized Scheduler getEventScheduler() {
+		if (eventScheduler == null) {
+			eventScheduler = Schedulers.from(Executors.newSingleThreadExecutor(new CacheThreadFactory("cache-events", Thread.MIN_PRIORITY)));
+		}
+		return eventScheduler;
+	}
+
+	/**
+	 * Set the scheduler on which listeners are called. Defaults to a dedicated low priority thread
+	 */
+	public CacheEventDispatcher withScheduler(@NotNull Scheduler scheduler) {
+		this.scheduler = scheduler;
+		return this;
+	}
+
+	/**
+	 * Set for how long events are collected before being delivered together. Defaults to 100 ms
+	 */
+	public CacheEventDispatcher withBatchWindow(long value, @NotNull TimeUnit timeUnit) {
+		this.batchWindowMillis = timeUnit.toMillis(value);
+		return this;
+	}
+
+	/**
+	 * Set how many events can wait for delivery before new ones are dropped. Defaults to {@link #DEFAULT_MAX_QUEUE_SIZE}
+	 */
+	public CacheEventDispatcher withMaxQueueSize(int maxQueueSize) {
+		this.maxQueueSize = maxQueueSize;
+		return this;
+	}
+
+	public void addListener(@NotNull CacheEventListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(@NotNull CacheEventListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * @return <code>true</code> if at least one listener is registered. Check it before building an event, so nothing is allocated otherwise
+	 */
+	public boolean isEnabled() {
+		return !listeners.isEmpty();
+	}
+
+	/**
+	 * @return How many events were dropped because the queue was full
+	 */
+	public long getDroppedEvents() {
+		return droppedEvents.get();
+	}
+
+	/**
+	 * Queue an event for delivery to listeners
+	 */
+	public void dispatch(@NotNull CacheEvent event) {
+		if (!isEnabled()) {
+			return;
+		}
+		if (queueSize.incrementAndGet() > maxQueueSize) {
+			queueSize.decrementAndGet();
+			droppedEvents.incrementAndGet();
+			return;
+		}
+
+		queue.offer(event);
+		if (drainScheduled.compareAndSet(false, true)) {
+			scheduler.scheduleDirect(new Runnable() {
+				@Override
+				public void run() {
+					drain();
+				}
+			}, batchWindowMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	protected void drain() {
+		drainScheduled.set(false);
+
+		List<CacheEvent> events = new ArrayList<>();
+		CacheEvent event;
+		while ((event = queue.poll()) != null) {
+			queueSize.decrementAndGet();
+			events.add(event);
+		}
+		if (events.isEmpty()) {
+			return;
+		}
+
+		List<CacheEvent> batch = Collections.unmodifiableList(events);
+		for (CacheEventListener listener : listeners) {
+			try {
+				listener.onCacheEvents(batch);
+			} catch (Exception ignored) {
+				// A failing listener must not prevent others from receiving events
+			}
+		}
+	}
+
+}
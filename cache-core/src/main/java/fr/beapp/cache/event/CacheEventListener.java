@@ -0,0 +1,19 @@
+package fr.beapp.cache.event;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Receive cache events, in batches, from a {@link CacheEventDispatcher}.
+ * <br/>
+ * Listeners are called on the dispatcher thread, never on the thread resolving cache data.
+ */
+public interface CacheEventListener {
+
+	/**
+	 * @param events The events which happened since the previous batch, in order
+	 */
+	void onCacheEvents(@NotNull List<CacheEvent> events);
+
+}
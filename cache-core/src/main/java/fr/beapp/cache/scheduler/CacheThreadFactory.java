@@ -0,0 +1,34 @@
+package fr.beapp.cache.scheduler;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link ThreadFactory} creating named daemon threads with the given priority
+ */
+public class CacheThreadFactory implements ThreadFactory {
+
+	private final String prefix;
+	private final int priority;
+	private final AtomicInteger counter = new AtomicInteger();
+
+	/**
+	 * @param prefix   The prefix of thread names
+	 * @param priority The priority of threads, between {@link Thread#MIN_PRIORITY} and {@link Thread#MAX_PRIORITY}
+	 */
+	public CacheThreadFactory(@NotNull String prefix, int priority) {
+		this.prefix = prefix;
+		this.priority = priority;
+	}
+
+	@Override
+	public Thread newThread(@NotNull Runnable runnable) {
+		Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+		thread.setPriority(priority);
+		thread.setDaemon(true);
+		return thread;
+	}
+
+}
@@ -0,0 +1,19 @@
+package fr.beapp.cache.scheduler;
+
+/**
+ * The priority of storage work, see {@link StorageScheduler#reads(Priority)}
+ */
+public enum Priority {
+	/**
+	 * Work blocking what the user is looking at, run before any other queued work
+	 */
+	IMMEDIATE,
+	/**
+	 * Regular work
+	 */
+	NORMAL,
+	/**
+	 * Prefetch and refresh work, run after other queued work and throttled while other work is in progress
+	 */
+	BACKGROUND
+}
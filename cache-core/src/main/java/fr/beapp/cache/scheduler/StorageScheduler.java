@@ -0,0 +1,355 @@
+package fr.beapp.cache.scheduler;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Schedulers dedicated to storage work: reads run on a small bounded pool and writes on a single-writer lane.
+ * <br/>
+ * Disk storages serialize their operations anyway, so a few threads are enough to keep them busy without piling up threads
+ * contending on their monitor, as an unbounded pool like {@link Schedulers#io()} would do during bursts.
+ * <br/>
+ * Reads are queued by {@link Priority}: queued {@link Priority#IMMEDIATE} reads run first, and {@link Priority#BACKGROUND} reads only use
+ * a limited count of threads while other reads are in progress. Writes are run in submission order whatever their priority, so a write
+ * never overtakes an earlier write of the same key.
+ */
+public class StorageScheduler {
+
+	public static final int DEFAULT_READ_PARALLELISM = 2;
+
+	private static StorageScheduler defaultStorageScheduler;
+
+	private final Lane readLane;
+	private final Lane writeLane;
+
+	/**
+	 * Create a storage scheduler with {@link #DEFAULT_READ_PARALLELISM} read threads
+	 */
+	public StorageScheduler() {
+		this(DEFAULT_READ_PARALLELISM);
+	}
+
+	/**
+	 * @param readParallelism The count of threads reading from storage, which should match the real parallelism of the storage
+	 */
+	public StorageScheduler(int readParallelism) {
+		this(readParallelism, readParallelism - 1);
+	}
+
+	/**
+	 * @param readParallelism       The count of threads reading from storage, which should match the real parallelism of the storage
+	 * @param backgroundParallelism The count of threads background reads may use while other reads are in progress, at least 1
+	 */
+	public StorageScheduler(int readParallelism, int backgroundParallelism) {
+		int parallelism = Math.max(1, readParallelism);
+		this.readLane = new Lane("cache-storage-read", parallelism, Math.max(1, Math.min(parallelism, backgroundParallelism)));
+		this.writeLane = new Lane("cache-storage-write", 1, 1);
+	}
+
+	/**
+	 * @return The storage scheduler shared by all {@link fr.beapp.cache.RxCache} instances unless configured otherwise
+	 */
+	public static synchronized StorageScheduler getDefault() {
+		if (defaultStorageScheduler == null) {
+			defaultStorageScheduler = new StorageScheduler();
+		}
+		return defaultStorageScheduler;
+	}
+
+	/**
+	 * @return The scheduler to use for storage reads of {@link Priority#NORMAL} priority
+	 */
+	public Scheduler reads() {
+		return reads(Priority.NORMAL);
+	}
+
+	/**
+	 * @return The scheduler to use for storage reads of the given priority
+	 */
+	public Scheduler reads(@NotNull Priority priority) {
+		return readLane.getScheduler(priority);
+	}
+
+	/**
+	 * @return The scheduler to use for storage writes
+	 */
+	public Scheduler writes() {
+		return writeLane.getScheduler(Priority.NORMAL);
+	}
+
+	public Lane getReadLane() {
+		return readLane;
+	}
+
+	public Lane getWriteLane() {
+		return writeLane;
+	}
+
+	/**
+	 * A bounded pool of threads running tasks by priority, with its queue metrics
+	 */
+	public static class Lane {
+		private final PriorityExecutor executor;
+		private final Scheduler[] schedulers = new Scheduler[Priority.values().length];
+
+		private Lane(@NotNull String name, int parallelism, int backgroundParallelism) {
+			this.executor = new PriorityExecutor(parallelism, backgroundParallelism, new CacheThreadFactory(name, Thread.NORM_PRIORITY));
+			for (final Priority priority : Priority.values()) {
+				schedulers[priority.ordinal()] = Schedulers.from(new Executor() {
+					@Override
+					public void execute(@NotNull Runnable command) {
+						executor.execute(command, priority);
+					}
+				});
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "Lane{" +
+					"parallelism=" + getParallelism() +
+					", backgroundParallelism=" + getBackgroundParallelism() +
+					", queueDepth=" + getQueueDepth() +
+					", startedTasks=" + getStartedTasks() +
+					", averageWaitMillis=" + getAverageWaitMillis() +
+					", maxWaitMillis=" + getMaxWaitMillis() +
+					'}';
+		}
+
+		/**
+		 * @return The scheduler running tasks with the given priority
+		 */
+		public Scheduler getScheduler(@NotNull Priority priority) {
+			return schedulers[priority.ordinal()];
+		}
+
+		public int getParallelism() {
+			return executor.getMaximumPoolSize();
+		}
+
+		/**
+		 * @return The count of threads background tasks may use while other tasks are in progress
+		 */
+		public int getBackgroundParallelism() {
+			return executor.backgroundParallelism;
+		}
+
+		/**
+		 * @return How many tasks are waiting for a thread
+		 */
+		public int getQueueDepth() {
+			int queueDepth = 0;
+			for (Priority priority : Priority.values()) {
+				queueDepth += getQueueDepth(priority);
+			}
+			return queueDepth;
+		}
+
+		/**
+		 * @return How many tasks of the given priority are waiting for a thread
+		 */
+		public int getQueueDepth(@NotNull Priority priority) {
+			return executor.stats[priority.ordinal()].queuedTasks.get();
+		}
+
+		/**
+		 * @return How many tasks are currently running
+		 */
+		public int getActiveCount() {
+			return executor.getActiveCount();
+		}
+
+		/**
+		 * @return How many tasks were started since creation
+		 */
+		public long getStartedTasks() {
+			long startedTasks = 0;
+			for (Priority priority : Priority.values()) {
+				startedTasks += getStartedTasks(priority);
+			}
+			return startedTasks;
+		}
+
+		/**
+		 * @return How many tasks of the given priority were started since creation
+		 */
+		public long getStartedTasks(@NotNull Priority priority) {
+			return executor.stats[priority.ordinal()].startedTasks.get();
+		}
+
+		/**
+		 * @return The average time tasks waited for a thread, in milliseconds
+		 */
+		public double getAverageWaitMillis() {
+			long startedTasks = 0;
+			long totalWaitNanos = 0;
+			for (PriorityStats stats : executor.stats) {
+				startedTasks += stats.startedTasks.get();
+				totalWaitNanos += stats.totalWaitNanos.get();
+			}
+			return startedTasks == 0 ? 0 : totalWaitNanos / 1e6 / startedTasks;
+		}
+
+		/**
+		 * @return The average time tasks of the given priority waited for a thread, in milliseconds
+		 */
+		public double getAverageWaitMillis(@NotNull Priority priority) {
+			PriorityStats stats = executor.stats[priority.ordinal()];
+			long startedTasks = stats.startedTasks.get();
+			return startedTasks == 0 ? 0 : stats.totalWaitNanos.get() / 1e6 / startedTasks;
+		}
+
+		/**
+		 * @return The longest time a task waited for a thread, in milliseconds
+		 */
+		public double getMaxWaitMillis() {
+			double maxWaitMillis = 0;
+			for (Priority priority : Priority.values()) {
+				maxWaitMillis = Math.max(maxWaitMillis, getMaxWaitMillis(priority));
+			}
+			return maxWaitMillis;
+		}
+
+		/**
+		 * @return The longest time a task of the given priority waited for a thread, in milliseconds
+		 */
+		public double getMaxWaitMillis(@NotNull Priority priority) {
+			return executor.stats[priority.ordinal()].maxWaitNanos.get() / 1e6;
+		}
+	}
+
+	/**
+	 * Runs queued tasks by priority, then in submission order. Background tasks are held aside and only handed to the pool while fewer
+	 * than the background parallelism are in progress, or fewer than the full parallelism when no other task is in progress.
+	 */
+	private static class PriorityExecutor extends ThreadPoolExecutor {
+		private final int backgroundParallelism;
+		private final PriorityStats[] stats = new PriorityStats[Priority.values().length];
+		private final AtomicLong sequence = new AtomicLong();
+		private final AtomicInteger foregroundTasks = new AtomicInteger();
+		private final AtomicInteger backgroundTasks = new AtomicInteger();
+		private final Queue<PrioritizedTask> pendingBackgroundTasks = new ConcurrentLinkedQueue<>();
+
+		private PriorityExecutor(int parallelism, int backgroundParallelism, @NotNull CacheThreadFactory threadFactory) {
+			super(parallelism, parallelism, 30, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>(), threadFactory);
+			allowCoreThreadTimeOut(true);
+			this.backgroundParallelism = backgroundParallelism;
+			for (int i = 0; i < stats.length; i++) {
+				stats[i] = new PriorityStats();
+			}
+		}
+
+		@Override
+		public void execute(@NotNull Runnable command) {
+			execute(command, Priority.NORMAL);
+		}
+
+		private void execute(@NotNull Runnable command, @NotNull Priority priority) {
+			PrioritizedTask task = new PrioritizedTask(command, priority, sequence.incrementAndGet(), System.nanoTime());
+			stats[priority.ordinal()].queuedTasks.incrementAndGet();
+			if (priority == Priority.BACKGROUND) {
+				pendingBackgroundTasks.offer(task);
+				drainBackgroundTasks();
+			} else {
+				foregroundTasks.incrementAndGet();
+				super.execute(task);
+			}
+		}
+
+		/**
+		 * Hand pending background tasks to the pool, as long as the background limit allows it
+		 */
+		private void drainBackgroundTasks() {
+			while (!pendingBackgroundTasks.isEmpty()) {
+				int limit = foregroundTasks.get() > 0 ? backgroundParallelism : getMaximumPoolSize();
+				int running = backgroundTasks.get();
+				if (running >= limit) {
+					return;
+				}
+				if (!backgroundTasks.compareAndSet(running, running + 1)) {
+					continue;
+				}
+
+				PrioritizedTask task = pendingBackgroundTasks.poll();
+				if (task == null) {
+					// Taken by a concurrent drain, the loop checks again for a task offered meanwhile
+					backgroundTasks.decrementAndGet();
+				} else {
+					super.execute(task);
+				}
+			}
+		}
+
+		private void run(@NotNull PrioritizedTask task) {
+			PriorityStats taskStats = stats[task.priority.ordinal()];
+			taskStats.queuedTasks.decrementAndGet();
+			taskStats.recordWait(System.nanoTime() - task.enqueueTime);
+			try {
+				task.command.run();
+			} finally {
+				if (task.priority == Priority.BACKGROUND) {
+					backgroundTasks.decrementAndGet();
+				} else {
+					foregroundTasks.decrementAndGet();
+				}
+				drainBackgroundTasks();
+			}
+		}
+
+		private class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+			private final Runnable command;
+			private final Priority priority;
+			private final long sequence;
+			private final long enqueueTime;
+
+			private PrioritizedTask(@NotNull Runnable command, @NotNull Priority priority, long sequence, long enqueueTime) {
+				this.command = command;
+				this.priority = priority;
+				this.sequence = sequence;
+				this.enqueueTime = enqueueTime;
+			}
+
+			@Override
+			public void run() {
+				PriorityExecutor.this.run(this);
+			}
+
+			@Override
+			public int compareTo(@NotNull PrioritizedTask other) {
+				if (priority != other.priority) {
+					return priority.ordinal() < other.priority.ordinal() ? -1 : 1;
+				}
+				return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+			}
+		}
+	}
+
+	private static class PriorityStats {
+		private final AtomicInteger queuedTasks = new AtomicInteger();
+		private final AtomicLong startedTasks = new AtomicLong();
+		private final AtomicLong totalWaitNanos = new AtomicLong();
+		private final AtomicLong maxWaitNanos = new AtomicLong();
+
+		private void recordWait(long waitNanos) {
+			startedTasks.incrementAndGet();
+			totalWaitNanos.addAndGet(waitNanos);
+
+			long max = maxWaitNanos.get();
+			while (waitNanos > max && !maxWaitNanos.compareAndSet(max, waitNanos)) {
+				max = maxWaitNanos.get();
+			}
+		}
+	}
+
+}
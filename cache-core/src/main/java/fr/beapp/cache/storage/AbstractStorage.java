@@ -0,0 +1,85 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+import fr.beapp.cache.CacheWrapper;
+
+/**
+ * A base {@link Storage} implementation, giving a default to the methods which can be built on the others, or which are optional.
+ * <br/>
+ * Extend this class rather than implementing {@link Storage} directly, so methods added to the interface later get a default too.
+ * Defaults are safe but not optimal: override them when the underlying storage can do better.
+ */
+public abstract class AbstractStorage implements Storage {
+
+	/**
+	 * Nothing to prepare by default, storages opening lazily
+	 */
+	@Override
+	public void open() {
+		// Nothing to do
+	}
+
+	@Override
+	public void close() {
+		// Nothing to do
+	}
+
+	@Override
+	public int count(@NotNull String... sessions) {
+		int count = 0;
+		for (String session : sessions) {
+			count += count(session, "");
+		}
+		return count;
+	}
+
+	/**
+	 * No key is listed by default, so features walking keys, like {@link fr.beapp.cache.CacheSweeper}, see an empty storage
+	 */
+	@NotNull
+	@Override
+	public List<String> keys(@Nullable String session, @NotNull String keyPrefix) {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public void clear(@NotNull String... sessions) {
+		for (String session : sessions) {
+			clear(session, "");
+		}
+	}
+
+	/**
+	 * Write the data again with the new cached date by default
+	 */
+	@Override
+	public synchronized boolean touch(@Nullable String session, @NotNull String key, long cachedDate) {
+		CacheWrapper<Object> value = get(session, key, Object.class);
+		if (value == null) {
+			return false;
+		}
+		put(session, key, value.withCachedDate(cachedDate));
+		return true;
+	}
+
+	@NotNull
+	@Override
+	public <T> CacheWrapper<T> get(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz, @NotNull T defaultValue) {
+		CacheWrapper<T> value = get(session, key, clazz);
+		return value != null ? value : new CacheWrapper<>(defaultValue);
+	}
+
+	/**
+	 * Versions aren't tracked by default, so {@link MemoStorage} never memoizes entries of this storage
+	 */
+	@Override
+	public long getVersion(@Nullable String session, @NotNull String key) {
+		return NO_VERSION;
+	}
+
+}
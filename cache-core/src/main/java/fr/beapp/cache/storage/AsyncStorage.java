@@ -0,0 +1,89 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fr.beapp.cache.CacheWrapper;
+import io.reactivex.Completable;
+import io.reactivex.Maybe;
+import io.reactivex.Single;
+
+/**
+ * An asynchronous counterpart of {@link Storage}.
+ * <br/>
+ * Implementations are free to choose their own threads, and to batch or pipeline operations into shared I/O passes.
+ * When a {@link Storage} also implements this interface, {@link fr.beapp.cache.RxCache} uses it natively, otherwise
+ * the storage is wrapped by an {@link AsyncStorageAdapter}.
+ */
+public interface AsyncStorage {
+
+	/**
+	 * Count cached values for the given session and key starting with the given prefix
+	 *
+	 * @param session   The session to use
+	 * @param keyPrefix The key prefix to search
+	 */
+	@NotNull
+	Single<Integer> countAsync(@Nullable String session, @NotNull String keyPrefix);
+
+	/**
+	 * Clear all data from cache with given session and key starting with the given prefix
+	 *
+	 * @param session   The session to use
+	 * @param keyPrefix The key prefix to search
+	 */
+	@NotNull
+	Completable clearAsync(@Nullable String session, @NotNull String keyPrefix);
+
+	/**
+	 * Remove a specific data from cache based on the given session and key
+	 *
+	 * @param session The session to use
+	 * @param key     The key to use to remove data
+	 */
+	@NotNull
+	Completable deleteAsync(@Nullable String session, @NotNull String key);
+
+	/**
+	 * Add a new data in cache with the given session and key
+	 *
+	 * @param session The session to use
+	 * @param key     The key to use to store this data
+	 * @param value   The data to add in cache
+	 */
+	@NotNull
+	<T> Completable putAsync(@Nullable String session, @NotNull String key, @Nullable CacheWrapper<T> value);
+
+	/**
+	 * Update the cached date of an existing data, without rewriting the data itself
+	 *
+	 * @param session    The session to use
+	 * @param key        The key of the data to update
+	 * @param cachedDate The new cached date
+	 * @return A {@link Single} emitting <code>true</code> if a data was stored with this key, <code>false</code> otherwise
+	 */
+	@NotNull
+	Single<Boolean> touchAsync(@Nullable String session, @NotNull String key, long cachedDate);
+
+	/**
+	 * Retrieve a data from cache based on the given session and key
+	 *
+	 * @param session The session to use
+	 * @param key     The key to use to retrieve the data
+	 * @param clazz   The class on which the data must be casted
+	 * @return A {@link Maybe} emitting actual data if present, completing empty otherwise
+	 */
+	@NotNull
+	<T> Maybe<CacheWrapper<T>> getAsync(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz);
+
+	/**
+	 * Check if a data was stored with the given session and key
+	 *
+	 * @param session The session to use
+	 * @param key     The key to check
+	 * @return A {@link Single} emitting <code>true</code> if a data was stored with this key (even if it's null), <code>false</code> otherwise
+	 */
+	@NotNull
+	Single<Boolean> existsAsync(@Nullable String session, @NotNull String key);
+
+}
@@ -0,0 +1,127 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Callable;
+
+import fr.beapp.cache.CacheWrapper;
+import io.reactivex.Completable;
+import io.reactivex.Maybe;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.functions.Action;
+
+/**
+ * An {@link AsyncStorage} running the blocking operations of any {@link Storage} on the given schedulers.
+ */
+public class AsyncStorageAdapter implements AsyncStorage {
+
+	protected final Storage storage;
+	protected final Scheduler readScheduler;
+	protected final Scheduler writeScheduler;
+
+	/**
+	 * @param storage        The blocking storage to adapt
+	 * @param readScheduler  The scheduler on which reads will be done
+	 * @param writeScheduler The scheduler on which writes will be done
+	 */
+	public AsyncStorageAdapter(@NotNull Storage storage, @NotNull Scheduler readScheduler, @NotNull Scheduler writeScheduler) {
+		this.storage = storage;
+		this.readScheduler = readScheduler;
+		this.writeScheduler = writeScheduler;
+	}
+
+	/**
+	 * Return the given storage if it natively implements {@link AsyncStorage}, or adapt it otherwise.
+	 */
+	@NotNull
+	public static AsyncStorage adapt(@NotNull Storage storage, @NotNull Scheduler readScheduler, @NotNull Scheduler writeScheduler) {
+		if (storage instanceof AsyncStorage) {
+			return (AsyncStorage) storage;
+		}
+		return new AsyncStorageAdapter(storage, readScheduler, writeScheduler);
+	}
+
+	public Storage getStorage() {
+		return storage;
+	}
+
+	@NotNull
+	@Override
+	public Single<Integer> countAsync(@Nullable final String session, @NotNull final String keyPrefix) {
+		return Single.fromCallable(new Callable<Integer>() {
+			@Override
+			public Integer call() throws Exception {
+				return storage.count(session, keyPrefix);
+			}
+		}).subscribeOn(readScheduler);
+	}
+
+	@NotNull
+	@Override
+	public Completable clearAsync(@Nullable final String session, @NotNull final String keyPrefix) {
+		return Completable.fromAction(new Action() {
+			@Override
+			public void run() throws Exception {
+				storage.clear(session, keyPrefix);
+			}
+		}).subscribeOn(writeScheduler);
+	}
+
+	@NotNull
+	@Override
+	public Completable deleteAsync(@Nullable final String session, @NotNull final String key) {
+		return Completable.fromAction(new Action() {
+			@Override
+			public void run() throws Exception {
+				storage.delete(session, key);
+			}
+		}).subscribeOn(writeScheduler);
+	}
+
+	@NotNull
+	@Override
+	public <T> Completable putAsync(@Nullable final String session, @NotNull final String key, @Nullable final CacheWrapper<T> value) {
+		return Completable.fromAction(new Action() {
+			@Override
+			public void run() throws Exception {
+				storage.put(session, key, value);
+			}
+		}).subscribeOn(writeScheduler);
+	}
+
+	@NotNull
+	@Override
+	public Single<Boolean> touchAsync(@Nullable final String session, @NotNull final String key, final long cachedDate) {
+		return Single.fromCallable(new Callable<Boolean>() {
+			@Override
+			public Boolean call() throws Exception {
+				return storage.touch(session, key, cachedDate);
+			}
+		}).subscribeOn(writeScheduler);
+	}
+
+	@NotNull
+	@Override
+	public <T> Maybe<CacheWrapper<T>> getAsync(@Nullable final String session, @NotNull final String key, @NotNull final Class<T> clazz) {
+		return Maybe.fromCallable(new Callable<CacheWrapper<T>>() {
+			@Override
+			public CacheWrapper<T> call() throws Exception {
+				return storage.get(session, key, clazz);
+			}
+		}).subscribeOn(readScheduler);
+	}
+
+	@NotNull
+	@Override
+	public Single<Boolean> existsAsync(@Nullable final String session, @NotNull final String key) {
+		return Single.fromCallable(new Callable<Boolean>() {
+			@Override
+			public Boolean call() throws Exception {
+				return storage.exists(session, key);
+			}
+		}).subscribeOn(readScheduler);
+	}
+
+}
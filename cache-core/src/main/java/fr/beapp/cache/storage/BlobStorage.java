@@ -0,0 +1,483 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.beapp.cache.CacheWrapper;
+
+/**
+ * A {@link Storage} diverting large values of another {@link Storage} into separate blob files, so the delegate only keeps a small
+ * reference record. This avoids bloating key-value engines with multi-MB payloads, and reading them fully when only metadata is needed.
+ * <br/>
+ * Byte arrays larger than the threshold are stored raw and can be streamed with {@link #getStream(String, String)}.
+ * Other values accepted by the {@link ValueSerializer} are stored in their serialized form when it exceeds the threshold, which costs a
+ * serialization in memory, up to the threshold, on each write. Other values are always kept in the delegate. The default
+ * {@link JavaValueSerializer} only accepts {@link Serializable} values: set one matching the delegate serialization otherwise.
+ * <br/>
+ * Blob files are written to a temporary file, synced, then renamed, so a blob is never read half written. Each key has its own blob
+ * file, and each blob carries an identifier checked against its reference, so a reference can't be read with another write's blob.
+ */
+public class BlobStorage extends DelegatingStorage {
+
+	protected static final String BLOB_EXTENSION = ".blob";
+	protected static final String TEMP_EXTENSION = ".tmp";
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	protected final File directory;
+	protected final long thresholdBytes;
+
+	protected ValueSerializer serializer = new JavaValueSerializer();
+
+	private final AtomicLong blobWrites = new AtomicLong();
+	private final AtomicLong blobReads = new AtomicLong();
+	private final AtomicLong missingBlobs = new AtomicLong();
+
+	/**
+	 * @param delegate       The storage keeping small values and blob references
+	 * @param directory      The directory to write blob files to. It should be dedicated to this storage, as {@link #clear()} empties it
+	 * @param thresholdBytes The size above which values are stored as blobs, in bytes
+	 */
+	public BlobStorage(@NotNull Storage delegate, @NotNull File directory, long thresholdBytes) {
+		super(delegate);
+		this.directory = directory;
+		this.thresholdBytes = thresholdBytes;
+	}
+
+	/**
+	 * Set the way values other than byte arrays are written to blobs. Defaults to {@link JavaValueSerializer}.
+	 * <br/>
+	 * It must stay the same across runs, as blobs written with another serializer can't be read back.
+	 */
+	public BlobStorage withSerializer(@NotNull ValueSerializer serializer) {
+		this.serializer = serializer;
+		return this;
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	public long getThresholdBytes() {
+		return thresholdBytes;
+	}
+
+	/**
+	 * @return How many values were written as blobs
+	 */
+	public long getBlobWrites() {
+		return blobWrites.get();
+	}
+
+	/**
+	 * @return How many values were read, or streamed, from blobs
+	 */
+	public long getBlobReads() {
+		return blobReads.get();
+	}
+
+	/**
+	 * @return How many references were read while their blob was missing, corrupted or replaced
+	 */
+	public long getMissingBlobs() {
+		return missingBlobs.get();
+	}
+
+	/**
+	 * Open the delegate, and remove temporary files left by writes interrupted by the end of a previous process
+	 */
+	@Override
+	public void open() {
+		super.open();
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if (file.getName().endsWith(TEMP_EXTENSION)) {
+					file.delete();
+				}
+			}
+		}
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+	}
+
+	@Override
+	public void clear(@NotNull String... sessions) {
+		for (String session : sessions) {
+			clear(session, "");
+		}
+	}
+
+	@Override
+	public void clear(@Nullable String session, @NotNull String keyPrefix) {
+		synchronized (this) {
+			List<String> keys = delegate.keys(session, keyPrefix);
+			super.clear(session, keyPrefix);
+			for (String key : keys) {
+				getBlobFile(session, key).delete();
+			}
+		}
+	}
+
+	@Override
+	public void delete(@Nullable String session, @NotNull String key) {
+		// Under the same lock as puts, so a blob committed by a concurrent put isn't deleted
+		synchronized (this) {
+			super.delete(session, key);
+			getBlobFile(session, key).delete();
+		}
+	}
+
+	@Override
+	public <T> void put(@Nullable String session, @NotNull String key, @Nullable CacheWrapper<T> value) {
+		File blobFile = getBlobFile(session, key);
+		BlobWrite blobWrite = value != null ? writeTempBlob(blobFile, value.getData()) : null;
+		if (blobWrite == null) {
+			synchronized (this) {
+				super.put(session, key, value);
+				blobFile.delete();
+			}
+			return;
+		}
+
+		// Renaming and writing the reference together keeps the last reference pointing to the last blob
+		synchronized (this) {
+			if (!blobWrite.tempFile.renameTo(blobFile)) {
+				// The blob can't be committed, keep the value in the delegate instead
+				blobWrite.tempFile.delete();
+				super.put(session, key, value);
+				blobFile.delete();
+				return;
+			}
+			super.put(session, key, value.withData(blobWrite.reference));
+		}
+		blobWrites.incrementAndGet();
+	}
+
+	@Nullable
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> CacheWrapper<T> get(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz) {
+		CacheWrapper<T> value = super.get(session, key, clazz);
+		if (value == null || !(value.getData() instanceof BlobReference)) {
+			return value;
+		}
+
+		BlobReference reference = (BlobReference) value.getData();
+		Object data = readBlob(getBlobFile(session, key), reference);
+		if (data == null) {
+			return null;
+		}
+		return value.withData((T) data);
+	}
+
+	@Nullable
+	@Override
+	public CacheWrapper<InputStream> getStream(@Nullable String session, @NotNull String key) {
+		CacheWrapper<Object> value = super.get(session, key, Object.class);
+		if (value == null || !(value.getData() instanceof BlobReference)) {
+			return StorageStreams.wrap(value);
+		}
+
+		BlobReference reference = (BlobReference) value.getData();
+		if (reference.serialized) {
+			return null;
+		}
+		InputStream stream = openBlob(getBlobFile(session, key), reference);
+		if (stream == null) {
+			return null;
+		}
+		return value.withData(stream);
+	}
+
+	/**
+	 * Write the given data to a temporary blob file if it's large enough
+	 *
+	 * @return The written blob, or <code>null</code> if the data must be kept in the delegate
+	 */
+	@Nullable
+	protected BlobWrite writeTempBlob(@NotNull File blobFile, @Nullable Object data) {
+		if (data instanceof byte[]) {
+			byte[] bytes = (byte[]) data;
+			if (bytes.length <= thresholdBytes) {
+				return null;
+			}
+		} else if (!serializer.accepts(data)) {
+			return null;
+		}
+
+		long blobId = EntryVersions.next();
+		File tempFile = new File(directory, blobFile.getName() + "_" + Long.toHexString(blobId) + TEMP_EXTENSION);
+		SpillingOutputStream outputStream = new SpillingOutputStream(tempFile, blobId);
+		try {
+			boolean serialized = !(data instanceof byte[]);
+			if (serialized) {
+				serializer.serialize(data, outputStream);
+				outputStream.flush();
+			} else {
+				outputStream.spill();
+				outputStream.write((byte[]) data);
+			}
+
+			if (!outputStream.isSpilled()) {
+				return null;
+			}
+			long length = outputStream.close(true);
+			return new BlobWrite(tempFile, new BlobReference(blobId, length, serialized));
+		} catch (NotSerializableException e) {
+			return null;
+		} catch (IOException e) {
+			// The blob can't be written, keep the value in the delegate instead
+			return null;
+		} finally {
+			outputStream.discard();
+		}
+	}
+
+	/**
+	 * @return The data of the given blob, or <code>null</code> if the blob is missing, corrupted or was replaced
+	 */
+	@Nullable
+	protected Object readBlob(@NotNull File blobFile, @NotNull BlobReference reference) {
+		InputStream stream = openBlob(blobFile, reference);
+		if (stream == null) {
+			return null;
+		}
+
+		try {
+			if (reference.serialized) {
+				return serializer.deserialize(stream);
+			}
+			byte[] bytes = new byte[(int) reference.length];
+			new DataInputStream(stream).readFully(bytes);
+			return bytes;
+		} catch (IOException | ClassNotFoundException e) {
+			missingBlobs.incrementAndGet();
+			return null;
+		} finally {
+			closeQuietly(stream);
+		}
+	}
+
+	/**
+	 * @return A stream positioned after the header of the given blob, or <code>null</code> if the blob is missing or was replaced
+	 */
+	@Nullable
+	protected InputStream openBlob(@NotNull File blobFile, @NotNull BlobReference reference) {
+		InputStream stream = null;
+		try {
+			stream = new BufferedInputStream(new FileInputStream(blobFile));
+			if (new DataInputStream(stream).readLong() != reference.blobId) {
+				// The blob was replaced by a more recent write since the reference was read
+				missingBlobs.incrementAndGet();
+				closeQuietly(stream);
+				return null;
+			}
+			blobReads.incrementAndGet();
+			return stream;
+		} catch (IOException e) {
+			missingBlobs.incrementAndGet();
+			closeQuietly(stream);
+			return null;
+		}
+	}
+
+	protected File getBlobFile(@Nullable String session, @NotNull String key) {
+		return new File(directory, hash(StorageKeys.resolve(session, key)) + BLOB_EXTENSION);
+	}
+
+	private static String hash(@NotNull String value) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-1").digest(value.getBytes(UTF_8));
+			char[] chars = new char[digest.length * 2];
+			for (int i = 0; i < digest.length; i++) {
+				chars[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+				chars[i * 2 + 1] = HEX_DIGITS[digest[i] & 0xF];
+			}
+			return new String(chars);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-1 is not available", e);
+		}
+	}
+
+	private static void closeQuietly(@Nullable InputStream stream) {
+		if (stream != null) {
+			try {
+				stream.close();
+			} catch (IOException ignored) {
+				// Nothing to do
+			}
+		}
+	}
+
+	/**
+	 * The record kept in the delegate in place of a value stored as a blob
+	 */
+	public static class BlobReference implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private long blobId;
+		private long length;
+		private boolean serialized;
+
+		public BlobReference() {
+			// Needed for deserialization
+		}
+
+		public BlobReference(long blobId, long length, boolean serialized) {
+			this.blobId = blobId;
+			this.length = length;
+			this.serialized = serialized;
+		}
+
+		@Override
+		public String toString() {
+			return "BlobReference{" +
+					"blobId=" + blobId +
+					", length=" + length +
+					", serialized=" + serialized +
+					'}';
+		}
+
+		public long getBlobId() {
+			return blobId;
+		}
+
+		/**
+		 * @return The size of the blob content, in bytes
+		 */
+		public long getLength() {
+			return length;
+		}
+
+		/**
+		 * @return <code>true</code> if the blob holds a serialized value, <code>false</code> if it holds a raw byte array
+		 */
+		public boolean isSerialized() {
+			return serialized;
+		}
+	}
+
+	protected static class BlobWrite {
+		private final File tempFile;
+		private final BlobReference reference;
+
+		private BlobWrite(@NotNull File tempFile, @NotNull BlobReference reference) {
+			this.tempFile = tempFile;
+			this.reference = reference;
+		}
+	}
+
+	/**
+	 * Buffer written bytes in memory, then switch to the temporary file once the threshold is exceeded
+	 */
+	private class SpillingOutputStream extends OutputStream {
+		private final File tempFile;
+		private final long blobId;
+
+		private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		private FileOutputStream fileStream;
+		private DataOutputStream output;
+		private long length = 0;
+
+		private SpillingOutputStream(@NotNull File tempFile, long blobId) {
+			this.tempFile = tempFile;
+			this.blobId = blobId;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (output == null && buffer.size() + 1 > thresholdBytes) {
+				spill();
+			}
+			(output != null ? output : buffer).write(b);
+			length++;
+		}
+
+		@Override
+		public void write(@NotNull byte[] b, int off, int len) throws IOException {
+			if (output == null && buffer.size() + len > thresholdBytes) {
+				spill();
+			}
+			(output != null ? output : buffer).write(b, off, len);
+			length += len;
+		}
+
+		private boolean isSpilled() {
+			return output != null;
+		}
+
+		private void spill() throws IOException {
+			if (output != null) {
+				return;
+			}
+			directory.mkdirs();
+			fileStream = new FileOutputStream(tempFile);
+			output = new DataOutputStream(new BufferedOutputStream(fileStream));
+			output.writeLong(blobId);
+			buffer.writeTo(output);
+			buffer = null;
+		}
+
+		/**
+		 * @param sync <code>true</code> to sync the file content to disk before closing
+		 * @return The count of written bytes, header excluded
+		 */
+		private long close(boolean sync) throws IOException {
+			if (output != null) {
+				output.flush();
+				if (sync) {
+					fileStream.getFD().sync();
+				}
+				output.close();
+				output = null;
+			}
+			return length;
+		}
+
+		/**
+		 * Close the temporary file if still opened, and remove it. Does nothing once it was renamed
+		 */
+		private void discard() {
+			if (output != null) {
+				try {
+					output.close();
+				} catch (IOException ignored) {
+					// Nothing to do
+				}
+				output = null;
+				tempFile.delete();
+			}
+		}
+	}
+
+}
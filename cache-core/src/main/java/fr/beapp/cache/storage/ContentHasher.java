@@ -0,0 +1,15 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Compute a hash of a data content, so two equal contents can be detected without keeping both
+ */
+public interface ContentHasher {
+
+	/**
+	 * @return A hash of the given data content, never {@link fr.beapp.cache.CacheWrapper#NO_CONTENT_HASH}
+	 */
+	long hash(@Nullable Object data);
+
+}
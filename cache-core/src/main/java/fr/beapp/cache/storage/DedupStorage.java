@@ -0,0 +1,419 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.beapp.cache.CacheWrapper;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * A {@link Storage} storing each distinct payload of another {@link Storage} only once, so data cached under several keys is
+ * serialized and written once.
+ * <br/>
+ * Payloads are addressed by the SHA-1 hash of their serialized form, and stored with a reference count in a reserved session.
+ * Keys only hold a small {@link PayloadReference} record, with the cache metadata. Payloads which are not referenced anymore are removed
+ * in the background.
+ * <br/>
+ * Payloads smaller than the minimum size, or not accepted by the {@link ValueSerializer}, are stored as is. Hashing costs a serialization
+ * of each written payload, on top of the one done by the delegate. The default {@link JavaValueSerializer} only accepts
+ * {@link Serializable} payloads: set one matching the delegate serialization otherwise.
+ * <br/>
+ * Reference counts span several writes, so on {@link #open()} they are rebuilt from the key index in the background, fixing counts left
+ * inconsistent by a previous run ended in the middle of a write.
+ */
+public class DedupStorage extends DelegatingStorage {
+
+	/**
+	 * The reserved session in which payloads, reference counts and the key index are stored
+	 */
+	public static final String PAYLOADS_SESSION = "cache.payloads";
+	public static final long DEFAULT_MIN_BYTES = 256;
+
+	protected static final String PAYLOAD_KEY_PREFIX = "payload_";
+	protected static final String REFERENCES_KEY_PREFIX = "references_";
+	protected static final String INDEX_KEY_PREFIX = "index_";
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	protected long minBytes = DEFAULT_MIN_BYTES;
+	protected ValueSerializer serializer = new JavaValueSerializer();
+	protected Scheduler collectScheduler = Schedulers.single();
+
+	private final AtomicBoolean collectScheduled = new AtomicBoolean(false);
+	private final AtomicBoolean collectNeeded = new AtomicBoolean(false);
+	private final AtomicBoolean repairNeeded = new AtomicBoolean(false);
+	private final AtomicLong dedupHits = new AtomicLong();
+	private final AtomicLong savedBytes = new AtomicLong();
+	private final AtomicLong collectedPayloads = new AtomicLong();
+
+	public DedupStorage(@NotNull Storage delegate) {
+		super(delegate);
+	}
+
+	/**
+	 * Set the serialized size under which payloads are stored as is. Defaults to {@link #DEFAULT_MIN_BYTES}
+	 */
+	public DedupStorage withMinBytes(long minBytes) {
+		this.minBytes = minBytes;
+		return this;
+	}
+
+	/**
+	 * Set the way payloads are serialized to be hashed. Defaults to {@link JavaValueSerializer}
+	 */
+	public DedupStorage withSerializer(@NotNull ValueSerializer serializer) {
+		this.serializer = serializer;
+		return this;
+	}
+
+	/**
+	 * Set the scheduler on which reference counts are repaired and unreferenced payloads are removed. Defaults to {@link Schedulers#single()}
+	 */
+	public DedupStorage withCollectScheduler(@NotNull Scheduler collectScheduler) {
+		this.collectScheduler = collectScheduler;
+		return this;
+	}
+
+	/**
+	 * @return How many writes found their payload already stored
+	 */
+	public long getDedupHits() {
+		return dedupHits.get();
+	}
+
+	/**
+	 * @return The serialized size of payloads which were not written again, in bytes
+	 */
+	public long getSavedBytes() {
+		return savedBytes.get();
+	}
+
+	/**
+	 * @return How many unreferenced payloads were removed
+	 */
+	public long getCollectedPayloads() {
+		return collectedPayloads.get();
+	}
+
+	@Override
+	public void open() {
+		super.open();
+		repairNeeded.set(true);
+		collectNeeded.set(true);
+		scheduleCollect();
+	}
+
+	@Override
+	public int count() {
+		return delegate.count() - delegate.count(PAYLOADS_SESSION, "");
+	}
+
+	@Override
+	public int count(@NotNull String... sessions) {
+		int count = 0;
+		for (String session : sessions) {
+			count += count(session, "");
+		}
+		return count;
+	}
+
+	@Override
+	public void clear(@NotNull String... sessions) {
+		for (String session : sessions) {
+			clear(session, "");
+		}
+	}
+
+	@Override
+	public void clear(@Nullable String session, @NotNull String keyPrefix) {
+		synchronized (this) {
+			for (String key : delegate.keys(session, keyPrefix)) {
+				unindex(session, key);
+			}
+			super.clear(session, keyPrefix);
+		}
+		scheduleCollect();
+	}
+
+	@Override
+	public void delete(@Nullable String session, @NotNull String key) {
+		synchronized (this) {
+			super.delete(session, key);
+			unindex(session, key);
+		}
+		scheduleCollect();
+	}
+
+	@Override
+	public <T> void put(@Nullable String session, @NotNull String key, @Nullable CacheWrapper<T> value) {
+		Digest digest = value != null ? digest(value.getData()) : null;
+		synchronized (this) {
+			String previousHash = readIndex(session, key);
+			if (digest == null) {
+				super.put(session, key, value);
+				if (previousHash != null) {
+					delegate.delete(PAYLOADS_SESSION, buildIndexKey(session, key));
+					release(previousHash);
+				}
+			} else {
+				if (!digest.hash.equals(previousHash)) {
+					retain(digest, value.getData());
+					delegate.put(PAYLOADS_SESSION, buildIndexKey(session, key), new CacheWrapper<>(digest.hash));
+					if (previousHash != null) {
+						release(previousHash);
+					}
+				}
+				super.put(session, key, value.withData(new PayloadReference(digest.hash)));
+			}
+		}
+		scheduleCollect();
+	}
+
+	@Nullable
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> CacheWrapper<T> get(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz) {
+		CacheWrapper<T> value = super.get(session, key, clazz);
+		if (value == null || !(value.getData() instanceof PayloadReference)) {
+			return value;
+		}
+
+		String hash = ((PayloadReference) value.getData()).hash;
+		CacheWrapper<Object> payload = delegate.get(PAYLOADS_SESSION, PAYLOAD_KEY_PREFIX + hash, Object.class);
+		if (payload == null) {
+			// Removed while this value was overwritten
+			return null;
+		}
+		return value.withData((T) payload.getData());
+	}
+
+	@Nullable
+	@Override
+	public CacheWrapper<InputStream> getStream(@Nullable String session, @NotNull String key) {
+		return StorageStreams.wrap(get(session, key, Object.class));
+	}
+
+	/**
+	 * Remove payloads which are not referenced anymore
+	 */
+	public synchronized void collect() {
+		for (String referencesKey : delegate.keys(PAYLOADS_SESSION, REFERENCES_KEY_PREFIX)) {
+			CacheWrapper<Long> references = delegate.get(PAYLOADS_SESSION, referencesKey, Long.class);
+			if (references == null || references.getData() == null || references.getData() <= 0) {
+				String hash = referencesKey.substring(REFERENCES_KEY_PREFIX.length());
+				delegate.delete(PAYLOADS_SESSION, PAYLOAD_KEY_PREFIX + hash);
+				delegate.delete(PAYLOADS_SESSION, referencesKey);
+				collectedPayloads.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Rebuild reference counts from the key index, dropping index records which keys don't reference their payload anymore, and
+	 * payloads left without any reference record
+	 */
+	public synchronized void repair() {
+		Map<String, Long> counts = new HashMap<>();
+		for (String indexKey : delegate.keys(PAYLOADS_SESSION, INDEX_KEY_PREFIX)) {
+			String resolved = indexKey.substring(INDEX_KEY_PREFIX.length());
+			CacheWrapper<String> hash = delegate.get(PAYLOADS_SESSION, indexKey, String.class);
+			CacheWrapper<Object> value = delegate.get(StorageKeys.sessionOf(resolved), StorageKeys.keyOf(resolved), Object.class);
+			if (hash == null || hash.getData() == null || value == null || !(value.getData() instanceof PayloadReference)
+					|| !hash.getData().equals(((PayloadReference) value.getData()).hash)) {
+				delegate.delete(PAYLOADS_SESSION, indexKey);
+				continue;
+			}
+			Long count = counts.get(hash.getData());
+			counts.put(hash.getData(), count != null ? count + 1 : 1);
+		}
+
+		for (String referencesKey : delegate.keys(PAYLOADS_SESSION, REFERENCES_KEY_PREFIX)) {
+			String hash = referencesKey.substring(REFERENCES_KEY_PREFIX.length());
+			if (!counts.containsKey(hash)) {
+				counts.put(hash, 0L);
+			}
+		}
+		for (String payloadKey : delegate.keys(PAYLOADS_SESSION, PAYLOAD_KEY_PREFIX)) {
+			String hash = payloadKey.substring(PAYLOAD_KEY_PREFIX.length());
+			if (!counts.containsKey(hash)) {
+				counts.put(hash, 0L);
+			}
+		}
+		for (Map.Entry<String, Long> count : counts.entrySet()) {
+			if (readReferences(count.getKey()) != count.getValue() || !delegate.exists(PAYLOADS_SESSION, REFERENCES_KEY_PREFIX + count.getKey())) {
+				delegate.put(PAYLOADS_SESSION, REFERENCES_KEY_PREFIX + count.getKey(), new CacheWrapper<>(count.getValue()));
+			}
+		}
+	}
+
+	/**
+	 * Schedule a collection of unreferenced payloads if some may exist and none is already pending
+	 */
+	protected void scheduleCollect() {
+		if (collectNeeded.get() && collectScheduled.compareAndSet(false, true)) {
+			collectScheduler.scheduleDirect(new Runnable() {
+				@Override
+				public void run() {
+					collectScheduled.set(false);
+					collectNeeded.set(false);
+					if (repairNeeded.compareAndSet(true, false)) {
+						repair();
+					}
+					collect();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Add a reference to the given payload, storing it if needed
+	 */
+	protected void retain(@NotNull Digest digest, @Nullable Object data) {
+		long references = readReferences(digest.hash);
+		if (references > 0 || delegate.exists(PAYLOADS_SESSION, PAYLOAD_KEY_PREFIX + digest.hash)) {
+			dedupHits.incrementAndGet();
+			savedBytes.addAndGet(digest.size);
+		} else {
+			delegate.put(PAYLOADS_SESSION, PAYLOAD_KEY_PREFIX + digest.hash, new CacheWrapper<>(0, data));
+		}
+		delegate.put(PAYLOADS_SESSION, REFERENCES_KEY_PREFIX + digest.hash, new CacheWrapper<>(Math.max(0, references) + 1));
+	}
+
+	/**
+	 * Remove a reference to the given payload. Payloads without reference are removed by {@link #collect()}
+	 */
+	protected void release(@NotNull String hash) {
+		long references = Math.max(0, readReferences(hash) - 1);
+		delegate.put(PAYLOADS_SESSION, REFERENCES_KEY_PREFIX + hash, new CacheWrapper<>(references));
+		if (references == 0) {
+			collectNeeded.set(true);
+		}
+	}
+
+	/**
+	 * Forget the payload of the given key, if any
+	 */
+	protected void unindex(@Nullable String session, @NotNull String key) {
+		String hash = readIndex(session, key);
+		if (hash != null) {
+			delegate.delete(PAYLOADS_SESSION, buildIndexKey(session, key));
+			release(hash);
+		}
+	}
+
+	protected long readReferences(@NotNull String hash) {
+		CacheWrapper<Long> references = delegate.get(PAYLOADS_SESSION, REFERENCES_KEY_PREFIX + hash, Long.class);
+		return references != null && references.getData() != null ? references.getData() : 0;
+	}
+
+	@Nullable
+	protected String readIndex(@Nullable String session, @NotNull String key) {
+		CacheWrapper<String> hash = delegate.get(PAYLOADS_SESSION, buildIndexKey(session, key), String.class);
+		return hash != null ? hash.getData() : null;
+	}
+
+	protected String buildIndexKey(@Nullable String session, @NotNull String key) {
+		return INDEX_KEY_PREFIX + StorageKeys.resolve(session, key);
+	}
+
+	/**
+	 * @return The hash and size of the given data, or <code>null</code> if it must be stored as is
+	 */
+	@Nullable
+	protected Digest digest(@Nullable Object data) {
+		if (!serializer.accepts(data)) {
+			return null;
+		}
+
+		try {
+			MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+			CountingOutputStream countingOutputStream = new CountingOutputStream();
+			OutputStream digestOutputStream = new DigestOutputStream(countingOutputStream, messageDigest);
+			serializer.serialize(data, digestOutputStream);
+			digestOutputStream.close();
+			if (countingOutputStream.count < minBytes) {
+				return null;
+			}
+			return new Digest(toHex(messageDigest.digest()), countingOutputStream.count);
+		} catch (IOException e) {
+			return null;
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-1 is not available", e);
+		}
+	}
+
+	private static String toHex(@NotNull byte[] bytes) {
+		char[] chars = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+			chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * The record kept under a key in place of its payload
+	 */
+	public static class PayloadReference implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private String hash;
+
+		public PayloadReference() {
+			// Needed for deserialization
+		}
+
+		public PayloadReference(@NotNull String hash) {
+			this.hash = hash;
+		}
+
+		@Override
+		public String toString() {
+			return "PayloadReference{" +
+					"hash=" + hash +
+					'}';
+		}
+
+		public String getHash() {
+			return hash;
+		}
+	}
+
+	protected static class Digest {
+		private final String hash;
+		private final long size;
+
+		private Digest(@NotNull String hash, long size) {
+			this.hash = hash;
+			this.size = size;
+		}
+	}
+
+	private static class CountingOutputStream extends OutputStream {
+		private long count = 0;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(@NotNull byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+
+}
@@ -0,0 +1,119 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InputStream;
+import java.util.List;
+
+import fr.beapp.cache.CacheWrapper;
+
+/**
+ * A {@link Storage} forwarding every operation to another {@link Storage}.
+ * <br/>
+ * Extend this class to add a behavior on top of any existing storage implementation.
+ * Streams are forwarded too, so decorators don't hide a {@link StreamingStorage} underneath.
+ */
+public abstract class DelegatingStorage implements StreamingStorage {
+
+	protected final Storage delegate;
+
+	protected DelegatingStorage(@NotNull Storage delegate) {
+		this.delegate = delegate;
+	}
+
+	public Storage getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public void open() {
+		delegate.open();
+	}
+
+	@Override
+	public void close() {
+		delegate.close();
+	}
+
+	@Override
+	public int count() {
+		return delegate.count();
+	}
+
+	@Override
+	public int count(@NotNull String... sessions) {
+		return delegate.count(sessions);
+	}
+
+	@Override
+	public int count(@Nullable String session, @NotNull String keyPrefix) {
+		return delegate.count(session, keyPrefix);
+	}
+
+	@NotNull
+	@Override
+	public List<String> keys(@Nullable String session, @NotNull String keyPrefix) {
+		return delegate.keys(session, keyPrefix);
+	}
+
+	@Override
+	public void clear() {
+		delegate.clear();
+	}
+
+	@Override
+	public void clear(@NotNull String... sessions) {
+		delegate.clear(sessions);
+	}
+
+	@Override
+	public void clear(@Nullable String session, @NotNull String keyPrefix) {
+		delegate.clear(session, keyPrefix);
+	}
+
+	@Override
+	public void delete(@Nullable String session, @NotNull String key) {
+		delegate.delete(session, key);
+	}
+
+	@Override
+	public <T> void put(@Nullable String session, @NotNull String key, @Nullable CacheWrapper<T> value) {
+		delegate.put(session, key, value);
+	}
+
+	@Override
+	public boolean touch(@Nullable String session, @NotNull String key, long cachedDate) {
+		return delegate.touch(session, key, cachedDate);
+	}
+
+	@Nullable
+	@Override
+	public <T> CacheWrapper<T> get(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz) {
+		return delegate.get(session, key, clazz);
+	}
+
+	@NotNull
+	@Override
+	public <T> CacheWrapper<T> get(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz, @NotNull T defaultValue) {
+		CacheWrapper<T> value = get(session, key, clazz);
+		return value != null ? value : new CacheWrapper<>(defaultValue);
+	}
+
+	@Override
+	public long getVersion(@Nullable String session, @NotNull String key) {
+		return delegate.getVersion(session, key);
+	}
+
+	@Nullable
+	@Override
+	public CacheWrapper<InputStream> getStream(@Nullable String session, @NotNull String key) {
+		return StorageStreams.getStream(delegate, session, key);
+	}
+
+	@Override
+	public boolean exists(@Nullable String session, @NotNull String key) {
+		return delegate.exists(session, key);
+	}
+
+}
@@ -0,0 +1,18 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import fr.beapp.cache.CacheWrapper;
+
+/**
+ * Estimate the size taken by a cached entry once stored
+ */
+public interface EntrySizer {
+
+	/**
+	 * @param value The cached entry
+	 * @return The approximate size of this entry, in bytes
+	 */
+	long sizeOf(@NotNull CacheWrapper<?> value);
+
+}
@@ -0,0 +1,28 @@
+package fr.beapp.cache.storage;
+
+import java.util.Random;
+
+/**
+ * Generate entry versions for {@link Storage#getVersion(String, String)}.
+ * <br/>
+ * Versions are random rather than incremented, so instances sharing the same files can't produce the same version for different data.
+ */
+public final class EntryVersions {
+
+	private static final Random RANDOM = new Random();
+
+	private EntryVersions() {
+	}
+
+	/**
+	 * @return A new version, never equal to {@link Storage#NO_VERSION}
+	 */
+	public static long next() {
+		long version;
+		do {
+			version = RANDOM.nextLong();
+		} while (version == Storage.NO_VERSION);
+		return version;
+	}
+
+}
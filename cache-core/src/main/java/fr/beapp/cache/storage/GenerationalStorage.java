@@ -0,0 +1,294 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.beapp.cache.CacheWrapper;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * A {@link Storage} clearing sessions of another {@link Storage} in constant time.
+ * <br/>
+ * Each session has a generation, which is part of the session name given to the delegate. Clearing a session only bumps its generation,
+ * making previous entries unreachable, and entries of previous generations are removed in the background. Generations and pending
+ * removals are persisted in a reserved session of the delegate, so removals interrupted by the process end are resumed on {@link #open()}.
+ * <br/>
+ * {@link #count()} includes entries of previous generations which weren't removed yet. Session names ending with <code>@g</code> followed by
+ * digits are rejected with an {@link IllegalArgumentException}, as they would collide with a later generation of another session.
+ */
+public class GenerationalStorage extends DelegatingStorage {
+
+	/**
+	 * The session of the delegate holding generations
+	 */
+	public static final String GENERATIONS_SESSION = "cache.generations";
+
+	private static final String GENERATION_KEY_PREFIX = "generation_";
+	private static final String PENDING_RECLAIMS_KEY = "pendingReclaims";
+	private static final String GENERATION_SEPARATOR = "@g";
+
+	protected Scheduler reclaimScheduler = Schedulers.single();
+
+	private final ConcurrentMap<String, Long> generations = new ConcurrentHashMap<>();
+	private final AtomicBoolean reclaimScheduled = new AtomicBoolean(false);
+	private final AtomicLong reclaimedGenerations = new AtomicLong();
+
+	public GenerationalStorage(@NotNull Storage delegate) {
+		super(delegate);
+	}
+
+	/**
+	 * Set the scheduler on which entries of previous generations are removed. Defaults to {@link Schedulers#single()}
+	 */
+	public GenerationalStorage withReclaimScheduler(@NotNull Scheduler reclaimScheduler) {
+		this.reclaimScheduler = reclaimScheduler;
+		return this;
+	}
+
+	/**
+	 * @return How many previous generations were removed
+	 */
+	public long getReclaimedGenerations() {
+		return reclaimedGenerations.get();
+	}
+
+	/**
+	 * @return How many previous generations are waiting to be removed
+	 */
+	public synchronized int getPendingReclaims() {
+		return readPendingReclaims().size();
+	}
+
+	/**
+	 * @return The current generation of the given session, <code>0</code> until it is cleared
+	 */
+	public long getGeneration(@Nullable String session) {
+		String sessionKey = session != null ? session : "";
+		Long generation = generations.get(sessionKey);
+		if (generation == null) {
+			CacheWrapper<Long> storedGeneration = delegate.get(GENERATIONS_SESSION, GENERATION_KEY_PREFIX + sessionKey, Long.class);
+			generation = storedGeneration != null && storedGeneration.getData() != null ? storedGeneration.getData() : 0L;
+			Long previous = generations.putIfAbsent(sessionKey, generation);
+			if (previous != null) {
+				generation = previous;
+			}
+		}
+		return generation;
+	}
+
+	@Override
+	public void open() {
+		super.open();
+		scheduleReclaim();
+	}
+
+	@Override
+	public int count() {
+		return delegate.count() - delegate.count(GENERATIONS_SESSION, "");
+	}
+
+	@Override
+	public int count(@NotNull String... sessions) {
+		int count = 0;
+		for (String session : sessions) {
+			count += count(session, "");
+		}
+		return count;
+	}
+
+	@Override
+	public int count(@Nullable String session, @NotNull String keyPrefix) {
+		return delegate.count(resolveSession(session), keyPrefix);
+	}
+
+	@NotNull
+	@Override
+	public List<String> keys(@Nullable String session, @NotNull String keyPrefix) {
+		return delegate.keys(resolveSession(session), keyPrefix);
+	}
+
+	@Override
+	public synchronized void clear() {
+		super.clear();
+		generations.clear();
+	}
+
+	/**
+	 * Bump the generation of the given sessions, previous entries being removed in the background
+	 */
+	@Override
+	public void clear(@NotNull String... sessions) {
+		synchronized (this) {
+			List<String> pendingReclaims = readPendingReclaims();
+			for (String session : sessions) {
+				String sessionKey = session != null ? session : "";
+				long generation = getGeneration(sessionKey);
+				pendingReclaims.add(buildPhysicalSession(sessionKey, generation));
+
+				delegate.put(GENERATIONS_SESSION, GENERATION_KEY_PREFIX + sessionKey, new CacheWrapper<>(generation + 1));
+				generations.put(sessionKey, generation + 1);
+			}
+			writePendingReclaims(pendingReclaims);
+		}
+		scheduleReclaim();
+	}
+
+	@Override
+	public void clear(@Nullable String session, @NotNull String keyPrefix) {
+		if (keyPrefix.isEmpty()) {
+			clear(session != null ? session : "");
+		} else {
+			delegate.clear(resolveSession(session), keyPrefix);
+		}
+	}
+
+	@Override
+	public void delete(@Nullable String session, @NotNull String key) {
+		delegate.delete(resolveSession(session), key);
+	}
+
+	@Override
+	public <T> void put(@Nullable String session, @NotNull String key, @Nullable CacheWrapper<T> value) {
+		String sessionKey = session != null ? session : "";
+		long generation = getGeneration(sessionKey);
+		String physicalSession = buildPhysicalSession(sessionKey, generation);
+		delegate.put(physicalSession, key, value);
+
+		if (getGeneration(sessionKey) != generation) {
+			// Cleared meanwhile, the previous generation may already be reclaimed so the entry is removed here
+			delegate.delete(physicalSession, key);
+		}
+	}
+
+	@Override
+	public boolean touch(@Nullable String session, @NotNull String key, long cachedDate) {
+		return delegate.touch(resolveSession(session), key, cachedDate);
+	}
+
+	@Nullable
+	@Override
+	public <T> CacheWrapper<T> get(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz) {
+		return delegate.get(resolveSession(session), key, clazz);
+	}
+
+	@Override
+	public long getVersion(@Nullable String session, @NotNull String key) {
+		return delegate.getVersion(resolveSession(session), key);
+	}
+
+	@Nullable
+	@Override
+	public CacheWrapper<InputStream> getStream(@Nullable String session, @NotNull String key) {
+		return StorageStreams.getStream(delegate, resolveSession(session), key);
+	}
+
+	@Override
+	public boolean exists(@Nullable String session, @NotNull String key) {
+		return delegate.exists(resolveSession(session), key);
+	}
+
+	/**
+	 * @return The session name given to the delegate for the current generation of the given session
+	 */
+	protected String resolveSession(@Nullable String session) {
+		String sessionKey = session != null ? session : "";
+		return buildPhysicalSession(sessionKey, getGeneration(sessionKey));
+	}
+
+	protected String buildPhysicalSession(@NotNull String session, long generation) {
+		if (hasGenerationSuffix(session)) {
+			throw new IllegalArgumentException("Session " + session + " would collide with a generation of session "
+					+ session.substring(0, session.lastIndexOf(GENERATION_SEPARATOR)));
+		}
+		// The first generation keeps the plain session name, so entries written before using this storage are still reachable
+		return generation == 0 ? session : session + GENERATION_SEPARATOR + generation;
+	}
+
+	/**
+	 * @return <code>true</code> if the given session ends like the physical session of a generation other than the first one
+	 */
+	protected static boolean hasGenerationSuffix(@NotNull String session) {
+		int separatorIndex = session.lastIndexOf(GENERATION_SEPARATOR);
+		int digitsIndex = separatorIndex + GENERATION_SEPARATOR.length();
+		if (separatorIndex < 0 || digitsIndex == session.length()) {
+			return false;
+		}
+		for (int i = digitsIndex; i < session.length(); i++) {
+			if (!Character.isDigit(session.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Schedule removal of previous generations if none is already pending
+	 */
+	protected void scheduleReclaim() {
+		if (reclaimScheduled.compareAndSet(false, true)) {
+			reclaimScheduler.scheduleDirect(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						reclaim();
+					} finally {
+						reclaimScheduled.set(false);
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Remove entries of previous generations, one generation at a time so new clears are not blocked meanwhile
+	 */
+	protected void reclaim() {
+		while (true) {
+			String physicalSession;
+			synchronized (this) {
+				List<String> pendingReclaims = readPendingReclaims();
+				if (pendingReclaims.isEmpty()) {
+					return;
+				}
+				physicalSession = pendingReclaims.get(0);
+			}
+
+			delegate.clear(physicalSession);
+			reclaimedGenerations.incrementAndGet();
+
+			synchronized (this) {
+				List<String> pendingReclaims = readPendingReclaims();
+				pendingReclaims.remove(physicalSession);
+				writePendingReclaims(pendingReclaims);
+			}
+		}
+	}
+
+	private List<String> readPendingReclaims() {
+		CacheWrapper<String[]> pendingReclaims = delegate.get(GENERATIONS_SESSION, PENDING_RECLAIMS_KEY, String[].class);
+		List<String> result = new ArrayList<>();
+		if (pendingReclaims != null && pendingReclaims.getData() != null) {
+			result.addAll(Arrays.asList(pendingReclaims.getData()));
+		}
+		return result;
+	}
+
+	private void writePendingReclaims(@NotNull List<String> pendingReclaims) {
+		if (pendingReclaims.isEmpty()) {
+			delegate.delete(GENERATIONS_SESSION, PENDING_RECLAIMS_KEY);
+		} else {
+			delegate.put(GENERATIONS_SESSION, PENDING_RECLAIMS_KEY, new CacheWrapper<>(pendingReclaims.toArray(new String[0])));
+		}
+	}
+
+}
@@ -0,0 +1,326 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.beapp.cache.CacheWrapper;
+import io.reactivex.Completable;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Action;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Save an {@link InMemoryStorage} to a single binary file, and restore it on next start, so the cache doesn't start cold.
+ * <br/>
+ * The snapshot is written sequentially to a temporary file, synced, then renamed, so a restore never reads a partial snapshot.
+ * Each entry is written with its cache metadata and the Java serialized form of its data, prefixed by its length, so entries
+ * older than the max age or their own TTL are skipped on restore without being deserialized. Entries which data can't be serialized
+ * are not saved, and entries which data can't be deserialized anymore, for instance after a class changed, are skipped.
+ * <br/>
+ * Snapshot files start with a format version, files of unknown versions are ignored.
+ */
+public class InMemorySnapshotter {
+
+	protected static final int MAGIC = 0x52584353; // "RXCS"
+	protected static final int FORMAT_VERSION = 3;
+	protected static final int BUFFER_SIZE = 64 * 1024;
+
+	protected final InMemoryStorage storage;
+	protected final File file;
+
+	protected Scheduler scheduler = Schedulers.io();
+	protected long maxAgeMillis = Long.MAX_VALUE;
+
+	private volatile long lastSnapshotDurationMillis = 0;
+	private volatile long lastRestoreDurationMillis = 0;
+	private final AtomicLong snapshotEntries = new AtomicLong();
+	private final AtomicLong restoredEntries = new AtomicLong();
+	private final AtomicLong skippedEntries = new AtomicLong();
+	private final AtomicLong failedSnapshots = new AtomicLong();
+
+	/**
+	 * @param storage The storage to save and restore
+	 * @param file    The snapshot file
+	 */
+	public InMemorySnapshotter(@NotNull InMemoryStorage storage, @NotNull File file) {
+		this.storage = storage;
+		this.file = file;
+	}
+
+	/**
+	 * Set the scheduler on which snapshots and restores are done. Defaults to {@link Schedulers#io()}
+	 */
+	public InMemorySnapshotter withScheduler(@NotNull Scheduler scheduler) {
+		this.scheduler = scheduler;
+		return this;
+	}
+
+	/**
+	 * Skip entries cached for longer than the given duration when restoring, typically the longest TTL in use. Defaults to no limit
+	 */
+	public InMemorySnapshotter withMaxAge(long value, @NotNull TimeUnit timeUnit) {
+		this.maxAgeMillis = timeUnit.toMillis(value);
+		return this;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * @return The duration of the last snapshot, in milliseconds
+	 */
+	public long getLastSnapshotDurationMillis() {
+		return lastSnapshotDurationMillis;
+	}
+
+	/**
+	 * @return The duration of the last restore, in milliseconds
+	 */
+	public long getLastRestoreDurationMillis() {
+		return lastRestoreDurationMillis;
+	}
+
+	/**
+	 * @return How many entries the last snapshot saved
+	 */
+	public long getSnapshotEntries() {
+		return snapshotEntries.get();
+	}
+
+	/**
+	 * @return How many entries were restored
+	 */
+	public long getRestoredEntries() {
+		return restoredEntries.get();
+	}
+
+	/**
+	 * @return How many entries weren't restored, because they were too old, already in storage or couldn't be deserialized
+	 */
+	public long getSkippedEntries() {
+		return skippedEntries.get();
+	}
+
+	/**
+	 * @return How many scheduled snapshots failed
+	 */
+	public long getFailedSnapshots() {
+		return failedSnapshots.get();
+	}
+
+	/**
+	 * Save the storage now
+	 */
+	public Completable snapshot() {
+		return Completable.fromAction(new Action() {
+			@Override
+			public void run() throws Exception {
+				writeSnapshot();
+			}
+		}).subscribeOn(scheduler);
+	}
+
+	/**
+	 * Restore the last snapshot, if any. Entries already in storage are kept
+	 */
+	public Completable restore() {
+		return Completable.fromAction(new Action() {
+			@Override
+			public void run() throws Exception {
+				readSnapshot();
+			}
+		}).subscribeOn(scheduler);
+	}
+
+	/**
+	 * Save the storage periodically, until the returned {@link Disposable} is disposed
+	 */
+	public Disposable scheduleSnapshots(long period, @NotNull TimeUnit timeUnit) {
+		return scheduler.schedulePeriodicallyDirect(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					writeSnapshot();
+				} catch (Exception e) {
+					failedSnapshots.incrementAndGet();
+				}
+			}
+		}, period, period, timeUnit);
+	}
+
+	protected synchronized void writeSnapshot() throws IOException {
+		long start = System.nanoTime();
+		Map<String, Map<String, CacheWrapper<?>>> entries = storage.copyEntries();
+
+		File tempFile = new File(file.getPath() + ".tmp");
+		FileOutputStream fileStream = new FileOutputStream(tempFile);
+		try {
+			FileChannel channel = fileStream.getChannel();
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+			output.writeInt(MAGIC);
+			output.writeInt(FORMAT_VERSION);
+
+			long count = 0;
+			ByteArrayOutputStream payload = new ByteArrayOutputStream();
+			for (Map.Entry<String, Map<String, CacheWrapper<?>>> session : entries.entrySet()) {
+				for (Map.Entry<String, CacheWrapper<?>> entry : session.getValue().entrySet()) {
+					CacheWrapper<?> value = entry.getValue();
+					payload.reset();
+					if (!serialize(value.getData(), payload)) {
+						continue;
+					}
+
+					output.writeBoolean(true);
+					output.writeUTF(session.getKey());
+					output.writeUTF(entry.getKey());
+					output.writeLong(value.getCachedDate());
+					writeNullableUTF(output, value.getEtag());
+					writeNullableUTF(output, value.getLastModified());
+					output.writeLong(value.getContentHash());
+					output.writeLong(value.getTtl());
+					String[] tags = value.getTags();
+					output.writeInt(tags.length);
+					for (String tag : tags) {
+						output.writeUTF(tag);
+					}
+					output.writeInt(payload.size());
+					payload.writeTo(output);
+					count++;
+				}
+			}
+			output.writeBoolean(false);
+			output.flush();
+			channel.force(true);
+			snapshotEntries.set(count);
+		} finally {
+			fileStream.close();
+		}
+
+		if (!tempFile.renameTo(file)) {
+			tempFile.delete();
+			throw new IOException("Snapshot " + tempFile + " couldn't be renamed to " + file);
+		}
+		lastSnapshotDurationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+
+	protected synchronized void readSnapshot() throws IOException {
+		if (!file.exists()) {
+			return;
+		}
+
+		long start = System.nanoTime();
+		long now = System.currentTimeMillis();
+		long minCachedDate = maxAgeMillis == Long.MAX_VALUE ? Long.MIN_VALUE : now - maxAgeMillis;
+		FileInputStream fileStream = new FileInputStream(file);
+		try {
+			DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(fileStream.getChannel()), BUFFER_SIZE));
+			if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+				return;
+			}
+
+			while (input.readBoolean()) {
+				String session = input.readUTF();
+				String key = input.readUTF();
+				long cachedDate = input.readLong();
+				String etag = readNullableUTF(input);
+				String lastModified = readNullableUTF(input);
+				long contentHash = input.readLong();
+				long ttl = input.readLong();
+				String[] tags = new String[input.readInt()];
+				for (int i = 0; i < tags.length; i++) {
+					tags[i] = input.readUTF();
+				}
+				int payloadLength = input.readInt();
+
+				boolean expired = cachedDate < minCachedDate || (ttl != CacheWrapper.NO_TTL && cachedDate + ttl < now);
+				if (expired || storage.exists(session, key)) {
+					skipFully(input, payloadLength);
+					skippedEntries.incrementAndGet();
+					continue;
+				}
+
+				byte[] payload = new byte[payloadLength];
+				input.readFully(payload);
+				Object data;
+				try {
+					data = new ObjectInputStream(new ByteArrayInputStream(payload)).readObject();
+				} catch (ClassNotFoundException | ObjectStreamException e) {
+					// Only this entry is lost, the next one starts right after its payload
+					skippedEntries.incrementAndGet();
+					continue;
+				}
+				if (storage.putIfAbsent(session, key, new CacheWrapper<>(cachedDate, data, etag, lastModified, contentHash, ttl).withTags(tags))) {
+					restoredEntries.incrementAndGet();
+				} else {
+					skippedEntries.incrementAndGet();
+				}
+			}
+		} catch (EOFException e) {
+			// A truncated snapshot, entries read so far are kept
+		} finally {
+			fileStream.close();
+			lastRestoreDurationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if the data was serialized, <code>false</code> if it can't be
+	 */
+	private static boolean serialize(@Nullable Object data, @NotNull ByteArrayOutputStream payload) throws IOException {
+		try {
+			ObjectOutputStream objectOutputStream = new ObjectOutputStream(payload);
+			objectOutputStream.writeObject(data);
+			objectOutputStream.close();
+			return true;
+		} catch (NotSerializableException e) {
+			return false;
+		}
+	}
+
+	private static void writeNullableUTF(@NotNull DataOutputStream output, @Nullable String value) throws IOException {
+		output.writeBoolean(value != null);
+		if (value != null) {
+			output.writeUTF(value);
+		}
+	}
+
+	@Nullable
+	private static String readNullableUTF(@NotNull DataInputStream input) throws IOException {
+		return input.readBoolean() ? input.readUTF() : null;
+	}
+
+	private static void skipFully(@NotNull DataInputStream input, int length) throws IOException {
+		int remaining = length;
+		while (remaining > 0) {
+			int skipped = input.skipBytes(remaining);
+			if (skipped <= 0) {
+				throw new EOFException();
+			}
+			remaining -= skipped;
+		}
+	}
+
+}
@@ -3,27 +3,35 @@ package fr.beapp.cache.storage;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.WeakHashMap;
 
 import fr.beapp.cache.CacheWrapper;
 
 /**
  * An in-memory {@link Storage} implementation based on a {@link Map}.
+ * <br/>
+ * Entries are grouped by session, so looking up an entry doesn't need to build any key.
+ * Stored wrappers are handed out as is, without any copy, which is safe since {@link CacheWrapper} is immutable.
+ * <br/>
+ * {@link fr.beapp.cache.RxCache} reads a plain {@link InMemoryStorage} directly on the subscribing thread, unless a default scheduler is set.
+ * Subclasses are read through the storage scheduler, as they may add blocking work.
  */
-public class InMemoryStorage implements Storage {
-	private final Map<String, CacheWrapper<?>> cache;
+public class InMemoryStorage extends AbstractStorage {
+	private final boolean useWeekReferences;
+	private final Map<String, Map<String, Entry>> sessions = new HashMap<>();
 
 	public InMemoryStorage(boolean useWeekReferences) {
-		if (useWeekReferences) {
-			cache = new WeakHashMap<>();
-		} else {
-			cache = new HashMap<>();
-		}
+		this.useWeekReferences = useWeekReferences;
+	}
+
+	@Override
+	public void open() {
+		// Nothing to do
 	}
 
 	@Override
@@ -32,12 +40,16 @@ public class InMemoryStorage implements Storage {
 	}
 
 	@Override
-	public int count() {
-		return cache.size();
+	public synchronized int count() {
+		int count = 0;
+		for (Map<String, Entry> entries : sessions.values()) {
+			count += entries.size();
+		}
+		return count;
 	}
 
 	@Override
-	public int count(@NotNull String[] sessions) {
+	public synchronized int count(@NotNull String... sessions) {
 		int count = 0;
 		for (String session : sessions) {
 			count += count(session, "");
@@ -46,76 +58,176 @@ public class InMemoryStorage implements Storage {
 	}
 
 	@Override
-	public int count(@NotNull String session, @NotNull String keyPrefix) {
-		Set<String> allKeys = cache.keySet();
-		String finalKeyPrefix = buildKey(session, keyPrefix);
+	public synchronized int count(@Nullable String session, @NotNull String keyPrefix) {
+		Map<String, Entry> entries = sessions.get(normalizeSession(session));
+		if (entries == null) {
+			return 0;
+		}
 
 		int count = 0;
-		for (String key : allKeys) {
-			if (key.startsWith(finalKeyPrefix)) {
+		for (String key : entries.keySet()) {
+			if (key.startsWith(keyPrefix)) {
 				count++;
 			}
 		}
 		return count;
 	}
 
+	@NotNull
 	@Override
-	public void clear() {
-		cache.clear();
+	public synchronized List<String> keys(@Nullable String session, @NotNull String keyPrefix) {
+		List<String> keys = new ArrayList<>();
+		Map<String, Entry> entries = sessions.get(normalizeSession(session));
+		if (entries != null) {
+			for (String key : entries.keySet()) {
+				if (key.startsWith(keyPrefix)) {
+					keys.add(key);
+				}
+			}
+		}
+		return keys;
+	}
+
+	@Override
+	public synchronized void clear() {
+		sessions.clear();
 	}
 
 	@Override
 	public synchronized void clear(@NotNull String... sessions) {
 		for (String session : sessions) {
-			clear(session, "");
+			this.sessions.remove(normalizeSession(session));
 		}
 	}
 
 	@Override
-	public void clear(@Nullable String session, @NotNull String keyPrefix) {
-		List<String> keys = new LinkedList<>(cache.keySet());
-		for (String key : keys) {
-			if (key.startsWith(buildKey(session, keyPrefix))) {
-				cache.remove(key);
+	public synchronized void clear(@Nullable String session, @NotNull String keyPrefix) {
+		Map<String, Entry> entries = sessions.get(normalizeSession(session));
+		if (entries != null) {
+			Iterator<String> iterator = entries.keySet().iterator();
+			while (iterator.hasNext()) {
+				if (iterator.next().startsWith(keyPrefix)) {
+					iterator.remove();
+				}
 			}
 		}
 	}
 
 	@Override
-	public <T> void put(@Nullable String session, @NotNull String key, @Nullable CacheWrapper<T> value) {
-		cache.put(buildKey(session, key), value);
+	public synchronized <T> void put(@Nullable String session, @NotNull String key, @Nullable CacheWrapper<T> value) {
+		String sessionKey = normalizeSession(session);
+		Map<String, Entry> entries = sessions.get(sessionKey);
+		if (entries == null) {
+			entries = useWeekReferences ? new WeakHashMap<String, Entry>() : new HashMap<String, Entry>();
+			sessions.put(sessionKey, entries);
+		}
+		entries.put(key, new Entry(value, EntryVersions.next()));
 	}
 
 	@Override
-	public void delete(@Nullable String session, @NotNull String key) {
-		cache.remove(buildKey(session, key));
+	public synchronized boolean touch(@Nullable String session, @NotNull String key, long cachedDate) {
+		Map<String, Entry> entries = sessions.get(normalizeSession(session));
+		Entry entry = entries != null ? entries.get(key) : null;
+		if (entry != null && entry.value != null) {
+			// Wrappers are immutable and may be in use by readers, so the entry is replaced by a copy
+			entries.put(key, new Entry(entry.value.withCachedDate(cachedDate), EntryVersions.next()));
+			return true;
+		}
+		return false;
 	}
 
-	@Nullable
 	@Override
-	public <T> CacheWrapper<T> get(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz) {
-		String finalKey = buildKey(session, key);
-		if (cache.containsKey(finalKey)) {
-			return (CacheWrapper<T>) cache.get(finalKey);
+	public synchronized void delete(@Nullable String session, @NotNull String key) {
+		Map<String, Entry> entries = sessions.get(normalizeSession(session));
+		if (entries != null) {
+			entries.remove(key);
 		}
-		return null;
+	}
+
+	@Nullable
+	@Override
+	@SuppressWarnings("unchecked")
+	public synchronized <T> CacheWrapper<T> get(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz) {
+		Entry entry = getEntry(session, key);
+		return entry != null ? (CacheWrapper<T>) entry.value : null;
 	}
 
 	@NotNull
 	@Override
 	@SuppressWarnings("unchecked")
-	public <T> CacheWrapper<T> get(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz, @NotNull T defaultValue) {
+	public synchronized <T> CacheWrapper<T> get(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz, @NotNull T defaultValue) {
 		CacheWrapper<T> value = get(session, key, clazz);
 		return value != null ? value : new CacheWrapper(defaultValue);
 	}
 
 	@Override
-	public boolean exists(@Nullable String session, @NotNull String key) {
-		return cache.containsKey(buildKey(session, key));
+	public synchronized long getVersion(@Nullable String session, @NotNull String key) {
+		Entry entry = getEntry(session, key);
+		return entry != null ? entry.version : NO_VERSION;
+	}
+
+	@Override
+	public synchronized boolean exists(@Nullable String session, @NotNull String key) {
+		return getEntry(session, key) != null;
 	}
 
+	/**
+	 * @return A copy of all entries, by session then key, for {@link InMemorySnapshotter}
+	 */
+	synchronized Map<String, Map<String, CacheWrapper<?>>> copyEntries() {
+		Map<String, Map<String, CacheWrapper<?>>> copy = new HashMap<>(sessions.size());
+		for (Map.Entry<String, Map<String, Entry>> session : sessions.entrySet()) {
+			Map<String, CacheWrapper<?>> values = new HashMap<>(session.getValue().size());
+			for (Map.Entry<String, Entry> entry : session.getValue().entrySet()) {
+				if (entry.getValue().value != null) {
+					values.put(entry.getKey(), entry.getValue().value);
+				}
+			}
+			copy.put(session.getKey(), values);
+		}
+		return copy;
+	}
+
+	/**
+	 * Store the given value unless a value is already stored with this key, for {@link InMemorySnapshotter}
+	 *
+	 * @return <code>true</code> if the value was stored
+	 */
+	synchronized boolean putIfAbsent(@Nullable String session, @NotNull String key, @NotNull CacheWrapper<?> value) {
+		if (getEntry(session, key) != null) {
+			return false;
+		}
+		put(session, key, value);
+		return true;
+	}
+
+	@Nullable
+	private Entry getEntry(@Nullable String session, @NotNull String key) {
+		Map<String, Entry> entries = sessions.get(normalizeSession(session));
+		return entries != null ? entries.get(key) : null;
+	}
+
+	protected String normalizeSession(@Nullable String session) {
+		return session != null ? session : "";
+	}
+
+	/**
+	 * @deprecated Entries are grouped by session, so keys aren't built anymore and overriding this method has no effect.
+	 * Use {@link StorageKeys#resolve(String, String)} to identify an entry of any session by a single string.
+	 */
+	@Deprecated
 	protected String buildKey(@Nullable String session, @NotNull String key) {
 		return session != null && !session.isEmpty() ? session + "_" + key : "global_" + key;
 	}
 
+	private static class Entry {
+		private final CacheWrapper<?> value;
+		private final long version;
+
+		private Entry(@Nullable CacheWrapper<?> value, long version) {
+			this.value = value;
+			this.version = version;
+		}
+	}
+
 }
@@ -0,0 +1,38 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+/**
+ * A {@link ValueSerializer} using Java serialization, so only accepting {@link Serializable} data.
+ * <br/>
+ * Data stored by a Kryo based storage often isn't {@link Serializable}: use a serializer matching the storage for it instead.
+ */
+public class JavaValueSerializer implements ValueSerializer {
+
+	@Override
+	public boolean accepts(@Nullable Object data) {
+		return data instanceof Serializable;
+	}
+
+	@Override
+	public void serialize(@Nullable Object data, @NotNull OutputStream output) throws IOException {
+		ObjectOutputStream objectOutputStream = new ObjectOutputStream(output);
+		objectOutputStream.writeObject(data);
+		objectOutputStream.flush();
+	}
+
+	@Nullable
+	@Override
+	public Object deserialize(@NotNull InputStream input) throws IOException, ClassNotFoundException {
+		return new ObjectInputStream(input).readObject();
+	}
+
+}
@@ -0,0 +1,202 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.beapp.cache.CacheWrapper;
+
+/**
+ * A {@link Storage} keeping the last decoded values of another, typically persistent, {@link Storage}, so reading an entry which
+ * wasn't written since doesn't deserialize it again.
+ * <br/>
+ * Unlike a plain in-memory cache, each read checks the entry version from the delegate (see {@link Storage#getVersion(String, String)}),
+ * so entries written by other instances or processes sharing the same files are read again. Entries without version are never memoized,
+ * so disk backends tracking versions on demand must have it enabled, like <code>PaperDbStorage.withVersionTracking(true)</code>.
+ * <br/>
+ * Memoized values are bounded by an approximate byte budget, the least recently used ones being dropped first.
+ */
+public class MemoStorage extends DelegatingStorage {
+
+	protected final long maxBytes;
+
+	protected EntrySizer entrySizer = new SerializedEntrySizer();
+
+	private final LinkedHashMap<String, Memo> memos = new LinkedHashMap<>(16, 0.75f, true);
+	private long memoBytes = 0;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * @param delegate The storage to read from
+	 * @param maxBytes The maximum approximate size of memoized values, in bytes
+	 */
+	public MemoStorage(@NotNull Storage delegate, long maxBytes) {
+		super(delegate);
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Set the way memoized value sizes are estimated. Defaults to {@link SerializedEntrySizer}, which costs a serialization on each miss
+	 */
+	public MemoStorage withEntrySizer(@NotNull EntrySizer entrySizer) {
+		this.entrySizer = entrySizer;
+		return this;
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * @return The approximate size of memoized values, in bytes
+	 */
+	public synchronized long getMemoBytes() {
+		return memoBytes;
+	}
+
+	/**
+	 * @return How many reads returned a memoized value
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return How many reads were forwarded to the delegate
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		synchronized (this) {
+			memos.clear();
+			memoBytes = 0;
+		}
+	}
+
+	@Override
+	public void clear(@NotNull String... sessions) {
+		for (String session : sessions) {
+			clear(session, "");
+		}
+	}
+
+	@Override
+	public void clear(@Nullable String session, @NotNull String keyPrefix) {
+		super.clear(session, keyPrefix);
+		forgetPrefix(buildMemoKey(session, keyPrefix));
+	}
+
+	@Override
+	public void delete(@Nullable String session, @NotNull String key) {
+		super.delete(session, key);
+		forget(buildMemoKey(session, key));
+	}
+
+	@Override
+	public <T> void put(@Nullable String session, @NotNull String key, @Nullable CacheWrapper<T> value) {
+		super.put(session, key, value);
+		forget(buildMemoKey(session, key));
+	}
+
+	@Override
+	public boolean touch(@Nullable String session, @NotNull String key, long cachedDate) {
+		boolean touched = super.touch(session, key, cachedDate);
+		forget(buildMemoKey(session, key));
+		return touched;
+	}
+
+	@Nullable
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> CacheWrapper<T> get(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz) {
+		String memoKey = buildMemoKey(session, key);
+
+		// The version must be read before the value, so a concurrent write can't be memoized with a previous version
+		long version = delegate.getVersion(session, key);
+		if (version != NO_VERSION) {
+			synchronized (this) {
+				Memo memo = memos.get(memoKey);
+				if (memo != null && memo.version == version) {
+					hits.incrementAndGet();
+					return (CacheWrapper<T>) memo.value;
+				}
+			}
+		}
+
+		misses.incrementAndGet();
+		CacheWrapper<T> value = super.get(session, key, clazz);
+		if (value != null && version != NO_VERSION) {
+			remember(memoKey, version, value);
+		}
+		return value;
+	}
+
+	protected void remember(@NotNull String memoKey, long version, @NotNull CacheWrapper<?> value) {
+		long size = entrySizer.sizeOf(value);
+		if (size > maxBytes) {
+			return;
+		}
+
+		synchronized (this) {
+			Memo previous = memos.put(memoKey, new Memo(version, value, size));
+			memoBytes += previous != null ? size - previous.size : size;
+
+			Iterator<Memo> iterator = memos.values().iterator();
+			while (memoBytes > maxBytes && iterator.hasNext()) {
+				memoBytes -= iterator.next().size;
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Drop the memoized value of the given key
+	 */
+	protected synchronized void forget(@NotNull String memoKey) {
+		Memo memo = memos.remove(memoKey);
+		if (memo != null) {
+			memoBytes -= memo.size;
+		}
+	}
+
+	/**
+	 * Drop memoized values which keys start with the given prefix
+	 */
+	protected synchronized void forgetPrefix(@NotNull String memoKeyPrefix) {
+		Iterator<Map.Entry<String, Memo>> iterator = memos.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<String, Memo> entry = iterator.next();
+			if (entry.getKey().startsWith(memoKeyPrefix)) {
+				memoBytes -= entry.getValue().size;
+				iterator.remove();
+			}
+		}
+	}
+
+	protected String buildMemoKey(@Nullable String session, @NotNull String key) {
+		return StorageKeys.resolve(session, key);
+	}
+
+	private static class Memo {
+		private final long version;
+		private final CacheWrapper<?> value;
+		private final long size;
+
+		private Memo(long version, @NotNull CacheWrapper<?> value, long size) {
+			this.version = version;
+			this.value = value;
+			this.size = size;
+		}
+	}
+
+}
@@ -0,0 +1,81 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import fr.beapp.cache.CacheWrapper;
+import fr.beapp.cache.event.CacheEvent;
+import fr.beapp.cache.event.CacheEventDispatcher;
+
+/**
+ * A {@link Storage} reporting writes, deletions and clears of another {@link Storage} to a {@link CacheEventDispatcher}.
+ * <br/>
+ * Cleared counts are only computed while a listener is registered. Written sizes are only estimated if an {@link EntrySizer} is set,
+ * as it may cost as much as the write itself, and reported as <code>-1</code> otherwise.
+ */
+public class ObservedStorage extends DelegatingStorage {
+
+	protected final CacheEventDispatcher eventDispatcher;
+
+	protected EntrySizer entrySizer = null;
+
+	public ObservedStorage(@NotNull Storage delegate, @NotNull CacheEventDispatcher eventDispatcher) {
+		super(delegate);
+		this.eventDispatcher = eventDispatcher;
+	}
+
+	/**
+	 * Set the way sizes of written data are estimated, for instance {@link SerializedEntrySizer}. Sizes aren't estimated by default
+	 */
+	public ObservedStorage withEntrySizer(@Nullable EntrySizer entrySizer) {
+		this.entrySizer = entrySizer;
+		return this;
+	}
+
+	public CacheEventDispatcher getEventDispatcher() {
+		return eventDispatcher;
+	}
+
+	@Override
+	public void clear() {
+		int count = eventDispatcher.isEnabled() ? delegate.count() : -1;
+		super.clear();
+		if (eventDispatcher.isEnabled()) {
+			eventDispatcher.dispatch(CacheEvent.clear(null, null, count));
+		}
+	}
+
+	@Override
+	public void clear(@NotNull String... sessions) {
+		for (String session : sessions) {
+			clear(session, "");
+		}
+	}
+
+	@Override
+	public void clear(@Nullable String session, @NotNull String keyPrefix) {
+		int count = eventDispatcher.isEnabled() ? delegate.count(session, keyPrefix) : -1;
+		super.clear(session, keyPrefix);
+		if (eventDispatcher.isEnabled()) {
+			eventDispatcher.dispatch(CacheEvent.clear(session, keyPrefix, count));
+		}
+	}
+
+	@Override
+	public void delete(@Nullable String session, @NotNull String key) {
+		super.delete(session, key);
+		if (eventDispatcher.isEnabled()) {
+			eventDispatcher.dispatch(CacheEvent.delete(session, key));
+		}
+	}
+
+	@Override
+	public <T> void put(@Nullable String session, @NotNull String key, @Nullable CacheWrapper<T> value) {
+		super.put(session, key, value);
+		if (eventDispatcher.isEnabled()) {
+			long size = entrySizer == null ? -1 : (value != null ? entrySizer.sizeOf(value) : 0);
+			eventDispatcher.dispatch(CacheEvent.put(session, key, size));
+		}
+	}
+
+}
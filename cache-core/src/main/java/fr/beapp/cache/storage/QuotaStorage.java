@@ -0,0 +1,420 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.beapp.cache.CacheWrapper;
+import fr.beapp.cache.event.CacheEvent;
+import fr.beapp.cache.event.CacheEventDispatcher;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * A {@link Storage} bounding the size of another, typically persistent, {@link Storage}.
+ * <br/>
+ * The approximate size and the access order of each entry are tracked in memory. When the byte or entry quota is exceeded,
+ * the least recently used entries are evicted in the background until the storage fits in its quota again.
+ * <br/>
+ * Sizes are also recorded in the reserved {@link #SIZES_SESSION}, so entries written by a previous run are tracked again on {@link #open()},
+ * as the least recently used ones. Entries written before any quota was applied are only known once read, or once their session was
+ * scanned on {@link #open()} (see {@link #withSessions(String...)}).
+ * <br/>
+ * Reserved sessions (see {@link Storage#RESERVED_SESSION_PREFIX}) hold the records of other decorators, and are never tracked nor evicted.
+ */
+public class QuotaStorage extends DelegatingStorage {
+
+	/**
+	 * The reserved session in which the size of each tracked entry is recorded
+	 */
+	public static final String SIZES_SESSION = "cache.sizes";
+
+	protected final EntrySizer entrySizer;
+	protected final long maxBytes;
+	protected final int maxEntries;
+
+	protected Scheduler evictionScheduler = Schedulers.single();
+	protected String[] sessions = new String[0];
+	protected CacheEventDispatcher eventDispatcher = null;
+
+	private final ConcurrentMap<String, EntryStats> entries = new ConcurrentHashMap<>();
+	private final AtomicLong accessSequence = new AtomicLong();
+	private final AtomicLong trackedBytes = new AtomicLong();
+	private final AtomicBoolean evictionScheduled = new AtomicBoolean(false);
+	private final Object[] keyLocks = new Object[32];
+
+	private final AtomicLong evictionRuns = new AtomicLong();
+	private final AtomicLong evictedEntries = new AtomicLong();
+	private final AtomicLong evictedBytes = new AtomicLong();
+
+	/**
+	 * Bound the count of entries only, without estimating their size
+	 *
+	 * @param delegate   The storage to bound
+	 * @param maxEntries The maximum count of entries
+	 */
+	public QuotaStorage(@NotNull Storage delegate, int maxEntries) {
+		this(delegate, null, Long.MAX_VALUE, maxEntries);
+	}
+
+	/**
+	 * @param delegate   The storage to bound
+	 * @param entrySizer The way entry sizes are estimated, matching the serialization of the delegate. See {@link SerializedEntrySizer}
+	 *                   for values which are {@link java.io.Serializable}
+	 * @param maxBytes   The maximum approximate size of all entries, in bytes. Use {@link Long#MAX_VALUE} for no limit
+	 * @param maxEntries The maximum count of entries. Use {@link Integer#MAX_VALUE} for no limit
+	 */
+	public QuotaStorage(@NotNull Storage delegate, @Nullable EntrySizer entrySizer, long maxBytes, int maxEntries) {
+		super(delegate);
+		this.entrySizer = entrySizer;
+		this.maxBytes = maxBytes;
+		this.maxEntries = maxEntries;
+		for (int i = 0; i < keyLocks.length; i++) {
+			keyLocks[i] = new Object();
+		}
+	}
+
+	/**
+	 * Set the scheduler on which evictions are done. Defaults to {@link Schedulers#single()}
+	 */
+	public QuotaStorage withEvictionScheduler(@NotNull Scheduler evictionScheduler) {
+		this.evictionScheduler = evictionScheduler;
+		return this;
+	}
+
+	/**
+	 * Set the sessions to scan on {@link #open()}, so entries written before any quota was applied are sized and tracked.
+	 * Use <code>""</code> for the global session
+	 */
+	public QuotaStorage withSessions(@NotNull String... sessions) {
+		this.sessions = sessions;
+		return this;
+	}
+
+	/**
+	 * Report evictions to the given dispatcher
+	 */
+	public QuotaStorage withEventDispatcher(@Nullable CacheEventDispatcher eventDispatcher) {
+		this.eventDispatcher = eventDispatcher;
+		return this;
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * @return The approximate size of tracked entries, in bytes
+	 */
+	public long getTrackedBytes() {
+		return trackedBytes.get();
+	}
+
+	/**
+	 * @return The count of tracked entries
+	 */
+	public int getTrackedEntries() {
+		return entries.size();
+	}
+
+	/**
+	 * @return How many times eviction was run because the quota was exceeded
+	 */
+	public long getEvictionRuns() {
+		return evictionRuns.get();
+	}
+
+	/**
+	 * @return How many entries were evicted
+	 */
+	public long getEvictedEntries() {
+		return evictedEntries.get();
+	}
+
+	/**
+	 * @return The approximate size of evicted entries, in bytes
+	 */
+	public long getEvictedBytes() {
+		return evictedBytes.get();
+	}
+
+	@Override
+	public void open() {
+		super.open();
+		for (String trackingKey : delegate.keys(SIZES_SESSION, "")) {
+			String session = StorageKeys.sessionOf(trackingKey);
+			String key = StorageKeys.keyOf(trackingKey);
+			synchronized (lockFor(trackingKey)) {
+				CacheWrapper<Long> size = delegate.get(SIZES_SESSION, trackingKey, Long.class);
+				if (size == null || size.getData() == null || !delegate.exists(session, key)) {
+					delegate.delete(SIZES_SESSION, trackingKey);
+				} else if (!entries.containsKey(trackingKey)) {
+					track(trackingKey, session, key, size.getData(), 0);
+				}
+			}
+		}
+		for (String session : sessions) {
+			if (isReserved(session)) {
+				continue;
+			}
+			for (String key : delegate.keys(session, "")) {
+				String trackingKey = buildTrackingKey(session, key);
+				synchronized (lockFor(trackingKey)) {
+					if (!entries.containsKey(trackingKey)) {
+						CacheWrapper<Object> value = entrySizer != null ? delegate.get(session, key, Object.class) : null;
+						trackAndRecord(trackingKey, session, key, value != null ? entrySizer.sizeOf(value) : 0, 0);
+					}
+				}
+			}
+		}
+		checkQuota();
+	}
+
+	@Override
+	public int count() {
+		return delegate.count() - delegate.count(SIZES_SESSION, "");
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		entries.clear();
+		trackedBytes.set(0);
+	}
+
+	@Override
+	public void clear(@NotNull String... sessions) {
+		super.clear(sessions);
+		for (String session : sessions) {
+			forget(buildTrackingKey(session, ""));
+		}
+	}
+
+	@Override
+	public void clear(@Nullable String session, @NotNull String keyPrefix) {
+		super.clear(session, keyPrefix);
+		forget(buildTrackingKey(session, keyPrefix));
+	}
+
+	@Override
+	public void delete(@Nullable String session, @NotNull String key) {
+		if (isReserved(session)) {
+			super.delete(session, key);
+			return;
+		}
+
+		String trackingKey = buildTrackingKey(session, key);
+		synchronized (lockFor(trackingKey)) {
+			super.delete(session, key);
+			if (untrack(trackingKey) != null) {
+				delegate.delete(SIZES_SESSION, trackingKey);
+			}
+		}
+	}
+
+	@Override
+	public <T> void put(@Nullable String session, @NotNull String key, @Nullable CacheWrapper<T> value) {
+		if (isReserved(session)) {
+			super.put(session, key, value);
+			return;
+		}
+
+		long size = value != null && entrySizer != null ? entrySizer.sizeOf(value) : 0;
+		String trackingKey = buildTrackingKey(session, key);
+		synchronized (lockFor(trackingKey)) {
+			super.put(session, key, value);
+			trackAndRecord(trackingKey, session, key, size, accessSequence.incrementAndGet());
+		}
+		checkQuota();
+	}
+
+	@Nullable
+	@Override
+	public <T> CacheWrapper<T> get(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz) {
+		CacheWrapper<T> value = super.get(session, key, clazz);
+		if (value == null || isReserved(session)) {
+			return value;
+		}
+
+		String trackingKey = buildTrackingKey(session, key);
+		EntryStats stats = entries.get(trackingKey);
+		if (stats != null) {
+			stats.lastAccess = accessSequence.incrementAndGet();
+			return value;
+		}
+
+		// Written before any quota was applied. Tracked under the key lock, so an entry deleted or replaced meanwhile isn't tracked again
+		long size = entrySizer != null ? entrySizer.sizeOf(value) : 0;
+		synchronized (lockFor(trackingKey)) {
+			if (!entries.containsKey(trackingKey) && delegate.exists(session, key)) {
+				trackAndRecord(trackingKey, session, key, size, accessSequence.incrementAndGet());
+			}
+		}
+		checkQuota();
+		return value;
+	}
+
+	/**
+	 * Track an entry and record its size if it changed. Must be called under the key lock
+	 */
+	protected void trackAndRecord(@NotNull String trackingKey, @Nullable String session, @NotNull String key, long size, long lastAccess) {
+		EntryStats previous = track(trackingKey, session, key, size, lastAccess);
+		if (previous == null || previous.size != size) {
+			delegate.put(SIZES_SESSION, trackingKey, new CacheWrapper<>(size));
+		}
+	}
+
+	@Nullable
+	protected EntryStats track(@NotNull String trackingKey, @Nullable String session, @NotNull String key, long size, long lastAccess) {
+		EntryStats previous = entries.put(trackingKey, new EntryStats(session, key, size, lastAccess));
+		trackedBytes.addAndGet(previous != null ? size - previous.size : size);
+		return previous;
+	}
+
+	@Nullable
+	protected EntryStats untrack(@NotNull String trackingKey) {
+		EntryStats previous = entries.remove(trackingKey);
+		if (previous != null) {
+			trackedBytes.addAndGet(-previous.size);
+		}
+		return previous;
+	}
+
+	/**
+	 * Untrack entries starting with the given tracking key prefix, and remove their recorded size
+	 */
+	protected void forget(@NotNull String trackingKeyPrefix) {
+		for (String trackingKey : new ArrayList<>(entries.keySet())) {
+			if (trackingKey.startsWith(trackingKeyPrefix)) {
+				synchronized (lockFor(trackingKey)) {
+					if (untrack(trackingKey) != null) {
+						delegate.delete(SIZES_SESSION, trackingKey);
+					}
+				}
+			}
+		}
+	}
+
+	protected boolean isQuotaExceeded() {
+		return trackedBytes.get() > maxBytes || entries.size() > maxEntries;
+	}
+
+	/**
+	 * Schedule an eviction if quota is exceeded and no eviction is already pending
+	 */
+	protected void checkQuota() {
+		if (isQuotaExceeded() && evictionScheduled.compareAndSet(false, true)) {
+			evictionScheduler.scheduleDirect(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						evict();
+					} finally {
+						evictionScheduled.set(false);
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Remove the least recently used entries until the storage fits in its quota
+	 */
+	protected synchronized void evict() {
+		if (!isQuotaExceeded()) {
+			return;
+		}
+		evictionRuns.incrementAndGet();
+
+		List<Candidate> candidates = new ArrayList<>(entries.size());
+		for (Map.Entry<String, EntryStats> entry : entries.entrySet()) {
+			candidates.add(new Candidate(entry.getKey(), entry.getValue()));
+		}
+		Collections.sort(candidates, new Comparator<Candidate>() {
+			@Override
+			public int compare(Candidate o1, Candidate o2) {
+				return o1.lastAccess < o2.lastAccess ? -1 : (o1.lastAccess == o2.lastAccess ? 0 : 1);
+			}
+		});
+
+		for (Candidate candidate : candidates) {
+			if (!isQuotaExceeded()) {
+				break;
+			}
+
+			EntryStats stats = candidate.stats;
+			boolean evicted;
+			// Under the key lock, so a concurrent put of the same key can't be deleted
+			synchronized (lockFor(candidate.trackingKey)) {
+				evicted = entries.remove(candidate.trackingKey, stats);
+				if (evicted) {
+					delegate.delete(stats.session, stats.key);
+					delegate.delete(SIZES_SESSION, candidate.trackingKey);
+				}
+			}
+			if (evicted) {
+				trackedBytes.addAndGet(-stats.size);
+				evictedEntries.incrementAndGet();
+				evictedBytes.addAndGet(stats.size);
+				if (eventDispatcher != null && eventDispatcher.isEnabled()) {
+					eventDispatcher.dispatch(CacheEvent.eviction(stats.session, stats.key, stats.size, CacheEvent.EvictionCause.QUOTA));
+				}
+			}
+		}
+	}
+
+	protected boolean isReserved(@Nullable String session) {
+		return session != null && session.startsWith(RESERVED_SESSION_PREFIX);
+	}
+
+	private Object lockFor(@NotNull String trackingKey) {
+		return keyLocks[(trackingKey.hashCode() & 0x7fffffff) % keyLocks.length];
+	}
+
+	protected String buildTrackingKey(@Nullable String session, @NotNull String key) {
+		return StorageKeys.resolve(session, key);
+	}
+
+	protected static class EntryStats {
+		private final String session;
+		private final String key;
+		private final long size;
+		private volatile long lastAccess;
+
+		private EntryStats(@Nullable String session, @NotNull String key, long size, long lastAccess) {
+			this.session = session;
+			this.key = key;
+			this.size = size;
+			this.lastAccess = lastAccess;
+		}
+	}
+
+	/**
+	 * An eviction candidate, with its access order frozen while sorting
+	 */
+	private static class Candidate {
+		private final String trackingKey;
+		private final EntryStats stats;
+		private final long lastAccess;
+
+		private Candidate(@NotNull String trackingKey, @NotNull EntryStats stats) {
+			this.trackingKey = trackingKey;
+			this.stats = stats;
+			this.lastAccess = stats.lastAccess;
+		}
+	}
+
+}
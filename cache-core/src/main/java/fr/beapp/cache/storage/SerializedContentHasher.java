@@ -0,0 +1,59 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+import fr.beapp.cache.CacheWrapper;
+
+/**
+ * A {@link ContentHasher} using a 64 bits FNV-1a hash of the Java serialized form of the data, computed while serializing.
+ * <br/>
+ * Data which can't be serialized fall back to their {@link Object#hashCode()}.
+ */
+public class SerializedContentHasher implements ContentHasher {
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	@Override
+	public long hash(@Nullable Object data) {
+		if (data == null) {
+			return 1;
+		}
+
+		HashingOutputStream hashingOutputStream = new HashingOutputStream();
+		long hash;
+		try {
+			ObjectOutputStream objectOutputStream = new ObjectOutputStream(hashingOutputStream);
+			objectOutputStream.writeObject(data);
+			objectOutputStream.close();
+			hash = hashingOutputStream.hash;
+		} catch (IOException e) {
+			hash = data.hashCode();
+		}
+		return hash != CacheWrapper.NO_CONTENT_HASH ? hash : 1;
+	}
+
+	private static class HashingOutputStream extends OutputStream {
+		private long hash = FNV_OFFSET_BASIS;
+
+		@Override
+		public void write(int b) {
+			hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+		}
+
+		@Override
+		public void write(@NotNull byte[] b, int off, int len) {
+			long hash = this.hash;
+			for (int i = off; i < off + len; i++) {
+				hash = (hash ^ (b[i] & 0xff)) * FNV_PRIME;
+			}
+			this.hash = hash;
+		}
+	}
+
+}
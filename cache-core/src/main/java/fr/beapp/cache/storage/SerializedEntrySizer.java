@@ -0,0 +1,48 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+import fr.beapp.cache.CacheWrapper;
+
+/**
+ * An {@link EntrySizer} using the Java serialized form of the entry as an approximation of its stored size.
+ * <br/>
+ * This costs a serialization of each sized entry, and only fits data which is {@link java.io.Serializable}: entries which can't be
+ * serialized, for instance those stored by a Kryo based storage, are considered to weigh {@link #DEFAULT_ENTRY_SIZE} bytes.
+ */
+public class SerializedEntrySizer implements EntrySizer {
+
+	public static final long DEFAULT_ENTRY_SIZE = 1024;
+
+	@Override
+	public long sizeOf(@NotNull CacheWrapper<?> value) {
+		CountingOutputStream countingOutputStream = new CountingOutputStream();
+		try {
+			ObjectOutputStream objectOutputStream = new ObjectOutputStream(countingOutputStream);
+			objectOutputStream.writeObject(value);
+			objectOutputStream.close();
+			return countingOutputStream.count;
+		} catch (IOException e) {
+			return DEFAULT_ENTRY_SIZE;
+		}
+	}
+
+	private static class CountingOutputStream extends OutputStream {
+		private long count = 0;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(@NotNull byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+
+}
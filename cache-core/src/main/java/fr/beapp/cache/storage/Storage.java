@@ -3,13 +3,35 @@ package fr.beapp.cache.storage;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+
 import fr.beapp.cache.CacheWrapper;
 
 /**
  * A storage is the part of the system which will store and retrieve data from cache.
+ * <br/>
+ * Implementations should extend {@link AbstractStorage}, which gives a default to optional methods such as
+ * {@link #keys(String, String)}, {@link #touch(String, String, long)} or {@link #getVersion(String, String)}.
  */
 public interface Storage {
 
+	/**
+	 * The version of entries which are missing, or which versions are not tracked
+	 */
+	long NO_VERSION = 0;
+
+	/**
+	 * The prefix of sessions in which storage decorators keep their own records, such as {@link GenerationalStorage#GENERATIONS_SESSION}
+	 */
+	String RESERVED_SESSION_PREFIX = "cache.";
+
+	/**
+	 * Open storage, preparing any underlying resource (database, files, ...).
+	 * <br/>
+	 * Storages are lazily opened on first access otherwise. Calling this method on an already opened storage has no effect.
+	 */
+	void open();
+
 	/**
 	 * Close storage
 	 */
@@ -30,9 +52,19 @@ public interface Storage {
 	/**
 	 * Count cached values for the given session and key starting with the given prefix
 	 *
-	 * @param session The sessions to use
+	 * @param session The session to use, or <code>null</code> for the global session
 	 */
-	int count(@NotNull String session, @NotNull String keyPrefix);
+	int count(@Nullable String session, @NotNull String keyPrefix);
+
+	/**
+	 * List keys stored for the given session and starting with the given prefix
+	 *
+	 * @param session   The session to use
+	 * @param keyPrefix The key prefix to search
+	 * @return The matching keys, without any session prefix
+	 */
+	@NotNull
+	List<String> keys(@Nullable String session, @NotNull String keyPrefix);
 
 	/**
 	 * Clear all data from cache
@@ -71,6 +103,16 @@ public interface Storage {
 	 */
 	<T> void put(@Nullable String session, @NotNull String key, @Nullable CacheWrapper<T> value);
 
+	/**
+	 * Update the cached date of an existing data, without rewriting the data itself
+	 *
+	 * @param session    The session to use
+	 * @param key        The key of the data to update
+	 * @param cachedDate The new cached date
+	 * @return <code>true</code> if a data was stored with this key, <code>false</code> otherwise
+	 */
+	boolean touch(@Nullable String session, @NotNull String key, long cachedDate);
+
 	/**
 	 * Retrieve a data from cache based on the given session and key
 	 *
@@ -92,6 +134,17 @@ public interface Storage {
 	 */
 	@NotNull <T> CacheWrapper<T> get(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz, @NotNull T defaultValue);
 
+	/**
+	 * Retrieve the version of a data, changing each time it is written or touched.
+	 * <br/>
+	 * Versions are stored alongside data, so changes made by other instances sharing the same files are visible too.
+	 *
+	 * @param session The session to use
+	 * @param key     The key of the data
+	 * @return The current version, or {@link #NO_VERSION} if there is no data or no version is tracked for it
+	 */
+	long getVersion(@Nullable String session, @NotNull String key);
+
 	/**
 	 * Check if a data was stored with the given session and key
 	 *
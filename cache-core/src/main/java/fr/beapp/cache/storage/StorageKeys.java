@@ -0,0 +1,46 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Helpers to identify entries of any session by a single string
+ */
+public final class StorageKeys {
+
+	private StorageKeys() {
+	}
+
+	/**
+	 * Encode a session and a key into a single string, unique to this pair.
+	 * <br/>
+	 * The session length is part of the result, so a session containing the separator never collides with another session, and the
+	 * result for a key prefix is a prefix of the results for all keys starting with it. The global session is encoded as an empty session.
+	 */
+	@NotNull
+	public static String resolve(@Nullable String session, @NotNull String key) {
+		String sessionName = session != null ? session : "";
+		return sessionName.length() + ":" + sessionName + "_" + key;
+	}
+
+	/**
+	 * @return The session encoded by {@link #resolve(String, String)}, <code>null</code> for the global session
+	 */
+	@Nullable
+	public static String sessionOf(@NotNull String resolved) {
+		int separator = resolved.indexOf(':');
+		int length = Integer.parseInt(resolved.substring(0, separator));
+		return length > 0 ? resolved.substring(separator + 1, separator + 1 + length) : null;
+	}
+
+	/**
+	 * @return The key encoded by {@link #resolve(String, String)}
+	 */
+	@NotNull
+	public static String keyOf(@NotNull String resolved) {
+		int separator = resolved.indexOf(':');
+		int length = Integer.parseInt(resolved.substring(0, separator));
+		return resolved.substring(separator + 1 + length + 1);
+	}
+
+}
@@ -0,0 +1,44 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import fr.beapp.cache.CacheWrapper;
+
+/**
+ * Helpers to stream cached byte arrays from any {@link Storage}
+ */
+public final class StorageStreams {
+
+	private StorageStreams() {
+	}
+
+	/**
+	 * Open a stream on a cached byte array. Storages which aren't a {@link StreamingStorage} are read as usual, and the byte array wrapped.
+	 *
+	 * @see StreamingStorage#getStream(String, String)
+	 */
+	@Nullable
+	public static CacheWrapper<InputStream> getStream(@NotNull Storage storage, @Nullable String session, @NotNull String key) {
+		if (storage instanceof StreamingStorage) {
+			return ((StreamingStorage) storage).getStream(session, key);
+		}
+		return wrap(storage.get(session, key, Object.class));
+	}
+
+	/**
+	 * @return A stream on the given value if it holds a byte array, <code>null</code> otherwise
+	 */
+	@Nullable
+	static CacheWrapper<InputStream> wrap(@Nullable CacheWrapper<?> value) {
+		if (value == null || !(value.getData() instanceof byte[])) {
+			return null;
+		}
+		InputStream stream = new ByteArrayInputStream((byte[]) value.getData());
+		return value.withData(stream);
+	}
+
+}
@@ -0,0 +1,27 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InputStream;
+
+import fr.beapp.cache.CacheWrapper;
+
+/**
+ * A {@link Storage} able to stream cached byte arrays, without loading them fully in memory.
+ * <br/>
+ * Use {@link StorageStreams#getStream(Storage, String, String)} to stream from any storage, falling back to a regular read.
+ */
+public interface StreamingStorage extends Storage {
+
+	/**
+	 * Open a stream on a cached byte array based on the given session and key. The caller must close the stream.
+	 *
+	 * @param session The session to use
+	 * @param key     The key to use to retrieve the data
+	 * @return The stream of the data, with its cache metadata, or <code>null</code> if there is no data or if it isn't a byte array
+	 */
+	@Nullable
+	CacheWrapper<InputStream> getStream(@Nullable String session, @NotNull String key);
+
+}
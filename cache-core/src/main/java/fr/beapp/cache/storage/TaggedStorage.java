@@ -0,0 +1,241 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.beapp.cache.CacheWrapper;
+
+/**
+ * A {@link Storage} indexing entries of another {@link Storage} by their tags (see {@link CacheWrapper#withTags(String...)}), so all
+ * entries of a tag can be invalidated without scanning keys.
+ * <br/>
+ * The index is stored in a reserved session of the delegate, with one entry per tag and key, and the tags of each key, so it's persisted
+ * along entries by disk backends. Invalidating a tag reads its entries only, and updating the tags of a key only touches its own tags.
+ * <br/>
+ * Entries removed below this storage, for instance evicted by a {@link QuotaStorage}, are pruned from the index when read as missing,
+ * or when their tag is invalidated.
+ */
+public class TaggedStorage extends DelegatingStorage {
+
+	/**
+	 * The session of the delegate holding the tag index
+	 */
+	public static final String TAGS_SESSION = "cache.tags";
+
+	protected static final String TAG_KEY_PREFIX = "tag_";
+	protected static final String KEY_TAGS_KEY_PREFIX = "keyTags_";
+
+	private final AtomicLong invalidatedKeys = new AtomicLong();
+
+	public TaggedStorage(@NotNull Storage delegate) {
+		super(delegate);
+	}
+
+	/**
+	 * @return How many keys were removed by {@link #invalidateTags(String...)}
+	 */
+	public long getInvalidatedKeys() {
+		return invalidatedKeys.get();
+	}
+
+	@Override
+	public int count() {
+		return delegate.count() - delegate.count(TAGS_SESSION, "");
+	}
+
+	@Override
+	public int count(@NotNull String... sessions) {
+		int count = 0;
+		for (String session : sessions) {
+			count += count(session, "");
+		}
+		return count;
+	}
+
+	@Override
+	public void clear(@NotNull String... sessions) {
+		for (String session : sessions) {
+			clear(session, "");
+		}
+	}
+
+	@Override
+	public synchronized void clear(@Nullable String session, @NotNull String keyPrefix) {
+		for (String key : delegate.keys(session, keyPrefix)) {
+			unindex(session, key);
+		}
+		super.clear(session, keyPrefix);
+	}
+
+	@Override
+	public synchronized void delete(@Nullable String session, @NotNull String key) {
+		super.delete(session, key);
+		unindex(session, key);
+	}
+
+	@Nullable
+	@Override
+	public <T> CacheWrapper<T> get(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz) {
+		CacheWrapper<T> value = super.get(session, key, clazz);
+		if (value == null && !isReserved(session)) {
+			prune(session, key);
+		}
+		return value;
+	}
+
+	@Override
+	public synchronized <T> void put(@Nullable String session, @NotNull String key, @Nullable CacheWrapper<T> value) {
+		String resolvedKey = buildResolvedKey(session, key);
+		List<String> previousTags = readKeyTags(resolvedKey);
+		List<String> tags = value != null ? Arrays.asList(value.getTags()) : new ArrayList<String>();
+
+		for (String previousTag : previousTags) {
+			if (!tags.contains(previousTag)) {
+				delegate.delete(TAGS_SESSION, buildTagPrefix(previousTag) + resolvedKey);
+			}
+		}
+		for (String tag : tags) {
+			if (!previousTags.contains(tag)) {
+				delegate.put(TAGS_SESSION, buildTagPrefix(tag) + resolvedKey, new CacheWrapper<>(new String[]{session, key}));
+			}
+		}
+		if (tags.isEmpty()) {
+			if (!previousTags.isEmpty()) {
+				delegate.delete(TAGS_SESSION, KEY_TAGS_KEY_PREFIX + resolvedKey);
+			}
+		} else if (!tags.equals(previousTags)) {
+			delegate.put(TAGS_SESSION, KEY_TAGS_KEY_PREFIX + resolvedKey, new CacheWrapper<>(tags.toArray(new String[0])));
+		}
+
+		super.put(session, key, value);
+	}
+
+	/**
+	 * @return The entries tagged with the given tag
+	 */
+	@NotNull
+	public synchronized List<TaggedKey> getTaggedKeys(@NotNull String tag) {
+		List<TaggedKey> taggedKeys = new ArrayList<>();
+		for (String tagKey : delegate.keys(TAGS_SESSION, buildTagPrefix(tag))) {
+			CacheWrapper<String[]> entry = delegate.get(TAGS_SESSION, tagKey, String[].class);
+			if (entry != null && entry.getData() != null && entry.getData().length == 2) {
+				taggedKeys.add(new TaggedKey(entry.getData()[0], entry.getData()[1]));
+			}
+		}
+		return taggedKeys;
+	}
+
+	/**
+	 * Remove all entries tagged with any of the given tags
+	 *
+	 * @return The count of removed entries
+	 */
+	public int invalidateTags(@NotNull String... tags) {
+		return invalidateTags(this, tags).size();
+	}
+
+	/**
+	 * Remove all entries tagged with any of the given tags through the given storage, so decorators on top of this one forget them too
+	 *
+	 * @param storage The storage to remove entries through, this storage or one decorating it
+	 * @return The removed entries. Entries already removed below this storage are only pruned from the index
+	 */
+	@NotNull
+	public synchronized List<TaggedKey> invalidateTags(@NotNull Storage storage, @NotNull String... tags) {
+		List<TaggedKey> removedKeys = new ArrayList<>();
+		for (String tag : tags) {
+			for (TaggedKey taggedKey : getTaggedKeys(tag)) {
+				if (delegate.exists(taggedKey.session, taggedKey.key)) {
+					storage.delete(taggedKey.session, taggedKey.key);
+					removedKeys.add(taggedKey);
+				}
+				unindex(taggedKey.session, taggedKey.key);
+			}
+		}
+		invalidatedKeys.addAndGet(removedKeys.size());
+		return removedKeys;
+	}
+
+	/**
+	 * Remove the given key from the index if it was removed below this storage
+	 */
+	protected synchronized void prune(@Nullable String session, @NotNull String key) {
+		if (!delegate.exists(session, key)) {
+			unindex(session, key);
+		}
+	}
+
+	/**
+	 * Remove the given key from the index
+	 */
+	protected void unindex(@Nullable String session, @NotNull String key) {
+		String resolvedKey = buildResolvedKey(session, key);
+		List<String> tags = readKeyTags(resolvedKey);
+		if (tags.isEmpty()) {
+			return;
+		}
+
+		for (String tag : tags) {
+			delegate.delete(TAGS_SESSION, buildTagPrefix(tag) + resolvedKey);
+		}
+		delegate.delete(TAGS_SESSION, KEY_TAGS_KEY_PREFIX + resolvedKey);
+	}
+
+	@NotNull
+	protected List<String> readKeyTags(@NotNull String resolvedKey) {
+		CacheWrapper<String[]> tags = delegate.get(TAGS_SESSION, KEY_TAGS_KEY_PREFIX + resolvedKey, String[].class);
+		return tags != null && tags.getData() != null ? Arrays.asList(tags.getData()) : new ArrayList<String>();
+	}
+
+	protected boolean isReserved(@Nullable String session) {
+		return session != null && session.startsWith(RESERVED_SESSION_PREFIX);
+	}
+
+	protected String buildResolvedKey(@Nullable String session, @NotNull String key) {
+		return StorageKeys.resolve(session, key);
+	}
+
+	/**
+	 * The tag length is part of the prefix, so the prefix of a tag never matches entries of a longer tag
+	 */
+	protected String buildTagPrefix(@NotNull String tag) {
+		return TAG_KEY_PREFIX + tag.length() + ":" + tag + "_";
+	}
+
+	/**
+	 * A session and key indexed under a tag
+	 */
+	public static class TaggedKey {
+		private final String session;
+		private final String key;
+
+		private TaggedKey(@Nullable String session, @NotNull String key) {
+			this.session = session;
+			this.key = key;
+		}
+
+		@Override
+		public String toString() {
+			return "TaggedKey{" +
+					"session=" + session +
+					", key=" + key +
+					'}';
+		}
+
+		@Nullable
+		public String getSession() {
+			return session;
+		}
+
+		@NotNull
+		public String getKey() {
+			return key;
+		}
+	}
+
+}
@@ -0,0 +1,31 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Convert cached data to bytes and back, for storage decorators which handle data themselves rather than through their delegate
+ */
+public interface ValueSerializer {
+
+	/**
+	 * @return <code>true</code> if the given data can be serialized, checked before any byte is written
+	 */
+	boolean accepts(@Nullable Object data);
+
+	/**
+	 * Write the given data, which was accepted, to the given stream
+	 */
+	void serialize(@Nullable Object data, @NotNull OutputStream output) throws IOException;
+
+	/**
+	 * Read data written by {@link #serialize(Object, OutputStream)} from the given stream
+	 */
+	@Nullable
+	Object deserialize(@NotNull InputStream input) throws IOException, ClassNotFoundException;
+
+}
@@ -0,0 +1,174 @@
+package fr.beapp.cache.strategy;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.beapp.cache.CacheWrapper;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.functions.Predicate;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Emit async data if it arrives within the deadline, or cached data otherwise.
+ * <br/>
+ * When the deadline is exceeded, the async call keeps running so its result still updates the storage, and it can optionally be
+ * emitted as well once it arrives. If there is no usable cached data, async data is awaited anyway. If async fails before the
+ * deadline, cached data is emitted like {@link AsyncOrCacheStrategy}.
+ */
+public class AsyncWithDeadlineStrategy extends CacheStrategy {
+
+	public static final long DEFAULT_TTL_VALUE = 30;
+	public static final TimeUnit DEFAULT_TTL_TIME_UNIT = TimeUnit.MINUTES;
+
+	protected long deadlineValue;
+	protected TimeUnit deadlineTimeUnit;
+	protected boolean keepExpiredCache = true;
+	protected long ttlValue = DEFAULT_TTL_VALUE;
+	protected TimeUnit ttlTimeUnit = DEFAULT_TTL_TIME_UNIT;
+	protected boolean emitLateAsync = false;
+	protected Scheduler timerScheduler = Schedulers.computation();
+
+	private final AtomicLong deadlineExceededCount = new AtomicLong();
+	private final AtomicLong lateAsyncCount = new AtomicLong();
+
+	public AsyncWithDeadlineStrategy(long deadlineValue, TimeUnit deadlineTimeUnit) {
+		super("ASYNC_WITH_DEADLINE");
+		this.deadlineValue = deadlineValue;
+		this.deadlineTimeUnit = deadlineTimeUnit;
+	}
+
+	@Override
+	public String toString() {
+		return super.toString() + "{" +
+				"deadline=" + deadlineValue + " " + deadlineTimeUnit + ", " +
+				"keepExpiredCache=" + keepExpiredCache + ", " +
+				"ttl=" + ttlValue + " " + ttlTimeUnit + ", " +
+				"emitLateAsync=" + emitLateAsync +
+				"}";
+	}
+
+	@Override
+	public <T> Flowable<CacheWrapper<T>> getStrategyObservable(@NotNull final Maybe<CacheWrapper<T>> cacheObservable, @NotNull final Single<CacheWrapper<T>> asyncObservable) {
+		return Flowable.defer(new Callable<Flowable<CacheWrapper<T>>>() {
+			@Override
+			public Flowable<CacheWrapper<T>> call() throws Exception {
+				// Cached so the async call survives the timeout and runs only once
+				final Single<CacheWrapper<T>> detachedAsync = asyncObservable.cache();
+				final Maybe<CacheWrapper<T>> validCacheObservable = cacheObservable
+						.filter(new Predicate<CacheWrapper<T>>() {
+							@Override
+							public boolean test(@io.reactivex.annotations.NonNull CacheWrapper<T> cacheWrapper) throws Exception {
+								return isValid(cacheWrapper.getCachedDate());
+							}
+						});
+
+				Flowable<CacheWrapper<T>> fallbackObservable = Flowable.defer(new Callable<Flowable<CacheWrapper<T>>>() {
+					@Override
+					public Flowable<CacheWrapper<T>> call() throws Exception {
+						deadlineExceededCount.incrementAndGet();
+						return validCacheObservable
+								.map(new Function<CacheWrapper<T>, Flowable<CacheWrapper<T>>>() {
+									@Override
+									public Flowable<CacheWrapper<T>> apply(@io.reactivex.annotations.NonNull CacheWrapper<T> cacheWrapper) throws Exception {
+										// The cached async call is not disposed with the timed out subscription, it still completes in the background
+										if (!emitLateAsync) {
+											return Flowable.just(cacheWrapper);
+										}
+										return Flowable.just(cacheWrapper).concatWith(buildLateAsyncObservable(detachedAsync));
+									}
+								})
+								.defaultIfEmpty(detachedAsync.toFlowable())
+								.flatMapPublisher(new Function<Flowable<CacheWrapper<T>>, Flowable<CacheWrapper<T>>>() {
+									@Override
+									public Flowable<CacheWrapper<T>> apply(@io.reactivex.annotations.NonNull Flowable<CacheWrapper<T>> flowable) throws Exception {
+										return flowable;
+									}
+								});
+					}
+				});
+
+				return detachedAsync
+						.onErrorResumeNext(new Function<Throwable, Single<CacheWrapper<T>>>() {
+							@Override
+							public Single<CacheWrapper<T>> apply(@io.reactivex.annotations.NonNull Throwable throwable) throws Exception {
+								return cacheObservable
+										.switchIfEmpty(Maybe.<CacheWrapper<T>>error(throwable))
+										.toSingle();
+							}
+						})
+						.toFlowable()
+						.timeout(deadlineValue, deadlineTimeUnit, timerScheduler, fallbackObservable);
+			}
+		});
+	}
+
+	private <T> Flowable<CacheWrapper<T>> buildLateAsyncObservable(@NotNull Single<CacheWrapper<T>> detachedAsync) {
+		return detachedAsync
+				.toFlowable()
+				.doOnNext(new Consumer<CacheWrapper<T>>() {
+					@Override
+					public void accept(@io.reactivex.annotations.NonNull CacheWrapper<T> cacheWrapper) throws Exception {
+						lateAsyncCount.incrementAndGet();
+					}
+				})
+				// Cached data was already emitted, so a late failure is not worth failing the stream
+				.onErrorResumeNext(Flowable.<CacheWrapper<T>>empty());
+	}
+
+	/**
+	 * Configure whether expired cached data can be emitted when the deadline is exceeded. Defaults to <code>true</code>
+	 */
+	public AsyncWithDeadlineStrategy keepExpiredCache(boolean keepExpiredCache) {
+		this.keepExpiredCache = keepExpiredCache;
+		return this;
+	}
+
+	public AsyncWithDeadlineStrategy ttlValue(long ttlValue, TimeUnit ttlTimeUnit) {
+		this.ttlValue = ttlValue;
+		this.ttlTimeUnit = ttlTimeUnit;
+		return this;
+	}
+
+	/**
+	 * Configure whether async data arriving after the deadline is emitted after cached data. Defaults to <code>false</code>
+	 */
+	public AsyncWithDeadlineStrategy emitLateAsync(boolean emitLateAsync) {
+		this.emitLateAsync = emitLateAsync;
+		return this;
+	}
+
+	/**
+	 * Set the scheduler measuring the deadline. Defaults to {@link Schedulers#computation()}
+	 */
+	public AsyncWithDeadlineStrategy timerScheduler(@NotNull Scheduler timerScheduler) {
+		this.timerScheduler = timerScheduler;
+		return this;
+	}
+
+	/**
+	 * @return How many times the deadline was exceeded
+	 */
+	public long getDeadlineExceededCount() {
+		return deadlineExceededCount.get();
+	}
+
+	/**
+	 * @return How many times async data was emitted after cached data because it arrived after the deadline
+	 */
+	public long getLateAsyncCount() {
+		return lateAsyncCount.get();
+	}
+
+	private boolean isValid(long cacheDate) {
+		return keepExpiredCache || System.currentTimeMillis() < cacheDate + TimeUnit.MILLISECONDS.convert(ttlValue, ttlTimeUnit);
+	}
+
+}
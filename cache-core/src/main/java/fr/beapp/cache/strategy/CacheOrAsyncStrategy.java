@@ -47,7 +47,7 @@ public class CacheOrAsyncStrategy extends CacheStrategy {
 				.filter(new Predicate<CacheWrapper<T>>() {
 					@Override
 					public boolean test(@io.reactivex.annotations.NonNull CacheWrapper<T> cacheWrapper) throws Exception {
-						return isValid(cacheWrapper.getCachedDate());
+						return isValid(cacheWrapper);
 					}
 				})
 				.switchIfEmpty(asyncObservable
@@ -73,8 +73,12 @@ public class CacheOrAsyncStrategy extends CacheStrategy {
 		return this;
 	}
 
-	private boolean isValid(long cacheDate) {
-		return keepExpiredCache || System.currentTimeMillis() < cacheDate + TimeUnit.MILLISECONDS.convert(ttlValue, ttlTimeUnit);
+	/**
+	 * Check the cached data against its learned TTL if any (see {@link fr.beapp.cache.AdaptiveTTL}), or the TTL of this strategy
+	 */
+	private boolean isValid(@NotNull CacheWrapper<?> cacheWrapper) {
+		long ttl = cacheWrapper.getTtl() != CacheWrapper.NO_TTL ? cacheWrapper.getTtl() : TimeUnit.MILLISECONDS.convert(ttlValue, ttlTimeUnit);
+		return keepExpiredCache || System.currentTimeMillis() < cacheWrapper.getCachedDate() + ttl;
 	}
 
 }
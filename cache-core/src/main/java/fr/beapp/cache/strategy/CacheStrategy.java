@@ -28,6 +28,10 @@ public abstract class CacheStrategy {
 		return asyncOrCacheStrategy;
 	}
 
+	public static AsyncWithDeadlineStrategy asyncWithDeadline(long deadlineValue, TimeUnit deadlineTimeUnit) {
+		return new AsyncWithDeadlineStrategy(deadlineValue, deadlineTimeUnit);
+	}
+
 	public static CacheStrategy cacheOrAsync() {
 		return new CacheOrAsyncStrategy();
 	}
@@ -43,6 +47,10 @@ public abstract class CacheStrategy {
 		return cacheThenAsync;
 	}
 
+	public static CacheStrategy cacheThenAsyncIfStale(long freshnessValue, TimeUnit freshnessTimeUnit) {
+		return new CacheThenAsyncIfStaleStrategy(freshnessValue, freshnessTimeUnit);
+	}
+
 	public static CacheStrategy justCache() {
 		if (justAsync == null) {
 			justAsync = new JustCacheStrategy();
@@ -66,6 +74,13 @@ public abstract class CacheStrategy {
 		return name;
 	}
 
+	/**
+	 * @return <code>true</code> if concurrent resolutions of the same key must share a single async load
+	 */
+	public boolean isSingleFlight() {
+		return false;
+	}
+
 	/**
 	 * Convert the given {@link CacheStrategy} to an {@link Maybe} according to the rules to apply
 	 */
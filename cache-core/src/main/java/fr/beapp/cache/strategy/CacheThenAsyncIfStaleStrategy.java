@@ -0,0 +1,108 @@
+package fr.beapp.cache.strategy;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.beapp.cache.CacheWrapper;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Single;
+import io.reactivex.functions.Function;
+
+/**
+ * Emit cached data first, then async data only if cached data is older than the freshness threshold or missing.
+ * <br/>
+ * Async loads are shared between concurrent resolutions of the same key.
+ */
+public class CacheThenAsyncIfStaleStrategy extends CacheStrategy {
+
+	public static final long DEFAULT_FRESHNESS_VALUE = 5;
+	public static final TimeUnit DEFAULT_FRESHNESS_TIME_UNIT = TimeUnit.MINUTES;
+
+	protected long freshnessValue = DEFAULT_FRESHNESS_VALUE;
+	protected TimeUnit freshnessTimeUnit = DEFAULT_FRESHNESS_TIME_UNIT;
+
+	private final AtomicLong asyncCount = new AtomicLong();
+	private final AtomicLong skippedAsyncCount = new AtomicLong();
+
+	public CacheThenAsyncIfStaleStrategy() {
+		// Just use default values
+		super("CACHE_THEN_ASYNC_IF_STALE");
+	}
+
+	public CacheThenAsyncIfStaleStrategy(long freshnessValue, TimeUnit freshnessTimeUnit) {
+		this();
+		this.freshnessValue = freshnessValue;
+		this.freshnessTimeUnit = freshnessTimeUnit;
+	}
+
+	@Override
+	public String toString() {
+		return super.toString() + "{" +
+				"freshness=" + freshnessValue + " " + freshnessTimeUnit +
+				"}";
+	}
+
+	@Override
+	public boolean isSingleFlight() {
+		return true;
+	}
+
+	@Override
+	public <T> Flowable<CacheWrapper<T>> getStrategyObservable(@NotNull Maybe<CacheWrapper<T>> cacheObservable, @NotNull final Single<CacheWrapper<T>> asyncObservable) {
+		final Flowable<CacheWrapper<T>> countedAsyncObservable = Flowable.defer(new Callable<Flowable<CacheWrapper<T>>>() {
+			@Override
+			public Flowable<CacheWrapper<T>> call() throws Exception {
+				asyncCount.incrementAndGet();
+				return asyncObservable.toFlowable();
+			}
+		});
+
+		return cacheObservable
+				.map(new Function<CacheWrapper<T>, Flowable<CacheWrapper<T>>>() {
+					@Override
+					public Flowable<CacheWrapper<T>> apply(@io.reactivex.annotations.NonNull CacheWrapper<T> cacheWrapper) throws Exception {
+						if (isFresh(cacheWrapper.getCachedDate())) {
+							skippedAsyncCount.incrementAndGet();
+							return Flowable.just(cacheWrapper);
+						}
+						return Flowable.just(cacheWrapper).concatWith(countedAsyncObservable);
+					}
+				})
+				.defaultIfEmpty(countedAsyncObservable)
+				.flatMapPublisher(new Function<Flowable<CacheWrapper<T>>, Flowable<CacheWrapper<T>>>() {
+					@Override
+					public Flowable<CacheWrapper<T>> apply(@io.reactivex.annotations.NonNull Flowable<CacheWrapper<T>> flowable) throws Exception {
+						return flowable;
+					}
+				});
+	}
+
+	public CacheThenAsyncIfStaleStrategy freshness(long freshnessValue, TimeUnit freshnessTimeUnit) {
+		this.freshnessValue = freshnessValue;
+		this.freshnessTimeUnit = freshnessTimeUnit;
+		return this;
+	}
+
+	/**
+	 * @return How many times async was subscribed because cached data was stale or missing
+	 */
+	public long getAsyncCount() {
+		return asyncCount.get();
+	}
+
+	/**
+	 * @return How many times async was skipped because cached data was fresh
+	 */
+	public long getSkippedAsyncCount() {
+		return skippedAsyncCount.get();
+	}
+
+	private boolean isFresh(long cacheDate) {
+		return System.currentTimeMillis() < cacheDate + TimeUnit.MILLISECONDS.convert(freshnessValue, freshnessTimeUnit);
+	}
+
+}
@@ -0,0 +1,80 @@
+package fr.beapp.cache;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AccessLogTest {
+
+	@Test
+	public void testRecord_top() throws Exception {
+		AccessLog accessLog = new AccessLog(100, 1);
+		accessLog.record(null, "key1");
+		accessLog.record("session", "key2");
+		accessLog.record("session", "key2");
+		accessLog.record("", "key1");
+
+		List<AccessLog.Entry> top = accessLog.top(1);
+		assertEquals(1, top.size());
+		assertEquals("session", top.get(0).getSession());
+		assertEquals("key2", top.get(0).getKey());
+		assertEquals(2, top.get(0).getCount());
+
+		// null and empty sessions are the same global session
+		assertEquals(2, accessLog.size());
+		assertEquals(2, accessLog.top(10).get(1).getCount());
+	}
+
+	@Test
+	public void testRecord_sampled() throws Exception {
+		AccessLog accessLog = new AccessLog(100, 4);
+		for (int i = 0; i < 100; i++) {
+			accessLog.record(null, "key");
+		}
+
+		assertEquals(100, accessLog.getAccesses());
+		assertEquals(25, accessLog.getSampledAccesses());
+		assertEquals(25, accessLog.top(1).get(0).getCount());
+	}
+
+	@Test
+	public void testRecord_bounded() throws Exception {
+		AccessLog accessLog = new AccessLog(4, 1);
+		for (int i = 0; i < 4; i++) {
+			for (int j = 0; j <= i; j++) {
+				accessLog.record(null, "key" + i);
+			}
+		}
+		assertEquals(4, accessLog.size());
+
+		accessLog.record(null, "newKey");
+		assertEquals(3, accessLog.size());
+		List<AccessLog.Entry> top = accessLog.top(10);
+		assertEquals("key3", top.get(0).getKey());
+		assertEquals("key2", top.get(1).getKey());
+		assertEquals("newKey", top.get(2).getKey());
+	}
+
+	@Test
+	public void testManifest_merge() throws Exception {
+		AccessLog accessLog = new AccessLog(100, 1);
+		for (int i = 0; i < 10; i++) {
+			accessLog.record(null, "key1");
+		}
+		accessLog.record("session", "key2");
+
+		AccessLog.Manifest manifest = accessLog.toManifest();
+		assertEquals("key1", manifest.getKeys()[0]);
+		assertNull(manifest.getSessions()[0]);
+
+		AccessLog nextLog = new AccessLog(100, 1);
+		nextLog.merge(manifest);
+		// Counts are halved on each run, so a key read once is forgotten
+		assertEquals(1, nextLog.size());
+		assertEquals(5, nextLog.top(1).get(0).getCount());
+	}
+
+}
@@ -0,0 +1,53 @@
+package fr.beapp.cache;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class AdaptiveTTLTest {
+
+	private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+	@Test
+	public void testWrap_firstLoad() throws Exception {
+		AdaptiveTTL adaptiveTTL = new AdaptiveTTL(1, 60, TimeUnit.MINUTES);
+
+		CacheWrapper<String> value = adaptiveTTL.wrap(null, "value", 10 * MINUTE);
+		assertEquals("value", value.getData());
+		assertEquals(10 * MINUTE, value.getTtl());
+		assertNotEquals(CacheWrapper.NO_CONTENT_HASH, value.getContentHash());
+
+		// Data cached without hash, before adaptive TTL was enabled
+		assertEquals(10 * MINUTE, adaptiveTTL.wrap(new CacheWrapper<>("value"), "value", 10 * MINUTE).getTtl());
+	}
+
+	@Test
+	public void testWrap_unchanged() throws Exception {
+		AdaptiveTTL adaptiveTTL = new AdaptiveTTL(1, 60, TimeUnit.MINUTES);
+
+		CacheWrapper<String> value = adaptiveTTL.wrap(null, "value", 10 * MINUTE);
+		value = adaptiveTTL.wrap(value, "value", 10 * MINUTE);
+		assertEquals(20 * MINUTE, value.getTtl());
+		value = adaptiveTTL.wrap(value, "value", 10 * MINUTE);
+		value = adaptiveTTL.wrap(value, "value", 10 * MINUTE);
+		assertEquals(60 * MINUTE, value.getTtl());
+		assertEquals(3, adaptiveTTL.getUnchanged());
+		assertEquals(0, adaptiveTTL.getChanges());
+	}
+
+	@Test
+	public void testWrap_changed() throws Exception {
+		AdaptiveTTL adaptiveTTL = new AdaptiveTTL(1, 60, TimeUnit.MINUTES).withGrowthFactor(4);
+
+		CacheWrapper<String> value = adaptiveTTL.wrap(null, "value1", 10 * MINUTE);
+		value = adaptiveTTL.wrap(value, "value2", 10 * MINUTE);
+		assertEquals(10 * MINUTE / 4, value.getTtl());
+		value = adaptiveTTL.wrap(value, "value3", 10 * MINUTE);
+		assertEquals(MINUTE, value.getTtl());
+		assertEquals(2, adaptiveTTL.getChanges());
+	}
+
+}
@@ -0,0 +1,161 @@
+package fr.beapp.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+import io.reactivex.Single;
+import io.reactivex.functions.Consumer;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.SingleSubject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BulkheadTest {
+
+	@Test
+	public void testMatches() throws Exception {
+		assertTrue(new Bulkhead("image_meta_", 1).matches("image_meta_42"));
+		assertFalse(new Bulkhead("image_meta_", 1).matches("image_42"));
+		assertTrue(new Bulkhead(Pattern.compile("image_\\d+"), 1).matches("image_42"));
+		assertFalse(new Bulkhead(Pattern.compile("image_\\d+"), 1).matches("image_meta_42"));
+	}
+
+	@Test
+	public void testLimit_failFast() throws Exception {
+		Bulkhead bulkhead = new Bulkhead("image_", 2)
+				.withMaxQueuedLoads(1)
+				.withStartScheduler(Schedulers.trampoline());
+		SingleSubject<String> first = SingleSubject.create();
+		SingleSubject<String> second = SingleSubject.create();
+		SingleSubject<String> third = SingleSubject.create();
+		SingleSubject<String> fourth = SingleSubject.create();
+
+		bulkhead.limit(first).test();
+		bulkhead.limit(second).test();
+		TestObserver<String> thirdObserver = bulkhead.limit(third).test();
+		TestObserver<String> fourthObserver = bulkhead.limit(fourth).test();
+
+		assertTrue(first.hasObservers());
+		assertTrue(second.hasObservers());
+		assertFalse(third.hasObservers());
+		assertEquals(2, bulkhead.getRunningLoads());
+		assertEquals(1, bulkhead.getQueueDepth());
+		fourthObserver.assertError(BulkheadFullException.class);
+		assertFalse(fourth.hasObservers());
+
+		first.onSuccess("first");
+		assertTrue(third.hasObservers());
+		third.onSuccess("third");
+		thirdObserver.assertResult("third");
+
+		assertEquals(1, bulkhead.getRunningLoads());
+		assertEquals(0, bulkhead.getQueueDepth());
+		assertEquals(3, bulkhead.getStartedLoads());
+		assertEquals(1, bulkhead.getQueuedLoads());
+		assertEquals(1, bulkhead.getRejectedLoads());
+		assertEquals(1, bulkhead.getMaxQueueDepth());
+	}
+
+	@Test
+	public void testLimit_dropOldest() throws Exception {
+		Bulkhead bulkhead = new Bulkhead("image_", 1)
+				.withMaxQueuedLoads(1)
+				.withOverflowPolicy(Bulkhead.OverflowPolicy.DROP_OLDEST)
+				.withStartScheduler(Schedulers.trampoline());
+		SingleSubject<String> running = SingleSubject.create();
+		SingleSubject<String> oldest = SingleSubject.create();
+		SingleSubject<String> newest = SingleSubject.create();
+
+		bulkhead.limit(running).test();
+		TestObserver<String> oldestObserver = bulkhead.limit(oldest).test();
+		TestObserver<String> newestObserver = bulkhead.limit(newest).test();
+		oldestObserver.assertError(BulkheadFullException.class);
+		newestObserver.assertNoErrors();
+
+		running.onSuccess("running");
+		assertFalse(oldest.hasObservers());
+		assertTrue(newest.hasObservers());
+	}
+
+	@Test
+	public void testLimit_dispose() throws Exception {
+		Bulkhead bulkhead = new Bulkhead("image_", 1).withStartScheduler(Schedulers.trampoline());
+		SingleSubject<String> running = SingleSubject.create();
+		SingleSubject<String> queued = SingleSubject.create();
+		SingleSubject<String> next = SingleSubject.create();
+
+		TestObserver<String> runningObserver = bulkhead.limit(running).test();
+		TestObserver<String> queuedObserver = bulkhead.limit(queued).test();
+		bulkhead.limit(next).test();
+		assertEquals(2, bulkhead.getQueueDepth());
+
+		queuedObserver.dispose();
+		assertEquals(1, bulkhead.getQueueDepth());
+
+		runningObserver.dispose();
+		assertFalse(running.hasObservers());
+		assertFalse(queued.hasObservers());
+		assertTrue(next.hasObservers());
+		assertEquals(1, bulkhead.getRunningLoads());
+	}
+
+	@Test
+	public void testLimit_error() throws Exception {
+		Bulkhead bulkhead = new Bulkhead("image_", 1).withStartScheduler(Schedulers.trampoline());
+		SingleSubject<String> failing = SingleSubject.create();
+		SingleSubject<String> next = SingleSubject.create();
+
+		TestObserver<String> failingObserver = bulkhead.limit(failing).test();
+		bulkhead.limit(next).test();
+		failing.onError(new IllegalStateException());
+
+		failingObserver.assertError(IllegalStateException.class);
+		assertTrue(next.hasObservers());
+	}
+
+	@Test
+	public void testLimit_queuedLoadStartsOnScheduler() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(@NotNull Runnable runnable) {
+				return new Thread(runnable, "test-start");
+			}
+		});
+		try {
+			Bulkhead bulkhead = new Bulkhead("image_", 1).withStartScheduler(Schedulers.from(executor));
+			SingleSubject<String> running = SingleSubject.create();
+			final AtomicReference<String> startThread = new AtomicReference<>();
+			final CountDownLatch started = new CountDownLatch(1);
+			Single<String> queued = Single.just("queued").doOnSubscribe(new Consumer<Object>() {
+				@Override
+				public void accept(Object disposable) throws Exception {
+					startThread.set(Thread.currentThread().getName());
+					started.countDown();
+				}
+			});
+
+			bulkhead.limit(running).test();
+			TestObserver<String> queuedObserver = bulkhead.limit(queued).test();
+			running.onSuccess("running");
+
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			assertEquals("test-start", startThread.get());
+			queuedObserver.awaitTerminalEvent(5, TimeUnit.SECONDS);
+			queuedObserver.assertResult("queued");
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
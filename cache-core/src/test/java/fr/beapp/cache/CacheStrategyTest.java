@@ -30,6 +30,16 @@ public class CacheStrategyTest {
 		Assert.assertEquals("CACHE_THEN_ASYNC", CacheStrategy.cacheThenAsync().toString());
 	}
 
+	@Test
+	public void testToString_cacheThenAsyncIfStale() throws Exception {
+		Assert.assertEquals("CACHE_THEN_ASYNC_IF_STALE{freshness=5 MINUTES}", CacheStrategy.cacheThenAsyncIfStale(5, TimeUnit.MINUTES).toString());
+	}
+
+	@Test
+	public void testToString_asyncWithDeadline() throws Exception {
+		Assert.assertEquals("ASYNC_WITH_DEADLINE{deadline=300 MILLISECONDS, keepExpiredCache=true, ttl=30 MINUTES, emitLateAsync=false}", CacheStrategy.asyncWithDeadline(300, TimeUnit.MILLISECONDS).toString());
+	}
+
 	@Test
 	public void testToString_justCache() throws Exception {
 		Assert.assertEquals("JUST_CACHE", CacheStrategy.justCache().toString());
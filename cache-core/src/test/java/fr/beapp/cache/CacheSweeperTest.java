@@ -0,0 +1,113 @@
+package fr.beapp.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import fr.beapp.cache.storage.DelegatingStorage;
+import fr.beapp.cache.storage.InMemoryStorage;
+import fr.beapp.cache.storage.MemoStorage;
+import fr.beapp.cache.storage.QuotaStorage;
+import fr.beapp.cache.storage.Storage;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CacheSweeperTest {
+
+	private static final long HOURS_2 = 2 * 3600 * 1000;
+
+	private final Storage storage = new InMemoryStorage(false);
+	private final RxCache rxCache = new RxCache(storage);
+
+	@Test
+	public void testSweep() throws Exception {
+		long now = System.currentTimeMillis();
+		storage.put(null, "fresh", new CacheWrapper<>(now, "value"));
+		storage.put(null, "expired", new CacheWrapper<>(now - HOURS_2, "value"));
+		storage.put(null, "empty", new CacheWrapper<>(now, null));
+		storage.put(null, "expiredEmpty", new CacheWrapper<>(now - HOURS_2, null));
+		storage.put("session1", "expired", new CacheWrapper<>(now - HOURS_2, "value"));
+		storage.put("session2", "expired", new CacheWrapper<>(now - HOURS_2, "value"));
+
+		CacheSweeper.Result result = new CacheSweeper(rxCache, 1, TimeUnit.HOURS)
+				.withSessions("", "session1")
+				.withScheduler(Schedulers.trampoline())
+				.sweep()
+				.blockingGet();
+
+		assertEquals(5, result.getScanned());
+		assertEquals(3, result.getRemoved());
+		assertEquals(0, result.getYields());
+		assertTrue(storage.exists(null, "fresh"));
+		assertTrue(storage.exists(null, "empty"));
+		assertFalse(storage.exists(null, "expiredEmpty"));
+		assertFalse(storage.exists(null, "expired"));
+		assertFalse(storage.exists("session1", "expired"));
+		assertTrue(storage.exists("session2", "expired"));
+	}
+
+	@Test
+	public void testSweep_yieldsToForeground() throws Exception {
+		storage.put(null, "expired", new CacheWrapper<>(System.currentTimeMillis() - HOURS_2, "value"));
+		Single<CacheSweeper.Result> sweep = new CacheSweeper(rxCache, 1, TimeUnit.HOURS)
+				.withQuietPeriod(200, TimeUnit.MILLISECONDS)
+				.withScheduler(Schedulers.trampoline())
+				.sweep();
+
+		rxCache.notifyForegroundAccess();
+		CacheSweeper.Result result = sweep.blockingGet();
+
+		assertTrue(result.getYields() > 0);
+		assertEquals(1, result.getRemoved());
+	}
+
+	@Test
+	public void testSweep_keepsEntriesWrittenMeanwhile() throws Exception {
+		final long now = System.currentTimeMillis();
+		storage.put(null, "rewritten", new CacheWrapper<>(now - HOURS_2, "value"));
+		Storage rewritingStorage = new DelegatingStorage(storage) {
+			@Nullable
+			@Override
+			public <T> CacheWrapper<T> get(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz) {
+				CacheWrapper<T> value = super.get(session, key, clazz);
+				// Written again right after being read as expired
+				delegate.put(session, key, new CacheWrapper<>(now, "newValue"));
+				return value;
+			}
+		};
+
+		CacheSweeper.Result result = new CacheSweeper(new RxCache(rewritingStorage), 1, TimeUnit.HOURS)
+				.withScheduler(Schedulers.trampoline())
+				.sweep()
+				.blockingGet();
+
+		assertEquals(0, result.getRemoved());
+		assertEquals("newValue", storage.get(null, "rewritten", String.class).getData());
+	}
+
+	@Test
+	public void testSweep_readsBelowMemoAndQuota() throws Exception {
+		long now = System.currentTimeMillis();
+		MemoStorage memoStorage = new MemoStorage(storage, Long.MAX_VALUE);
+		QuotaStorage quotaStorage = new QuotaStorage(memoStorage, Integer.MAX_VALUE);
+		quotaStorage.put(null, "fresh", new CacheWrapper<>(now, "value"));
+		quotaStorage.put(null, "expired", new CacheWrapper<>(now - HOURS_2, "value"));
+
+		CacheSweeper.Result result = new CacheSweeper(new RxCache(quotaStorage), 1, TimeUnit.HOURS)
+				.withScheduler(Schedulers.trampoline())
+				.sweep()
+				.blockingGet();
+
+		assertEquals(1, result.getRemoved());
+		assertEquals(0, memoStorage.getMisses());
+		assertEquals(1, quotaStorage.getTrackedEntries());
+		assertFalse(quotaStorage.exists(null, "expired"));
+	}
+
+}
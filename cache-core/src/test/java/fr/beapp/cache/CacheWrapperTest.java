@@ -0,0 +1,66 @@
+package fr.beapp.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CacheWrapperTest {
+
+	@Test
+	public void testAsFromCache() throws Exception {
+		CacheWrapper<String> cacheWrapper = new CacheWrapper<>(1000, "value", "etag", "lastModified");
+
+		CacheWrapper<String> view = cacheWrapper.asFromCache();
+		assertTrue(view.isFromCache());
+		assertFalse(cacheWrapper.isFromCache());
+		assertEquals(cacheWrapper, view);
+		assertEquals("etag", view.getEtag());
+		assertEquals("lastModified", view.getLastModified());
+
+		assertSame(view, cacheWrapper.asFromCache());
+		assertSame(view, view.asFromCache());
+	}
+
+	@Test
+	public void testWithCachedDate() throws Exception {
+		CacheWrapper<String> cacheWrapper = new CacheWrapper<>(1000, "value", "etag", "lastModified");
+
+		CacheWrapper<String> copy = cacheWrapper.withCachedDate(2000);
+		assertEquals(1000, cacheWrapper.getCachedDate());
+		assertEquals(new CacheWrapper<>(2000, "value"), copy);
+		assertEquals("etag", copy.getEtag());
+		assertFalse(copy.isFromCache());
+	}
+
+	@Test
+	public void testWithData() throws Exception {
+		CacheWrapper<String> cacheWrapper = new CacheWrapper<>(1000, "value", "etag", "lastModified", 42, 5000);
+
+		CacheWrapper<Integer> copy = cacheWrapper.withData(7);
+		assertEquals(new CacheWrapper<>(1000, 7), copy);
+		assertEquals("etag", copy.getEtag());
+		assertEquals("lastModified", copy.getLastModified());
+		assertEquals(42, copy.getContentHash());
+		assertEquals(5000, copy.getTtl());
+		assertEquals(5000, cacheWrapper.asFromCache().getTtl());
+		assertEquals(42, cacheWrapper.withCachedDate(2000).getContentHash());
+	}
+
+	@Test
+	public void testWithTags() throws Exception {
+		CacheWrapper<String> cacheWrapper = new CacheWrapper<>(1000, "value");
+		assertArrayEquals(CacheWrapper.NO_TAGS, cacheWrapper.getTags());
+
+		CacheWrapper<String> tagged = cacheWrapper.withTags("product:42", "catalog");
+		assertArrayEquals(new String[]{"product:42", "catalog"}, tagged.getTags());
+		assertArrayEquals(new String[]{"product:42", "catalog"}, tagged.withData("other").getTags());
+		assertArrayEquals(new String[]{"product:42", "catalog"}, tagged.withCachedDate(2000).getTags());
+		assertArrayEquals(new String[]{"product:42", "catalog"}, tagged.asFromCache().getTags());
+		assertArrayEquals(CacheWrapper.NO_TAGS, tagged.withTags().getTags());
+	}
+
+}
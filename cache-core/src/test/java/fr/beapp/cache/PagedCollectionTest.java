@@ -0,0 +1,89 @@
+package fr.beapp.cache;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import fr.beapp.cache.storage.InMemoryStorage;
+import fr.beapp.cache.storage.Storage;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PagedCollectionTest {
+
+	private final Storage storage = new InMemoryStorage(false);
+	private final RxCache rxCache = new RxCache(storage).withDefaultScheduler(Schedulers.trampoline());
+
+	@Test
+	public void testPages() throws Exception {
+		PagedCollection<String> collection = rxCache.fromPagedKey("feed_%d", 1);
+		collection.appendPage("page0").blockingAwait();
+		collection.appendPage("page1").blockingAwait();
+		collection.appendPage("page2").blockingAwait();
+
+		assertEquals(3, (int) collection.pageCount().blockingGet());
+		assertTrue(storage.exists(null, "feed_1#page_2"));
+
+		TestSubscriber<String> testSubscriber = collection.pages().test(1);
+		testSubscriber.assertValues("page0").assertNotComplete();
+		testSubscriber.requestMore(5);
+		testSubscriber.assertValues("page0", "page1", "page2").assertComplete();
+	}
+
+	@Test
+	public void testInvalidateFrom() throws Exception {
+		PagedCollection<String> collection = rxCache.fromPagedKey("feed");
+		collection.appendPage("page0").blockingAwait();
+		collection.appendPage("page1").blockingAwait();
+		collection.appendPage("page2").blockingAwait();
+
+		collection.invalidateFrom(1).blockingAwait();
+
+		assertEquals(1, (int) collection.pageCount().blockingGet());
+		assertFalse(storage.exists(null, "feed#page_1"));
+		collection.pages().test().assertValues("page0").assertComplete();
+
+		collection.appendPage("newPage1").blockingAwait();
+		collection.pages().test().assertValues("page0", "newPage1").assertComplete();
+	}
+
+	@Test
+	public void testPages_expiredPage() throws Exception {
+		PagedCollection<String> collection = rxCache.fromPagedKey("feed");
+		collection.appendPage("page0").blockingAwait();
+		collection.appendPage("page1", -1, TimeUnit.SECONDS).blockingAwait();
+		collection.appendPage("page2").blockingAwait();
+
+		collection.pages().test().assertValues("page0").assertComplete();
+		collection.keepExpiredCache().pages().test().assertValues("page0", "page1", "page2").assertComplete();
+	}
+
+	@Test
+	public void testAppendPage_concurrentInstances() throws Exception {
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			// Each thread uses its own instance of the same collection
+			final PagedCollection<String> collection = rxCache.fromPagedKey("feed");
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int page = 0; page < 25; page++) {
+						collection.appendPage("page").blockingAwait();
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(100, (int) rxCache.fromPagedKey("feed").pageCount().blockingGet());
+		assertTrue(storage.exists(null, "feed#page_99"));
+	}
+
+}
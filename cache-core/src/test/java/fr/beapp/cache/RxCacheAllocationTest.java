@@ -0,0 +1,75 @@
+package fr.beapp.cache;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import fr.beapp.cache.storage.InMemoryStorage;
+import fr.beapp.cache.storage.Storage;
+import fr.beapp.cache.strategy.CacheStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.functions.Consumer;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Guard the allocations of a steady-state cache hit on an in-memory storage, through a reused {@link Flowable}.
+ * <br/>
+ * What remains is the subscribers of the Rx operators, the storage lookup itself should allocate nothing.
+ */
+public class RxCacheAllocationTest {
+
+	private static final int WARM_UP_HITS = 20000;
+	private static final int MEASURED_HITS = 10000;
+	private static final long MAX_BYTES_PER_HIT = 200;
+
+	private final Storage storage = new InMemoryStorage(false);
+	// Without a default scheduler, a plain in-memory storage is read on the subscribing thread
+	private final RxCache rxCache = new RxCache(storage);
+	private final Consumer<String> consumer = new Consumer<String>() {
+		@Override
+		public void accept(String value) throws Exception {
+			// Nothing to do
+		}
+	};
+
+	@Test
+	public void testHitAllocations_cacheOrAsync() throws Exception {
+		assertHitAllocations(CacheStrategy.cacheOrAsync());
+	}
+
+	@Test
+	public void testHitAllocations_justCache() throws Exception {
+		assertHitAllocations(CacheStrategy.justCache());
+	}
+
+	private void assertHitAllocations(CacheStrategy cacheStrategy) {
+		ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+		Assume.assumeTrue(allocationMXBean.isThreadAllocatedMemorySupported() && allocationMXBean.isThreadAllocatedMemoryEnabled());
+
+		storage.put(null, "key", new CacheWrapper<>("value"));
+		Flowable<String> flowable = rxCache.<String>fromKey("key")
+				.withStrategy(cacheStrategy)
+				.withAsync(Single.just("async"))
+				.fetch();
+
+		for (int i = 0; i < WARM_UP_HITS; i++) {
+			flowable.subscribe(consumer);
+		}
+
+		long threadId = Thread.currentThread().getId();
+		long allocatedBefore = allocationMXBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < MEASURED_HITS; i++) {
+			flowable.subscribe(consumer);
+		}
+		long bytesPerHit = (allocationMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore) / MEASURED_HITS;
+
+		assertTrue(cacheStrategy + " allocated " + bytesPerHit + " bytes per hit", bytesPerHit <= MAX_BYTES_PER_HIT);
+	}
+
+}
@@ -2,19 +2,36 @@ package fr.beapp.cache;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import fr.beapp.cache.storage.InMemoryStorage;
+import fr.beapp.cache.storage.MemoStorage;
 import fr.beapp.cache.storage.Storage;
+import fr.beapp.cache.storage.TaggedStorage;
+import fr.beapp.cache.strategy.AsyncWithDeadlineStrategy;
 import fr.beapp.cache.strategy.CacheStrategy;
+import fr.beapp.cache.strategy.CacheThenAsyncIfStaleStrategy;
 import io.reactivex.Flowable;
 import io.reactivex.Maybe;
 import io.reactivex.Scheduler;
 import io.reactivex.Single;
+import io.reactivex.SingleSource;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
 import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.TestScheduler;
 import io.reactivex.subscribers.TestSubscriber;
 
 public class RxCacheTest {
@@ -135,6 +152,122 @@ public class RxCacheTest {
 		testObserver.assertValues(CACHE_OBJECT);
 	}
 
+	// cacheThenAsyncIfStale()
+
+	@Test
+	public void testExecuteRx_cacheThenAsyncIfStale_noCache_asyncOk() throws Exception {
+		storage.put(session, "otherKey", new CacheWrapper<>(CACHE_OBJECT));
+		rxCache.fromKey("key")
+				.withStrategy(CacheStrategy.cacheThenAsyncIfStale(5, TimeUnit.MINUTES))
+				.withAsync(async())
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertComplete();
+		testObserver.assertNoErrors();
+		testObserver.assertValues(ASYNC_OBJECT);
+	}
+
+	@Test
+	public void testExecuteRx_cacheThenAsyncIfStale_freshCache_asyncOk() throws Exception {
+		storage.put(session, "key", new CacheWrapper<>(CACHE_OBJECT));
+		CacheThenAsyncIfStaleStrategy strategy = new CacheThenAsyncIfStaleStrategy(5, TimeUnit.MINUTES);
+		rxCache.fromKey("key")
+				.withStrategy(strategy)
+				.withAsync(async())
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertComplete();
+		testObserver.assertNoErrors();
+		testObserver.assertValues(CACHE_OBJECT);
+		Assert.assertEquals(1, strategy.getSkippedAsyncCount());
+		Assert.assertEquals(0, strategy.getAsyncCount());
+	}
+
+	@Test
+	public void testExecuteRx_cacheThenAsyncIfStale_staleCache_asyncOk() throws Exception {
+		storage.put(session, "key", new CacheWrapper<>(System.currentTimeMillis() - MINUTES_60, CACHE_OBJECT));
+		rxCache.fromKey("key")
+				.withStrategy(CacheStrategy.cacheThenAsyncIfStale(5, TimeUnit.MINUTES))
+				.withAsync(async())
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertComplete();
+		testObserver.assertNoErrors();
+		testObserver.assertValues(CACHE_OBJECT, ASYNC_OBJECT);
+	}
+
+	@Test
+	public void testExecuteRx_cacheThenAsyncIfStale_singleFlight() throws Exception {
+		final AtomicInteger asyncCalls = new AtomicInteger();
+		Single<Object> countedAsync = Single.defer(new Callable<SingleSource<Object>>() {
+			@Override
+			public SingleSource<Object> call() throws Exception {
+				asyncCalls.incrementAndGet();
+				return async();
+			}
+		});
+		TestSubscriber<Object> otherObserver = TestSubscriber.create();
+
+		rxCache.fromKey("key")
+				.withStrategy(CacheStrategy.cacheThenAsyncIfStale(5, TimeUnit.MINUTES))
+				.withAsync(countedAsync)
+				.fetch()
+				.subscribe(testObserver);
+		rxCache.fromKey("key")
+				.withStrategy(CacheStrategy.cacheThenAsyncIfStale(5, TimeUnit.MINUTES))
+				.withAsync(countedAsync)
+				.fetch()
+				.subscribe(otherObserver);
+
+		testObserver.awaitTerminalEvent();
+		otherObserver.awaitTerminalEvent();
+		testObserver.assertValues(ASYNC_OBJECT);
+		otherObserver.assertValues(ASYNC_OBJECT);
+		Assert.assertEquals(1, asyncCalls.get());
+		Assert.assertEquals(1, rxCache.getSharedLoads());
+	}
+
+	@Test
+	public void testExecuteRx_asyncOrCache_sharedLoadDisposed() throws Exception {
+		final CountDownLatch subscribed = new CountDownLatch(1);
+		final AtomicBoolean disposed = new AtomicBoolean(false);
+		Single<Object> neverAsync = Single.never()
+				.doOnSubscribe(new Consumer<Disposable>() {
+					@Override
+					public void accept(Disposable disposable) throws Exception {
+						subscribed.countDown();
+					}
+				})
+				.doOnDispose(new Action() {
+					@Override
+					public void run() throws Exception {
+						disposed.set(true);
+					}
+				});
+
+		rxCache.fromKey("key")
+				.withStrategy(CacheStrategy.asyncOrCache())
+				.withAsync(neverAsync)
+				.withSingleFlight(true)
+				.fetch()
+				.subscribe(testObserver);
+		Assert.assertTrue(subscribed.await(5, TimeUnit.SECONDS));
+		Assert.assertEquals(1, rxCache.inFlightLoads.size());
+
+		testObserver.dispose();
+		Assert.assertTrue(disposed.get());
+		Assert.assertTrue(rxCache.inFlightLoads.isEmpty());
+	}
+
 	// cacheOrAsync()
 
 	@Test
@@ -374,6 +507,86 @@ public class RxCacheTest {
 		testObserver.assertNoValues();
 	}
 
+	// withAdaptiveTTL()
+
+	@Test
+	public void testAdaptiveTTL_learnedTtlIsStored() throws Exception {
+		AdaptiveTTL adaptiveTTL = new AdaptiveTTL(1, 120, TimeUnit.MINUTES);
+		for (int i = 0; i < 2; i++) {
+			rxCache.<String>fromKey("key")
+					.withStrategy(CacheStrategy.asyncOrCache())
+					.withTTL(30, TimeUnit.MINUTES)
+					.withAdaptiveTTL(adaptiveTTL)
+					.withAsync(Single.just("value"))
+					.fetch()
+					.blockingSubscribe();
+		}
+
+		CacheWrapper<String> cachedData = storage.get(session, "key", String.class);
+		Assert.assertEquals("value", cachedData.getData());
+		Assert.assertEquals(TimeUnit.MINUTES.toMillis(60), cachedData.getTtl());
+		Assert.assertEquals(1, adaptiveTTL.getUnchanged());
+	}
+
+	@Test
+	public void testAdaptiveTTL_cacheOrAsyncUsesLearnedTtl() throws Exception {
+		long cachedDate = System.currentTimeMillis() - MINUTES_60;
+		storage.put(session, "key", new CacheWrapper<>(cachedDate, CACHE_OBJECT, null, null, 1, 2 * MINUTES_60));
+		rxCache.fromKey("key")
+				.withStrategy(CacheStrategy.cacheOrAsync())
+				.withAsync(async())
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertComplete();
+		testObserver.assertValue(CACHE_OBJECT);
+	}
+
+	// withSkipUnchanged()
+
+	@Test
+	public void testSkipUnchanged_sameData() throws Exception {
+		long cachedDate = System.currentTimeMillis() - MINUTES_60;
+		storage.put(session, "key", new CacheWrapper<>(cachedDate, "value"));
+		rxCache.<String>fromKey("key")
+				.withStrategy(CacheStrategy.cacheThenAsync())
+				.withSkipUnchanged(true)
+				.withAsync(Single.just("value"))
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertComplete();
+		testObserver.assertValues("value");
+		Assert.assertEquals(1, rxCache.getSuppressedWrites());
+		Assert.assertEquals(1, rxCache.getSuppressedEmissions());
+		Assert.assertTrue(storage.get(session, "key", String.class).getCachedDate() > cachedDate);
+	}
+
+	@Test
+	public void testSkipUnchanged_changedData() throws Exception {
+		storage.put(session, "key", new CacheWrapper<>("value"));
+		rxCache.<String>fromKey("key")
+				.withStrategy(CacheStrategy.cacheThenAsync())
+				.withSkipUnchanged(true)
+				.withAsync(Single.just("newValue"))
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertComplete();
+		testObserver.assertValues("value", "newValue");
+		Assert.assertEquals(0, rxCache.getSuppressedWrites());
+		Assert.assertEquals(0, rxCache.getSuppressedEmissions());
+		CacheWrapper<String> cachedData = storage.get(session, "key", String.class);
+		Assert.assertEquals("newValue", cachedData.getData());
+		Assert.assertNotEquals(CacheWrapper.NO_CONTENT_HASH, cachedData.getContentHash());
+	}
+
 	// asyncOrCache()
 
 	@Test
@@ -443,6 +656,82 @@ public class RxCacheTest {
 		testObserver.assertValue(CACHE_OBJECT);
 	}
 
+	// asyncWithDeadline()
+
+	@Test
+	public void testExecuteRx_asyncWithDeadline_cachedValue_asyncInTime() throws Exception {
+		storage.put(session, "key", new CacheWrapper<>(CACHE_OBJECT));
+		AsyncWithDeadlineStrategy strategy = CacheStrategy.asyncWithDeadline(500, TimeUnit.MILLISECONDS);
+		rxCache.fromKey("key")
+				.withStrategy(strategy)
+				.withAsync(async())
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertComplete();
+		testObserver.assertNoErrors();
+		testObserver.assertValue(ASYNC_OBJECT);
+		Assert.assertEquals(0, strategy.getDeadlineExceededCount());
+	}
+
+	@Test
+	public void testExecuteRx_asyncWithDeadline_cachedValue_asyncLate() throws Exception {
+		storage.put(session, "key", new CacheWrapper<>(System.currentTimeMillis() - MINUTES_60, CACHE_OBJECT));
+		AsyncWithDeadlineStrategy strategy = CacheStrategy.asyncWithDeadline(100, TimeUnit.MILLISECONDS);
+		rxCache.fromKey("key")
+				.withStrategy(strategy)
+				.withAsync(Single.just(ASYNC_OBJECT).delay(300, TimeUnit.MILLISECONDS))
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertComplete();
+		testObserver.assertNoErrors();
+		testObserver.assertValue(CACHE_OBJECT);
+		Assert.assertEquals(1, strategy.getDeadlineExceededCount());
+
+		// The async call keeps running and still updates the storage
+		Thread.sleep(500);
+		Assert.assertEquals(ASYNC_OBJECT, storage.get(session, "key", Object.class).getData());
+	}
+
+	@Test
+	public void testExecuteRx_asyncWithDeadline_cachedValue_asyncLate_emitLateAsync() throws Exception {
+		storage.put(session, "key", new CacheWrapper<>(CACHE_OBJECT));
+		AsyncWithDeadlineStrategy strategy = CacheStrategy.asyncWithDeadline(100, TimeUnit.MILLISECONDS).emitLateAsync(true);
+		rxCache.fromKey("key")
+				.withStrategy(strategy)
+				.withAsync(Single.just(ASYNC_OBJECT).delay(300, TimeUnit.MILLISECONDS))
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertComplete();
+		testObserver.assertNoErrors();
+		testObserver.assertValues(CACHE_OBJECT, ASYNC_OBJECT);
+		Assert.assertEquals(1, strategy.getDeadlineExceededCount());
+		Assert.assertEquals(1, strategy.getLateAsyncCount());
+	}
+
+	@Test
+	public void testExecuteRx_asyncWithDeadline_noCache_asyncLate() throws Exception {
+		rxCache.fromKey("key")
+				.withStrategy(CacheStrategy.asyncWithDeadline(50, TimeUnit.MILLISECONDS))
+				.withAsync(Single.just(ASYNC_OBJECT).delay(300, TimeUnit.MILLISECONDS))
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertComplete();
+		testObserver.assertNoErrors();
+		testObserver.assertValue(ASYNC_OBJECT);
+	}
+
 	// custom
 
 	@Test
@@ -474,4 +763,456 @@ public class RxCacheTest {
 		testObserver.assertValue(customObject);
 	}
 
-}
\ No newline at end of file
+	// withRevalidatingAsync()
+
+	@Test
+	public void testExecuteRx_revalidatingAsync_notModified() throws Exception {
+		long cachedDate = System.currentTimeMillis() - MINUTES_60;
+		storage.put(session, "key", new CacheWrapper<>(cachedDate, CACHE_OBJECT, "etag1", null));
+		final String[] receivedEtag = new String[1];
+		rxCache.fromKey("key")
+				.withStrategy(CacheStrategy.cacheOrAsync())
+				.withRevalidatingAsync(new Revalidator<Object>() {
+					@NotNull
+					@Override
+					public Single<Revalidation<Object>> revalidate(@Nullable String etag, @Nullable String lastModified) {
+						receivedEtag[0] = etag;
+						return Single.just(Revalidation.notModified());
+					}
+				})
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertComplete();
+		testObserver.assertValues(CACHE_OBJECT);
+		Assert.assertEquals("etag1", receivedEtag[0]);
+
+		CacheWrapper<Object> cachedData = storage.get(session, "key", Object.class);
+		Assert.assertNotNull(cachedData);
+		Assert.assertTrue(cachedData.getCachedDate() > cachedDate);
+		Assert.assertEquals("etag1", cachedData.getEtag());
+	}
+
+	@Test
+	public void testExecuteRx_revalidatingAsync_notModified_deletedMeanwhile() throws Exception {
+		storage.put(session, "key", new CacheWrapper<>(System.currentTimeMillis() - MINUTES_60, CACHE_OBJECT, "etag1", null).withTags("tag"));
+		rxCache.fromKey("key")
+				.withStrategy(CacheStrategy.cacheOrAsync())
+				.withRevalidatingAsync(new Revalidator<Object>() {
+					@NotNull
+					@Override
+					public Single<Revalidation<Object>> revalidate(@Nullable String etag, @Nullable String lastModified) {
+						storage.delete(session, "key");
+						return Single.just(Revalidation.notModified());
+					}
+				})
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertComplete();
+		testObserver.assertValues(CACHE_OBJECT);
+
+		CacheWrapper<Object> cachedData = storage.get(session, "key", Object.class);
+		Assert.assertNotNull(cachedData);
+		Assert.assertEquals(CACHE_OBJECT, cachedData.getData());
+		Assert.assertEquals("etag1", cachedData.getEtag());
+		Assert.assertArrayEquals(new String[]{"tag"}, cachedData.getTags());
+	}
+
+	@Test
+	public void testExecuteRx_revalidatingAsync_modified() throws Exception {
+		storage.put(session, "key", new CacheWrapper<>(System.currentTimeMillis() - MINUTES_60, CACHE_OBJECT, "etag1", null));
+		rxCache.fromKey("key")
+				.withStrategy(CacheStrategy.cacheOrAsync())
+				.withRevalidatingAsync(new Revalidator<Object>() {
+					@NotNull
+					@Override
+					public Single<Revalidation<Object>> revalidate(@Nullable String etag, @Nullable String lastModified) {
+						return Single.just(Revalidation.modified(ASYNC_OBJECT, "etag2", null));
+					}
+				})
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertComplete();
+		testObserver.assertValues(ASYNC_OBJECT);
+
+		CacheWrapper<Object> cachedData = storage.get(session, "key", Object.class);
+		Assert.assertNotNull(cachedData);
+		Assert.assertEquals(ASYNC_OBJECT, cachedData.getData());
+		Assert.assertEquals("etag2", cachedData.getEtag());
+	}
+
+	// warmUp()
+
+	@Test
+	public void testWarmUp_cachedValue() throws Exception {
+		storage.put(session, "key", new CacheWrapper<>(CACHE_OBJECT));
+		RxCache warmCache = new RxCache(storage);
+		Assert.assertFalse(warmCache.isWarmedUp());
+
+		warmCache.warmUp(Collections.singletonList("key")).blockingAwait();
+		Assert.assertTrue(warmCache.isWarmedUp());
+		Assert.assertFalse(warmCache.isWarmingUp());
+
+		warmCache.fromKey("key")
+				.withStrategy(CacheStrategy.justCache())
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertComplete();
+		testObserver.assertValue(CACHE_OBJECT);
+	}
+
+	@Test
+	public void testWarmUp_deletedFromStorage() throws Exception {
+		storage.put(session, "key", new CacheWrapper<>(CACHE_OBJECT));
+		RxCache warmCache = new RxCache(storage);
+		warmCache.warmUp(Collections.singletonList("key")).blockingAwait();
+		storage.delete(session, "key");
+
+		warmCache.fromKey("key")
+				.withStrategy(CacheStrategy.cacheOrAsync())
+				.withAsync(async())
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertComplete();
+		testObserver.assertValue(ASYNC_OBJECT);
+		Assert.assertEquals(0, warmCache.getWarmUpHits());
+	}
+
+	@Test
+	public void testWarmUp_replacedInStorage() throws Exception {
+		storage.put(session, "key", new CacheWrapper<>(CACHE_OBJECT));
+		RxCache warmCache = new RxCache(storage);
+		warmCache.warmUp(Collections.singletonList("key")).blockingAwait();
+		storage.put(session, "key", new CacheWrapper<>(ASYNC_OBJECT));
+
+		warmCache.fromKey("key")
+				.withStrategy(CacheStrategy.justCache())
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertComplete();
+		testObserver.assertValue(ASYNC_OBJECT);
+		Assert.assertEquals(0, warmCache.getWarmUpHits());
+	}
+
+	@Test
+	public void testWarmUp_fetchAwaitsWarmUp() throws Exception {
+		storage.put(session, "key", new CacheWrapper<>(CACHE_OBJECT));
+		RxCache warmCache = new RxCache(storage);
+
+		warmCache.warmUp(Collections.singletonList("key")).subscribe();
+		Assert.assertTrue(warmCache.isWarmingUp());
+
+		warmCache.fromKey("key")
+				.withStrategy(CacheStrategy.justCache())
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertComplete();
+		testObserver.assertValue(CACHE_OBJECT);
+		Assert.assertTrue(warmCache.isWarmedUp());
+	}
+
+	// warmUpFromAccessLog()
+
+	@Test
+	public void testWarmUpFromAccessLog() throws Exception {
+		storage.put(session, "hotKey", new CacheWrapper<>(CACHE_OBJECT));
+		storage.put(session, "coldKey", new CacheWrapper<>(CACHE_OBJECT));
+		rxCache.withAccessLog(new AccessLog(100, 1));
+		for (int i = 0; i < 4; i++) {
+			rxCache.fromKey("hotKey").withStrategy(CacheStrategy.justCache()).fetch().blockingSubscribe();
+		}
+		rxCache.fromKey("coldKey").withStrategy(CacheStrategy.justCache()).fetch().blockingSubscribe();
+		rxCache.saveAccessLog().blockingAwait();
+
+		RxCache nextCache = new RxCache(storage).withAccessLog(new AccessLog(100, 1));
+		nextCache.warmUpFromAccessLog(1).blockingAwait();
+		Assert.assertEquals(1, nextCache.getWarmUpLoads());
+
+		nextCache.fromKey("hotKey")
+				.withStrategy(CacheStrategy.justCache())
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertValue(CACHE_OBJECT);
+		Assert.assertEquals(1, nextCache.getWarmUpHits());
+		Assert.assertEquals(1.0, nextCache.getWarmUpHitRate(), 0.001);
+		// 4 reads halved by the previous run, then the last read
+		Assert.assertEquals(3, nextCache.getAccessLog().top(1).get(0).getCount());
+	}
+
+	// Read scheduling
+
+	@Test
+	public void testRead_blockingSubclassUsesScheduler() throws Exception {
+		storage.put(session, "key", new CacheWrapper<>(CACHE_OBJECT));
+		String threadName = rxCache.fromKey("key")
+				.withStrategy(CacheStrategy.justCache())
+				.fetch()
+				.map(new Function<Object, String>() {
+					@Override
+					public String apply(@io.reactivex.annotations.NonNull Object value) throws Exception {
+						return Thread.currentThread().getName();
+					}
+				})
+				.blockingFirst();
+		Assert.assertTrue(threadName, threadName.startsWith("cache-storage-read"));
+	}
+
+	@Test
+	public void testRead_explicitSchedulerHonored() throws Exception {
+		RxCache inMemoryCache = new RxCache(new InMemoryStorage(false)).withDefaultScheduler(Schedulers.single());
+		inMemoryCache.getStorage().put(session, "key", new CacheWrapper<>(CACHE_OBJECT));
+		String threadName = inMemoryCache.fromKey("key")
+				.withStrategy(CacheStrategy.justCache())
+				.fetch()
+				.map(new Function<Object, String>() {
+					@Override
+					public String apply(@io.reactivex.annotations.NonNull Object value) throws Exception {
+						return Thread.currentThread().getName();
+					}
+				})
+				.blockingFirst();
+		Assert.assertTrue(threadName, threadName.startsWith("RxSingleScheduler"));
+	}
+
+	// openStream()
+
+	@Test
+	public void testOpenStream() throws Exception {
+		storage.put(session, "key", new CacheWrapper<>(new byte[]{1, 2, 3}));
+
+		CacheWrapper<InputStream> stream = rxCache.openStream("key").blockingGet();
+		Assert.assertTrue(stream.isFromCache());
+		byte[] bytes = new byte[3];
+		Assert.assertEquals(3, stream.getData().read(bytes));
+		Assert.assertArrayEquals(new byte[]{1, 2, 3}, bytes);
+		Assert.assertEquals(-1, stream.getData().read());
+		stream.getData().close();
+
+		storage.put(session, "notBytes", new CacheWrapper<>(CACHE_OBJECT));
+		Assert.assertNull(rxCache.openStream("notBytes").blockingGet());
+		Assert.assertNull(rxCache.openStream("unknownKey").blockingGet());
+	}
+
+	// invalidateTags()
+
+	@Test
+	public void testInvalidateTags() throws Exception {
+		TaggedStorage taggedStorage = new TaggedStorage(new InMemoryStorage(false));
+		RxCache taggedCache = new RxCache(new MemoStorage(taggedStorage, 1024 * 1024));
+		taggedCache.<String>fromKey("product_42")
+				.withTags("product:42", "catalog")
+				.withAsync(Single.just("product"))
+				.fetch()
+				.blockingLast();
+		taggedCache.<String>fromKey("catalog")
+				.withTags("catalog")
+				.withAsync(Single.just("catalog"))
+				.fetch()
+				.blockingLast();
+		taggedCache.getStorage().put(session, "untagged", new CacheWrapper<>("untagged"));
+
+		Assert.assertEquals(1, (int) taggedCache.invalidateTags("product:42").blockingGet());
+		Assert.assertNull(taggedCache.getStorage().get(session, "product_42", String.class));
+		Assert.assertNotNull(taggedCache.getStorage().get(session, "catalog", String.class));
+
+		Assert.assertEquals(1, (int) taggedCache.invalidateTags("catalog").blockingGet());
+		Assert.assertNull(taggedCache.getStorage().get(session, "catalog", String.class));
+		Assert.assertNotNull(taggedCache.getStorage().get(session, "untagged", String.class));
+		Assert.assertEquals(2, taggedStorage.getInvalidatedKeys());
+	}
+
+	@Test
+	public void testInvalidateTags_notIndexed() throws Exception {
+		rxCache.invalidateTags("catalog")
+				.test()
+				.awaitDone(5, TimeUnit.SECONDS)
+				.assertError(IllegalStateException.class);
+	}
+
+	// withBulkhead()
+
+	@Test
+	public void testBulkhead_fallbackToCache() throws Exception {
+		Bulkhead bulkhead = new Bulkhead("image_", 1)
+				.withMaxQueuedLoads(0)
+				.withOverflowPolicy(Bulkhead.OverflowPolicy.FALLBACK_TO_CACHE);
+		rxCache.withBulkhead(bulkhead);
+		storage.put(session, "image_2", new CacheWrapper<>(System.currentTimeMillis() - MINUTES_60, CACHE_OBJECT));
+
+		rxCache.fromKey("image_1")
+				.withAsync(Single.never())
+				.fetch()
+				.subscribe();
+		while (bulkhead.getRunningLoads() == 0) {
+			Thread.sleep(10);
+		}
+		rxCache.fromKey("image_2")
+				.withTTL(1, TimeUnit.MINUTES)
+				.withAsync(async())
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertComplete();
+		testObserver.assertValues(CACHE_OBJECT);
+		Assert.assertEquals(1, bulkhead.getRejectedLoads());
+		Assert.assertEquals(1, bulkhead.getRunningLoads());
+	}
+
+	@Test
+	public void testBulkhead_fallbackToCache_cacheThenAsync() throws Exception {
+		Bulkhead bulkhead = new Bulkhead("image_", 1)
+				.withMaxQueuedLoads(0)
+				.withOverflowPolicy(Bulkhead.OverflowPolicy.FALLBACK_TO_CACHE);
+		rxCache.withBulkhead(bulkhead);
+		storage.put(session, "image_2", new CacheWrapper<>(CACHE_OBJECT));
+
+		rxCache.fromKey("image_1")
+				.withAsync(Single.never())
+				.fetch()
+				.subscribe();
+		while (bulkhead.getRunningLoads() == 0) {
+			Thread.sleep(10);
+		}
+		rxCache.fromKey("image_2")
+				.withStrategy(CacheStrategy.cacheThenAsync())
+				.withAsync(async())
+				.fetch()
+				.observeOn(OBSERVE_ON_SCHEDULER)
+				.subscribe(testObserver);
+
+		testObserver.awaitTerminalEvent();
+		testObserver.assertComplete();
+		testObserver.assertValues(CACHE_OBJECT);
+		Assert.assertEquals(1, bulkhead.getRejectedLoads());
+	}
+
+	// poll()
+
+	@Test
+	public void testPoll() throws Exception {
+		RxCache pollingCache = new RxCache(new InMemoryStorage(false)).withDefaultScheduler(Schedulers.trampoline());
+		final String[] values = {"value", "value", "newValue"};
+		final AtomicInteger loads = new AtomicInteger();
+		TestScheduler testScheduler = new TestScheduler();
+		Flowable<String> polling = pollingCache.<String>fromKey("key")
+				.withAsync(Single.fromCallable(new Callable<String>() {
+					@Override
+					public String call() throws Exception {
+						return values[Math.min(loads.getAndIncrement(), values.length - 1)];
+					}
+				}))
+				.poll(1, TimeUnit.MINUTES, testScheduler);
+		TestSubscriber<String> pollingObserver = polling.test();
+
+		testScheduler.triggerActions();
+		pollingObserver.assertValues("value");
+		testScheduler.advanceTimeBy(2, TimeUnit.MINUTES);
+		pollingObserver.assertValues("value", "newValue");
+		Assert.assertEquals(3, loads.get());
+		Assert.assertEquals(1, pollingCache.getSuppressedWrites());
+		Assert.assertEquals(1, pollingCache.getSuppressedEmissions());
+
+		// Late subscribers share the polling and get the latest data
+		TestSubscriber<String> lateObserver = polling.test();
+		lateObserver.assertValues("newValue");
+		Assert.assertEquals(3, loads.get());
+
+		// Polling pauses without subscribers
+		pollingObserver.dispose();
+		lateObserver.dispose();
+		testScheduler.advanceTimeBy(10, TimeUnit.MINUTES);
+		Assert.assertEquals(3, loads.get());
+		pollingObserver.assertNoErrors();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testPoll_invalidInterval() throws Exception {
+		rxCache.<String>fromKey("key")
+				.withAsync(Single.just("value"))
+				.poll(0, TimeUnit.MINUTES);
+	}
+
+	@Test
+	public void testPoll_resumeFromCache() throws Exception {
+		RxCache pollingCache = new RxCache(new InMemoryStorage(false)).withDefaultScheduler(Schedulers.trampoline());
+		pollingCache.getStorage().put(session, "key", new CacheWrapper<>(System.currentTimeMillis() - 20 * 1000, "cachedValue"));
+		final AtomicInteger loads = new AtomicInteger();
+		TestScheduler testScheduler = new TestScheduler();
+		TestSubscriber<String> pollingObserver = pollingCache.<String>fromKey("key")
+				.withAsync(Single.fromCallable(new Callable<String>() {
+					@Override
+					public String call() throws Exception {
+						loads.incrementAndGet();
+						return "value";
+					}
+				}))
+				.poll(1, TimeUnit.MINUTES, testScheduler)
+				.test();
+
+		pollingObserver.assertValues("cachedValue");
+		testScheduler.advanceTimeBy(35, TimeUnit.SECONDS);
+		Assert.assertEquals(0, loads.get());
+		testScheduler.advanceTimeBy(10, TimeUnit.SECONDS);
+		Assert.assertEquals(1, loads.get());
+		pollingObserver.assertValues("cachedValue", "value");
+	}
+
+	@Test
+	public void testPoll_backoff() throws Exception {
+		RxCache pollingCache = new RxCache(new InMemoryStorage(false)).withDefaultScheduler(Schedulers.trampoline());
+		final AtomicInteger loads = new AtomicInteger();
+		TestScheduler testScheduler = new TestScheduler();
+		TestSubscriber<String> pollingObserver = pollingCache.<String>fromKey("key")
+				.withAsync(Single.fromCallable(new Callable<String>() {
+					@Override
+					public String call() throws Exception {
+						if (loads.incrementAndGet() <= 2) {
+							throw asyncException;
+						}
+						return "value";
+					}
+				}))
+				.withMaxPollingBackoff(3, TimeUnit.MINUTES)
+				.poll(1, TimeUnit.MINUTES, testScheduler)
+				.test();
+
+		testScheduler.triggerActions();
+		Assert.assertEquals(1, loads.get());
+		// 2 minutes after the first failure
+		testScheduler.advanceTimeBy(2, TimeUnit.MINUTES);
+		Assert.assertEquals(2, loads.get());
+		// Capped to 3 minutes after the second failure
+		testScheduler.advanceTimeBy(2, TimeUnit.MINUTES);
+		Assert.assertEquals(2, loads.get());
+		testScheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+		Assert.assertEquals(3, loads.get());
+		pollingObserver.assertNoErrors();
+		pollingObserver.assertValues("value");
+	}
+
+}
@@ -0,0 +1,120 @@
+package fr.beapp.cache.event;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import fr.beapp.cache.CacheWrapper;
+import fr.beapp.cache.RxCache;
+import fr.beapp.cache.storage.EntrySizer;
+import fr.beapp.cache.storage.InMemoryStorage;
+import fr.beapp.cache.storage.ObservedStorage;
+import fr.beapp.cache.strategy.CacheStrategy;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.TestScheduler;
+
+import static org.junit.Assert.assertEquals;
+
+public class CacheEventDispatcherTest {
+
+	private final List<List<CacheEvent>> batches = new ArrayList<>();
+	private final CacheEventListener listener = new CacheEventListener() {
+		@Override
+		public void onCacheEvents(@NotNull List<CacheEvent> events) {
+			batches.add(events);
+		}
+	};
+
+	@Test
+	public void testDispatch_batched() throws Exception {
+		TestScheduler scheduler = new TestScheduler();
+		CacheEventDispatcher dispatcher = new CacheEventDispatcher().withScheduler(scheduler);
+
+		dispatcher.dispatch(CacheEvent.miss(null, "ignored"));
+		dispatcher.addListener(listener);
+		dispatcher.dispatch(CacheEvent.miss(null, "key1"));
+		dispatcher.dispatch(CacheEvent.hit(null, "key2", false));
+		assertEquals(0, batches.size());
+
+		scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+		assertEquals(1, batches.size());
+		assertEquals(2, batches.get(0).size());
+		assertEquals("key1", batches.get(0).get(0).getKey());
+		assertEquals(CacheEvent.Type.HIT, batches.get(0).get(1).getType());
+	}
+
+	@Test
+	public void testDispatch_maxQueueSize() throws Exception {
+		TestScheduler scheduler = new TestScheduler();
+		CacheEventDispatcher dispatcher = new CacheEventDispatcher().withScheduler(scheduler).withMaxQueueSize(1);
+		dispatcher.addListener(listener);
+
+		dispatcher.dispatch(CacheEvent.miss(null, "key1"));
+		dispatcher.dispatch(CacheEvent.miss(null, "key2"));
+		scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+		assertEquals(1, batches.get(0).size());
+		assertEquals(1, dispatcher.getDroppedEvents());
+	}
+
+	@Test
+	public void testRxCacheEvents() throws Exception {
+		CacheEventDispatcher dispatcher = new CacheEventDispatcher()
+				.withScheduler(Schedulers.trampoline())
+				.withBatchWindow(0, TimeUnit.MILLISECONDS);
+		ObservedStorage storage = new ObservedStorage(new InMemoryStorage(false), dispatcher)
+				.withEntrySizer(new EntrySizer() {
+					@Override
+					public long sizeOf(CacheWrapper<?> value) {
+						return 42;
+					}
+				});
+		RxCache rxCache = new RxCache(storage)
+				.withDefaultScheduler(Schedulers.trampoline())
+				.withEventDispatcher(dispatcher)
+				.addEventListener(listener);
+
+		rxCache.<String>fromKey("key")
+				.withStrategy(CacheStrategy.cacheOrAsync())
+				.withAsync(Single.just("async"))
+				.fetch()
+				.test()
+				.assertValue("async");
+		rxCache.<String>fromKey("key")
+				.withStrategy(CacheStrategy.cacheOrAsync())
+				.fetch()
+				.test()
+				.assertValue("async");
+		storage.clear(null, "");
+
+		List<CacheEvent.Type> types = new ArrayList<>();
+		for (List<CacheEvent> batch : batches) {
+			for (CacheEvent event : batch) {
+				types.add(event.getType());
+			}
+		}
+		assertEquals("[MISS, LOAD_START, PUT, LOAD_END, HIT, CLEAR]", types.toString());
+		assertEquals(42, batches.get(2).get(0).getSize());
+		assertEquals(1, batches.get(5).get(0).getCount());
+	}
+
+	@Test
+	public void testObservedStorage_sizeUnknownByDefault() throws Exception {
+		CacheEventDispatcher dispatcher = new CacheEventDispatcher()
+				.withScheduler(Schedulers.trampoline())
+				.withBatchWindow(0, TimeUnit.MILLISECONDS);
+		dispatcher.addListener(listener);
+		ObservedStorage storage = new ObservedStorage(new InMemoryStorage(false), dispatcher);
+
+		storage.put(null, "key", new CacheWrapper<>("value"));
+
+		assertEquals(1, batches.size());
+		assertEquals(CacheEvent.Type.PUT, batches.get(0).get(0).getType());
+		assertEquals(-1, batches.get(0).get(0).getSize());
+	}
+
+}
@@ -0,0 +1,117 @@
+package fr.beapp.cache.scheduler;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Completable;
+import io.reactivex.functions.Action;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StorageSchedulerTest {
+
+	@Test
+	public void testLanes() throws Exception {
+		StorageScheduler storageScheduler = new StorageScheduler(2);
+		assertEquals(2, storageScheduler.getReadLane().getParallelism());
+		assertEquals(1, storageScheduler.getWriteLane().getParallelism());
+
+		final CountDownLatch release = new CountDownLatch(1);
+		Action blockingWrite = new Action() {
+			@Override
+			public void run() throws Exception {
+				release.await(1, TimeUnit.SECONDS);
+			}
+		};
+
+		Completable.fromAction(blockingWrite).subscribeOn(storageScheduler.writes()).subscribe();
+		Completable.fromAction(blockingWrite).subscribeOn(storageScheduler.writes()).subscribe();
+		Thread.sleep(50);
+		assertEquals(1, storageScheduler.getWriteLane().getQueueDepth());
+
+		release.countDown();
+		Completable.complete().subscribeOn(storageScheduler.writes()).blockingAwait();
+		assertEquals(3, storageScheduler.getWriteLane().getStartedTasks());
+		assertTrue(storageScheduler.getWriteLane().getMaxWaitMillis() > 0);
+	}
+
+	@Test
+	public void testReads_priorities() throws Exception {
+		StorageScheduler storageScheduler = new StorageScheduler(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		Completable.fromAction(new Action() {
+			@Override
+			public void run() throws Exception {
+				release.await(1, TimeUnit.SECONDS);
+			}
+		}).subscribeOn(storageScheduler.reads()).subscribe();
+		Thread.sleep(50);
+
+		final List<Priority> order = Collections.synchronizedList(new ArrayList<Priority>());
+		Completable background = recordRun(order, Priority.BACKGROUND).subscribeOn(storageScheduler.reads(Priority.BACKGROUND)).cache();
+		background.subscribe();
+		recordRun(order, Priority.NORMAL).subscribeOn(storageScheduler.reads(Priority.NORMAL)).subscribe();
+		recordRun(order, Priority.IMMEDIATE).subscribeOn(storageScheduler.reads(Priority.IMMEDIATE)).subscribe();
+		assertEquals(1, storageScheduler.getReadLane().getQueueDepth(Priority.IMMEDIATE));
+		assertEquals(3, storageScheduler.getReadLane().getQueueDepth());
+
+		release.countDown();
+		background.blockingAwait();
+		assertEquals(Arrays.asList(Priority.IMMEDIATE, Priority.NORMAL, Priority.BACKGROUND), order);
+		assertEquals(1, storageScheduler.getReadLane().getStartedTasks(Priority.BACKGROUND));
+		assertEquals(2, storageScheduler.getReadLane().getStartedTasks(Priority.NORMAL));
+		assertTrue(storageScheduler.getReadLane().getMaxWaitMillis(Priority.BACKGROUND) > storageScheduler.getReadLane().getMaxWaitMillis(Priority.IMMEDIATE));
+	}
+
+	@Test
+	public void testReads_backgroundThrottling() throws Exception {
+		StorageScheduler storageScheduler = new StorageScheduler(3, 1);
+		final CountDownLatch releaseForeground = new CountDownLatch(1);
+		final CountDownLatch releaseBackground = new CountDownLatch(1);
+		final AtomicInteger runningBackground = new AtomicInteger();
+		Completable.fromAction(new Action() {
+			@Override
+			public void run() throws Exception {
+				releaseForeground.await(1, TimeUnit.SECONDS);
+			}
+		}).subscribeOn(storageScheduler.reads()).subscribe();
+
+		Completable backgroundTask = Completable.fromAction(new Action() {
+			@Override
+			public void run() throws Exception {
+				runningBackground.incrementAndGet();
+				releaseBackground.await(1, TimeUnit.SECONDS);
+			}
+		});
+		for (int i = 0; i < 3; i++) {
+			backgroundTask.subscribeOn(storageScheduler.reads(Priority.BACKGROUND)).subscribe();
+		}
+		Thread.sleep(50);
+		assertEquals(1, runningBackground.get());
+		assertEquals(2, storageScheduler.getReadLane().getQueueDepth(Priority.BACKGROUND));
+
+		// Once foreground work is done, background work may use all threads
+		releaseForeground.countDown();
+		Thread.sleep(50);
+		assertEquals(3, runningBackground.get());
+		releaseBackground.countDown();
+	}
+
+	private static Completable recordRun(final List<Priority> order, final Priority priority) {
+		return Completable.fromAction(new Action() {
+			@Override
+			public void run() throws Exception {
+				order.add(priority);
+			}
+		});
+	}
+
+}
@@ -0,0 +1,98 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import fr.beapp.cache.CacheWrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AbstractStorageTest {
+
+	private final Storage storage = new MinimalStorage();
+
+	@Test
+	public void testDefaults() throws Exception {
+		storage.open();
+		storage.put(null, "key1", new CacheWrapper<>(1000, "value1"));
+		storage.put("session1", "key1", new CacheWrapper<>(1000, "value1"));
+
+		assertEquals(2, storage.count(new String[]{"", "session1"}));
+		assertTrue(storage.keys(null, "").isEmpty());
+		assertEquals(Storage.NO_VERSION, storage.getVersion(null, "key1"));
+		assertEquals("default", storage.get(null, "unknownKey", String.class, "default").getData());
+
+		assertTrue(storage.touch(null, "key1", 2000));
+		assertFalse(storage.touch(null, "unknownKey", 2000));
+		assertEquals(new CacheWrapper<>(2000, "value1"), storage.get(null, "key1", String.class));
+
+		storage.clear(new String[]{"session1"});
+		assertEquals(1, storage.count());
+	}
+
+	/**
+	 * A storage implementing only what {@link AbstractStorage} can't provide
+	 */
+	private static class MinimalStorage extends AbstractStorage {
+		private final Map<String, CacheWrapper<?>> entries = new HashMap<>();
+
+		@Override
+		public int count() {
+			return entries.size();
+		}
+
+		@Override
+		public int count(@Nullable String session, @NotNull String keyPrefix) {
+			int count = 0;
+			for (String key : entries.keySet()) {
+				if (key.startsWith(StorageKeys.resolve(session, keyPrefix))) {
+					count++;
+				}
+			}
+			return count;
+		}
+
+		@Override
+		public void clear() {
+			entries.clear();
+		}
+
+		@Override
+		public void clear(@Nullable String session, @NotNull String keyPrefix) {
+			for (String key : new HashMap<>(entries).keySet()) {
+				if (key.startsWith(StorageKeys.resolve(session, keyPrefix))) {
+					entries.remove(key);
+				}
+			}
+		}
+
+		@Override
+		public void delete(@Nullable String session, @NotNull String key) {
+			entries.remove(StorageKeys.resolve(session, key));
+		}
+
+		@Override
+		public <T> void put(@Nullable String session, @NotNull String key, @Nullable CacheWrapper<T> value) {
+			entries.put(StorageKeys.resolve(session, key), value);
+		}
+
+		@Nullable
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> CacheWrapper<T> get(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz) {
+			return (CacheWrapper<T>) entries.get(StorageKeys.resolve(session, key));
+		}
+
+		@Override
+		public boolean exists(@Nullable String session, @NotNull String key) {
+			return entries.containsKey(StorageKeys.resolve(session, key));
+		}
+	}
+
+}
@@ -0,0 +1,156 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import fr.beapp.cache.CacheWrapper;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncStorageAdapterTest {
+
+	private final List<String> readThreads = new CopyOnWriteArrayList<>();
+	private final List<String> writeThreads = new CopyOnWriteArrayList<>();
+
+	private ExecutorService readExecutor;
+	private ExecutorService writeExecutor;
+	private AsyncStorageAdapter asyncStorage;
+
+	@Before
+	public void setUp() throws Exception {
+		readExecutor = Executors.newSingleThreadExecutor(namedThreadFactory("test-read"));
+		writeExecutor = Executors.newSingleThreadExecutor(namedThreadFactory("test-write"));
+		Scheduler readScheduler = Schedulers.from(readExecutor);
+		Scheduler writeScheduler = Schedulers.from(writeExecutor);
+
+		Storage storage = new DelegatingStorage(new InMemoryStorage(false)) {
+			@Override
+			public int count(@Nullable String session, @NotNull String keyPrefix) {
+				readThreads.add(Thread.currentThread().getName());
+				return super.count(session, keyPrefix);
+			}
+
+			@Nullable
+			@Override
+			public <T> CacheWrapper<T> get(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz) {
+				readThreads.add(Thread.currentThread().getName());
+				return super.get(session, key, clazz);
+			}
+
+			@Override
+			public boolean exists(@Nullable String session, @NotNull String key) {
+				readThreads.add(Thread.currentThread().getName());
+				return super.exists(session, key);
+			}
+
+			@Override
+			public <T> void put(@Nullable String session, @NotNull String key, @Nullable CacheWrapper<T> value) {
+				writeThreads.add(Thread.currentThread().getName());
+				super.put(session, key, value);
+			}
+
+			@Override
+			public void delete(@Nullable String session, @NotNull String key) {
+				writeThreads.add(Thread.currentThread().getName());
+				super.delete(session, key);
+			}
+
+			@Override
+			public boolean touch(@Nullable String session, @NotNull String key, long cachedDate) {
+				writeThreads.add(Thread.currentThread().getName());
+				return super.touch(session, key, cachedDate);
+			}
+		};
+		asyncStorage = new AsyncStorageAdapter(storage, readScheduler, writeScheduler);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		readExecutor.shutdownNow();
+		writeExecutor.shutdownNow();
+	}
+
+	@Test
+	public void testAdapt() throws Exception {
+		Storage storage = new InMemoryStorage(false);
+		AsyncStorage adapted = AsyncStorageAdapter.adapt(storage, Schedulers.trampoline(), Schedulers.trampoline());
+		assertTrue(adapted instanceof AsyncStorageAdapter);
+		assertSame(storage, ((AsyncStorageAdapter) adapted).getStorage());
+	}
+
+	@Test
+	public void testPutThenGet() throws Exception {
+		asyncStorage.putAsync("session", "key", new CacheWrapper<>("value")).blockingAwait();
+
+		CacheWrapper<String> cached = asyncStorage.getAsync("session", "key", String.class).blockingGet();
+		assertEquals("value", cached.getData());
+		assertNull(asyncStorage.getAsync("session", "otherKey", String.class).blockingGet());
+		assertTrue(asyncStorage.existsAsync("session", "key").blockingGet());
+
+		assertThreads(readThreads, "test-read", 3);
+		assertThreads(writeThreads, "test-write", 1);
+	}
+
+	@Test
+	public void testDelete() throws Exception {
+		asyncStorage.putAsync(null, "key", new CacheWrapper<>("value")).blockingAwait();
+		asyncStorage.deleteAsync(null, "key").blockingAwait();
+
+		assertFalse(asyncStorage.existsAsync(null, "key").blockingGet());
+		assertThreads(writeThreads, "test-write", 2);
+	}
+
+	@Test
+	public void testCount() throws Exception {
+		asyncStorage.putAsync(null, "key1", new CacheWrapper<>("value1")).blockingAwait();
+		asyncStorage.putAsync(null, "key2", new CacheWrapper<>("value2")).blockingAwait();
+		asyncStorage.putAsync("session", "key3", new CacheWrapper<>("value3")).blockingAwait();
+
+		assertEquals(2, asyncStorage.countAsync(null, "key").blockingGet().intValue());
+		assertEquals(1, asyncStorage.countAsync(null, "key1").blockingGet().intValue());
+		assertEquals(1, asyncStorage.countAsync("session", "").blockingGet().intValue());
+		assertThreads(readThreads, "test-read", 3);
+	}
+
+	@Test
+	public void testTouch() throws Exception {
+		asyncStorage.putAsync(null, "key", new CacheWrapper<>(1000, "value")).blockingAwait();
+
+		assertTrue(asyncStorage.touchAsync(null, "key", 2000).blockingGet());
+		assertFalse(asyncStorage.touchAsync(null, "otherKey", 2000).blockingGet());
+		assertEquals(2000, asyncStorage.getAsync(null, "key", String.class).blockingGet().getCachedDate());
+		assertThreads(writeThreads, "test-write", 3);
+	}
+
+	private static void assertThreads(@NotNull List<String> threads, @NotNull String expectedThread, int expectedCount) {
+		assertEquals(expectedCount, threads.size());
+		for (String thread : threads) {
+			assertEquals(expectedThread, thread);
+		}
+	}
+
+	private static ThreadFactory namedThreadFactory(@NotNull final String name) {
+		return new ThreadFactory() {
+			@Override
+			public Thread newThread(@NotNull Runnable runnable) {
+				return new Thread(runnable, name);
+			}
+		};
+	}
+
+}
@@ -0,0 +1,54 @@
+package fr.beapp.cache.storage;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Stress a {@link Storage} implementation with concurrent mixed workloads, see {@link StorageStressHarness}.
+ * <br/>
+ * Reports are printed when running with <code>-Dcache.stress.verbose=true</code>, so implementations can be compared. Override {@link #buildWorkload()} to adapt the load to slower storages.
+ */
+public abstract class BaseStorageStressTest {
+
+	protected abstract Storage buildStorage() throws Exception;
+
+	protected StorageStressHarness.Workload buildWorkload() {
+		return new StorageStressHarness.Workload();
+	}
+
+	@Test
+	public void testStress_uniform() throws Exception {
+		assertConsistent(buildWorkload()
+				.withKeys(200, StorageStressHarness.KeyDistribution.UNIFORM));
+	}
+
+	@Test
+	public void testStress_zipf() throws Exception {
+		assertConsistent(buildWorkload()
+				.withKeys(200, StorageStressHarness.KeyDistribution.ZIPF));
+	}
+
+	@Test
+	public void testStress_writeHeavy() throws Exception {
+		assertConsistent(buildWorkload()
+				.withKeys(20, StorageStressHarness.KeyDistribution.ZIPF)
+				.withRatios(20, 60, 15, 5));
+	}
+
+	protected StorageStressHarness.Report assertConsistent(StorageStressHarness.Workload workload) throws Exception {
+		Storage storage = buildStorage();
+		StorageStressHarness.Report report = new StorageStressHarness(storage).run(workload);
+		if (Boolean.getBoolean("cache.stress.verbose")) {
+			System.out.println(getClass().getSimpleName() + " " + report);
+		}
+
+		assertTrue(report.getOperations() > 0);
+		assertEquals("Lost puts", 0, report.getLostPuts());
+		assertEquals("Stale reads after delete", 0, report.getStaleReads());
+		assertEquals("Corrupt reads", 0, report.getCorruptReads());
+		return report;
+	}
+
+}
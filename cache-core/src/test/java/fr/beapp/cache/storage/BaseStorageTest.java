@@ -5,6 +5,9 @@ import org.junit.Test;
 import fr.beapp.cache.CacheWrapper;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 
 public abstract class BaseStorageTest {
 
@@ -80,6 +83,43 @@ public abstract class BaseStorageTest {
 		assertEquals(2, storage.count());
 	}
 
+	@Test
+	public void testTouch() throws Exception {
+		long cachedDate = System.currentTimeMillis();
+		Storage storage = getStorage(cachedDate);
+
+		assertTrue(storage.touch("session1", "key1", cachedDate + 1000));
+		assertFalse(storage.touch("session1", "unknownKey", cachedDate + 1000));
+		assertEquals(new CacheWrapper<>(cachedDate + 1000, "session1Value1"), storage.get("session1", "key1", String.class));
+		assertEquals(new CacheWrapper<>(cachedDate, "globalValue1"), storage.get(null, "key1", String.class));
+		assertEquals(6, storage.count());
+
+		storage.put("session1", "key1", new CacheWrapper<>(cachedDate, "session1Value1"));
+		assertEquals(new CacheWrapper<>(cachedDate, "session1Value1"), storage.get("session1", "key1", String.class));
+	}
+
+	@Test
+	public void testVersion() throws Exception {
+		long cachedDate = System.currentTimeMillis();
+		Storage storage = getStorage(cachedDate);
+
+		long version = storage.getVersion("session1", "key1");
+		assertNotEquals(Storage.NO_VERSION, version);
+		assertEquals(version, storage.getVersion("session1", "key1"));
+		assertNotEquals(version, storage.getVersion(null, "key1"));
+		assertEquals(Storage.NO_VERSION, storage.getVersion("session1", "unknownKey"));
+
+		storage.touch("session1", "key1", cachedDate + 1000);
+		long touchedVersion = storage.getVersion("session1", "key1");
+		assertNotEquals(version, touchedVersion);
+
+		storage.put("session1", "key1", new CacheWrapper<>(cachedDate, "session1Value1"));
+		assertNotEquals(touchedVersion, storage.getVersion("session1", "key1"));
+
+		storage.delete("session1", "key1");
+		assertEquals(Storage.NO_VERSION, storage.getVersion("session1", "key1"));
+	}
+
 	private Storage getStorage(long cachedDate) throws Exception {
 		Storage storage = buildStorage();
 		storage.put(null, "globalKey", new CacheWrapper<>(cachedDate, "globalValue"));
@@ -0,0 +1,169 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import fr.beapp.cache.CacheWrapper;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BlobStorageTest extends BaseStorageTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Override
+	protected Storage buildStorage() throws Exception {
+		// Small enough for most values of the base tests to be stored as blobs
+		return new BlobStorage(new InMemoryStorage(false), temporaryFolder.newFolder(), 16);
+	}
+
+	@Test
+	public void testPut_largeBytes() throws Exception {
+		InMemoryStorage inMemoryStorage = new InMemoryStorage(false);
+		BlobStorage storage = new BlobStorage(inMemoryStorage, temporaryFolder.newFolder(), 1024);
+		byte[] bytes = buildBytes(100 * 1024);
+		storage.put(null, "key", new CacheWrapper<>(42, bytes, "etag", null));
+
+		CacheWrapper<Object> reference = inMemoryStorage.get(null, "key", Object.class);
+		assertTrue(reference.getData() instanceof BlobStorage.BlobReference);
+		assertEquals(bytes.length, ((BlobStorage.BlobReference) reference.getData()).getLength());
+		assertEquals(1, storage.getBlobWrites());
+
+		CacheWrapper<byte[]> value = storage.get(null, "key", byte[].class);
+		assertArrayEquals(bytes, value.getData());
+		assertEquals(42, value.getCachedDate());
+		assertEquals("etag", value.getEtag());
+
+		CacheWrapper<InputStream> stream = storage.getStream(null, "key");
+		byte[] streamedBytes = new byte[bytes.length];
+		new DataInputStream(stream.getData()).readFully(streamedBytes);
+		assertEquals(-1, stream.getData().read());
+		stream.getData().close();
+		assertArrayEquals(bytes, streamedBytes);
+	}
+
+	@Test
+	public void testPut_smallValues() throws Exception {
+		InMemoryStorage inMemoryStorage = new InMemoryStorage(false);
+		File directory = temporaryFolder.newFolder();
+		BlobStorage storage = new BlobStorage(inMemoryStorage, directory, 1024);
+		storage.put(null, "bytes", new CacheWrapper<>(new byte[]{1, 2, 3}));
+		storage.put(null, "string", new CacheWrapper<>("value"));
+
+		assertEquals(0, storage.getBlobWrites());
+		assertEquals(0, directory.list().length);
+		assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) inMemoryStorage.get(null, "bytes", Object.class).getData());
+		assertArrayEquals(new byte[]{1, 2, 3}, readFully(storage.getStream(null, "bytes").getData(), 3));
+		assertNull(storage.getStream(null, "string"));
+	}
+
+	@Test
+	public void testPut_replaceAndDelete() throws Exception {
+		File directory = temporaryFolder.newFolder();
+		BlobStorage storage = new BlobStorage(new InMemoryStorage(false), directory, 1024);
+		storage.put("session", "key", new CacheWrapper<>(buildBytes(2048)));
+		storage.put("session", "key", new CacheWrapper<>(buildBytes(4096)));
+		assertEquals(1, directory.list().length);
+		assertEquals(4096, storage.get("session", "key", byte[].class).getData().length);
+
+		storage.put("session", "key", new CacheWrapper<>(new byte[]{1}));
+		assertEquals(0, directory.list().length);
+
+		storage.put("session", "key", new CacheWrapper<>(buildBytes(2048)));
+		storage.delete("session", "key");
+		assertEquals(0, directory.list().length);
+		assertNull(storage.get("session", "key", byte[].class));
+
+		storage.put("session", "key", new CacheWrapper<>(buildBytes(2048)));
+		storage.clear("session");
+		assertEquals(0, directory.list().length);
+	}
+
+	@Test
+	public void testGet_replacedBlob() throws Exception {
+		InMemoryStorage inMemoryStorage = new InMemoryStorage(false);
+		BlobStorage storage = new BlobStorage(inMemoryStorage, temporaryFolder.newFolder(), 1024);
+		storage.put(null, "key", new CacheWrapper<>(buildBytes(2048)));
+		CacheWrapper<Object> previousReference = inMemoryStorage.get(null, "key", Object.class);
+		storage.put(null, "key", new CacheWrapper<>(buildBytes(4096)));
+
+		// A reference read before the last write must not be resolved with the new blob
+		inMemoryStorage.put(null, "key", previousReference);
+		assertNull(storage.get(null, "key", byte[].class));
+		assertEquals(1, storage.getMissingBlobs());
+	}
+
+	@Test
+	public void testOpen_removesTemporaryFiles() throws Exception {
+		File directory = temporaryFolder.newFolder();
+		assertTrue(new File(directory, "interrupted.blob_1.tmp").createNewFile());
+
+		new BlobStorage(new InMemoryStorage(false), directory, 1024).open();
+		assertFalse(new File(directory, "interrupted.blob_1.tmp").exists());
+	}
+
+	@Test
+	public void testPut_customSerializer() throws Exception {
+		InMemoryStorage inMemoryStorage = new InMemoryStorage(false);
+		BlobStorage storage = new BlobStorage(inMemoryStorage, temporaryFolder.newFolder(), 16)
+				.withSerializer(new ValueSerializer() {
+					@Override
+					public boolean accepts(@Nullable Object data) {
+						return data instanceof NotSerializableValue;
+					}
+
+					@Override
+					public void serialize(@Nullable Object data, @NotNull OutputStream output) throws IOException {
+						new DataOutputStream(output).writeUTF(((NotSerializableValue) data).value);
+					}
+
+					@Override
+					public Object deserialize(@NotNull InputStream input) throws IOException {
+						return new NotSerializableValue(new DataInputStream(input).readUTF());
+					}
+				});
+		storage.put(null, "key", new CacheWrapper<>(new NotSerializableValue("a value larger than the threshold")));
+
+		assertTrue(inMemoryStorage.get(null, "key", Object.class).getData() instanceof BlobStorage.BlobReference);
+		assertEquals("a value larger than the threshold", storage.get(null, "key", NotSerializableValue.class).getData().value);
+	}
+
+	private static byte[] buildBytes(int length) {
+		byte[] bytes = new byte[length];
+		Arrays.fill(bytes, (byte) 7);
+		bytes[length - 1] = 1;
+		return bytes;
+	}
+
+	private static byte[] readFully(InputStream stream, int length) throws Exception {
+		byte[] bytes = new byte[length];
+		new DataInputStream(stream).readFully(bytes);
+		stream.close();
+		return bytes;
+	}
+
+	private static class NotSerializableValue {
+		private final String value;
+
+		private NotSerializableValue(@NotNull String value) {
+			this.value = value;
+		}
+	}
+
+}
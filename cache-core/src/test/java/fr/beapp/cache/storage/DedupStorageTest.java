@@ -0,0 +1,146 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import fr.beapp.cache.CacheWrapper;
+import io.reactivex.schedulers.Schedulers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DedupStorageTest extends BaseStorageTest {
+
+	@Override
+	protected Storage buildStorage() throws Exception {
+		// Deduplicate every value of the base tests
+		return new DedupStorage(new InMemoryStorage(false))
+				.withMinBytes(0)
+				.withCollectScheduler(Schedulers.trampoline());
+	}
+
+	@Test
+	public void testPut_samePayload() throws Exception {
+		InMemoryStorage inMemoryStorage = new InMemoryStorage(false);
+		DedupStorage storage = buildDedupStorage(inMemoryStorage);
+		storage.put("session", "first", new CacheWrapper<>(42, buildPayload("value"), "etag", null));
+		storage.put("other", "second", new CacheWrapper<>(buildPayload("value")));
+
+		assertEquals(1, inMemoryStorage.count(DedupStorage.PAYLOADS_SESSION, "payload_"));
+		assertEquals(1, storage.getDedupHits());
+		assertTrue(storage.getSavedBytes() > 0);
+		assertTrue(inMemoryStorage.get("session", "first", Object.class).getData() instanceof DedupStorage.PayloadReference);
+		assertEquals(2, storage.count());
+
+		CacheWrapper<Object> value = storage.get("session", "first", Object.class);
+		assertEquals(buildPayload("value"), value.getData());
+		assertEquals(42, value.getCachedDate());
+		assertEquals("etag", value.getEtag());
+		assertEquals(buildPayload("value"), storage.get("other", "second", ArrayList.class).getData());
+	}
+
+	@Test
+	public void testPut_releasesPayloads() throws Exception {
+		InMemoryStorage inMemoryStorage = new InMemoryStorage(false);
+		DedupStorage storage = buildDedupStorage(inMemoryStorage);
+		storage.put("session", "first", new CacheWrapper<>(buildPayload("value")));
+		storage.put("session", "second", new CacheWrapper<>(buildPayload("value")));
+
+		storage.put("session", "first", new CacheWrapper<>(buildPayload("other")));
+		assertEquals(2, inMemoryStorage.count(DedupStorage.PAYLOADS_SESSION, "payload_"));
+		assertEquals(0, storage.getCollectedPayloads());
+
+		storage.delete("session", "second");
+		assertEquals(1, inMemoryStorage.count(DedupStorage.PAYLOADS_SESSION, "payload_"));
+		assertEquals(1, storage.getCollectedPayloads());
+
+		storage.clear("session");
+		assertEquals(0, inMemoryStorage.count(DedupStorage.PAYLOADS_SESSION, ""));
+		assertEquals(2, storage.getCollectedPayloads());
+		assertNull(storage.get("session", "first", ArrayList.class));
+	}
+
+	@Test
+	public void testPut_smallValues() throws Exception {
+		InMemoryStorage inMemoryStorage = new InMemoryStorage(false);
+		DedupStorage storage = new DedupStorage(inMemoryStorage).withCollectScheduler(Schedulers.trampoline());
+		storage.put(null, "first", new CacheWrapper<>("value"));
+		storage.put(null, "second", new CacheWrapper<>("value"));
+
+		assertEquals(0, inMemoryStorage.count(DedupStorage.PAYLOADS_SESSION, ""));
+		assertEquals("value", inMemoryStorage.get(null, "first", Object.class).getData());
+		assertEquals(0, storage.getDedupHits());
+	}
+
+	@Test
+	public void testOpen_collectsUnreferencedPayloads() throws Exception {
+		InMemoryStorage inMemoryStorage = new InMemoryStorage(false);
+		DedupStorage storage = buildDedupStorage(inMemoryStorage);
+		storage.put(null, "key", new CacheWrapper<>(buildPayload("value")));
+
+		// As if the previous run stopped before collecting
+		inMemoryStorage.put(DedupStorage.PAYLOADS_SESSION, "payload_orphan", new CacheWrapper<>(0, "orphan"));
+		inMemoryStorage.put(DedupStorage.PAYLOADS_SESSION, "references_orphan", new CacheWrapper<>(0L));
+
+		storage.open();
+		assertNull(inMemoryStorage.get(DedupStorage.PAYLOADS_SESSION, "payload_orphan", Object.class));
+		assertEquals(1, storage.getCollectedPayloads());
+		assertEquals(buildPayload("value"), storage.get(null, "key", ArrayList.class).getData());
+	}
+
+	@Test
+	public void testOpen_repairsReferenceCounts() throws Exception {
+		InMemoryStorage inMemoryStorage = new InMemoryStorage(false);
+		DedupStorage storage = buildDedupStorage(inMemoryStorage);
+		storage.put(null, "first", new CacheWrapper<>(buildPayload("value")));
+		storage.put(null, "second", new CacheWrapper<>(buildPayload("value")));
+
+		// As if the previous run stopped in the middle of deleting a key, and of writing an unreferenced payload
+		inMemoryStorage.delete(null, "first");
+		inMemoryStorage.put(DedupStorage.PAYLOADS_SESSION, "payload_interrupted", new CacheWrapper<>(0, "interrupted"));
+
+		storage.open();
+		assertEquals(1, storage.readReferences(storage.readIndex(null, "second")));
+		assertNull(storage.readIndex(null, "first"));
+		assertNull(inMemoryStorage.get(DedupStorage.PAYLOADS_SESSION, "payload_interrupted", Object.class));
+
+		storage.delete(null, "second");
+		assertEquals(0, inMemoryStorage.count(DedupStorage.PAYLOADS_SESSION, ""));
+	}
+
+	@Test
+	public void testPut_customSerializer() throws Exception {
+		InMemoryStorage inMemoryStorage = new InMemoryStorage(false);
+		DedupStorage storage = buildDedupStorage(inMemoryStorage).withSerializer(new JavaValueSerializer() {
+			@Override
+			public boolean accepts(@Nullable Object data) {
+				return data instanceof String;
+			}
+		});
+		storage.put(null, "first", new CacheWrapper<>("value"));
+		storage.put(null, "second", new CacheWrapper<>("value"));
+		storage.put(null, "list", new CacheWrapper<>(buildPayload("value")));
+
+		assertEquals(1, inMemoryStorage.count(DedupStorage.PAYLOADS_SESSION, "payload_"));
+		assertEquals(1, storage.getDedupHits());
+		assertEquals("value", storage.get(null, "second", String.class).getData());
+	}
+
+	private static DedupStorage buildDedupStorage(InMemoryStorage inMemoryStorage) {
+		return new DedupStorage(inMemoryStorage)
+				.withMinBytes(0)
+				.withCollectScheduler(Schedulers.trampoline());
+	}
+
+	private static ArrayList<String> buildPayload(String value) {
+		ArrayList<String> payload = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			payload.add(value + i);
+		}
+		return payload;
+	}
+
+}
@@ -0,0 +1,107 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Test;
+
+import fr.beapp.cache.CacheWrapper;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.TestScheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GenerationalStorageTest extends BaseStorageTest {
+
+	@Override
+	protected Storage buildStorage() throws Exception {
+		return new GenerationalStorage(new InMemoryStorage(false))
+				.withReclaimScheduler(Schedulers.trampoline());
+	}
+
+	@Test
+	public void testClear_bumpsGeneration() throws Exception {
+		InMemoryStorage inMemoryStorage = new InMemoryStorage(false);
+		TestScheduler reclaimScheduler = new TestScheduler();
+		GenerationalStorage storage = new GenerationalStorage(inMemoryStorage).withReclaimScheduler(reclaimScheduler);
+
+		storage.put("session1", "key", new CacheWrapper<>("value"));
+		assertEquals(0, storage.getGeneration("session1"));
+		assertTrue(inMemoryStorage.exists("session1", "key"));
+
+		storage.clear("session1");
+		assertEquals(1, storage.getGeneration("session1"));
+		assertNull(storage.get("session1", "key", String.class));
+		assertEquals(1, storage.getPendingReclaims());
+		assertTrue(inMemoryStorage.exists("session1", "key"));
+
+		storage.put("session1", "key", new CacheWrapper<>("newValue"));
+		assertEquals("newValue", storage.get("session1", "key", String.class).getData());
+
+		reclaimScheduler.triggerActions();
+		assertFalse(inMemoryStorage.exists("session1", "key"));
+		assertEquals(0, storage.getPendingReclaims());
+		assertEquals(1, storage.getReclaimedGenerations());
+		assertEquals("newValue", storage.get("session1", "key", String.class).getData());
+	}
+
+	@Test
+	public void testOpen_resumesReclaim() throws Exception {
+		InMemoryStorage inMemoryStorage = new InMemoryStorage(false);
+		GenerationalStorage storage = new GenerationalStorage(inMemoryStorage).withReclaimScheduler(new TestScheduler());
+		storage.put(null, "key", new CacheWrapper<>("value"));
+		storage.clear("");
+
+		// A new instance, as after a process restart, knows the generation and resumes pending removals
+		GenerationalStorage newStorage = new GenerationalStorage(inMemoryStorage).withReclaimScheduler(Schedulers.trampoline());
+		assertEquals(1, newStorage.getGeneration(null));
+		newStorage.open();
+		assertFalse(inMemoryStorage.exists(null, "key"));
+		assertEquals(0, newStorage.getPendingReclaims());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testPut_generationLikeSession() throws Exception {
+		GenerationalStorage storage = new GenerationalStorage(new InMemoryStorage(false)).withReclaimScheduler(Schedulers.trampoline());
+		storage.clear("session");
+
+		// Would be stored in the same physical session as the current generation of "session"
+		storage.put("session@g1", "key", new CacheWrapper<>("value"));
+	}
+
+	@Test
+	public void testPut_sessionWithSeparator() throws Exception {
+		GenerationalStorage storage = new GenerationalStorage(new InMemoryStorage(false)).withReclaimScheduler(Schedulers.trampoline());
+		storage.put("user@gmail.com", "key", new CacheWrapper<>("value"));
+		storage.put("session@g", "key", new CacheWrapper<>("value"));
+
+		assertEquals("value", storage.get("user@gmail.com", "key", String.class).getData());
+		assertEquals("value", storage.get("session@g", "key", String.class).getData());
+	}
+
+	@Test
+	public void testPut_clearedMeanwhile() throws Exception {
+		final GenerationalStorage[] storageHolder = new GenerationalStorage[1];
+		InMemoryStorage inMemoryStorage = new InMemoryStorage(false) {
+			@Override
+			public synchronized <T> void put(@Nullable String session, @NotNull String key, @Nullable CacheWrapper<T> value) {
+				if ("racingKey".equals(key) && "session".equals(session)) {
+					// The session is cleared and reclaimed while this put is in progress
+					storageHolder[0].clear("session");
+				}
+				super.put(session, key, value);
+			}
+		};
+		GenerationalStorage storage = new GenerationalStorage(inMemoryStorage).withReclaimScheduler(Schedulers.trampoline());
+		storageHolder[0] = storage;
+
+		storage.put("session", "racingKey", new CacheWrapper<>("value"));
+
+		assertEquals(1, storage.getGeneration("session"));
+		assertEquals(0, inMemoryStorage.count("session", ""));
+		assertNull(storage.get("session", "racingKey", String.class));
+	}
+
+}
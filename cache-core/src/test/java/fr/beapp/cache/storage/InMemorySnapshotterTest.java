@@ -0,0 +1,168 @@
+package fr.beapp.cache.storage;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+import fr.beapp.cache.CacheWrapper;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.TestScheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class InMemorySnapshotterTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testSnapshotRestore() throws Exception {
+		File file = new File(temporaryFolder.getRoot(), "cache.snapshot");
+		InMemoryStorage storage = new InMemoryStorage(false);
+		storage.put(null, "key1", new CacheWrapper<>(1000, "globalValue1", "etag", "lastModified"));
+		storage.put("session1", "key1", new CacheWrapper<>(2000, "session1Value1"));
+		storage.put("session1", "notSerializable", new CacheWrapper<>(new Object()));
+
+		InMemorySnapshotter snapshotter = new InMemorySnapshotter(storage, file).withScheduler(Schedulers.trampoline());
+		snapshotter.snapshot().blockingAwait();
+		assertEquals(2, snapshotter.getSnapshotEntries());
+		assertTrue(file.exists());
+
+		InMemoryStorage restoredStorage = new InMemoryStorage(false);
+		InMemorySnapshotter restorer = new InMemorySnapshotter(restoredStorage, file).withScheduler(Schedulers.trampoline());
+		restorer.restore().blockingAwait();
+
+		assertEquals(2, restorer.getRestoredEntries());
+		assertEquals(2, restoredStorage.count());
+		CacheWrapper<String> value = restoredStorage.get(null, "key1", String.class);
+		assertEquals(new CacheWrapper<>(1000, "globalValue1"), value);
+		assertEquals("etag", value.getEtag());
+		assertEquals("lastModified", value.getLastModified());
+		assertEquals(new CacheWrapper<>(2000, "session1Value1"), restoredStorage.get("session1", "key1", String.class));
+	}
+
+	@Test
+	public void testRestore_skipsExpiredAndExistingEntries() throws Exception {
+		File file = new File(temporaryFolder.getRoot(), "cache.snapshot");
+		long now = System.currentTimeMillis();
+		InMemoryStorage storage = new InMemoryStorage(false);
+		storage.put(null, "expired", new CacheWrapper<>(now - TimeUnit.HOURS.toMillis(2), "value"));
+		storage.put(null, "fresh", new CacheWrapper<>(now, "value"));
+		storage.put(null, "existing", new CacheWrapper<>(now, "snapshotValue"));
+		new InMemorySnapshotter(storage, file).withScheduler(Schedulers.trampoline()).snapshot().blockingAwait();
+
+		InMemoryStorage restoredStorage = new InMemoryStorage(false);
+		restoredStorage.put(null, "existing", new CacheWrapper<>(now, "newValue"));
+		InMemorySnapshotter restorer = new InMemorySnapshotter(restoredStorage, file)
+				.withScheduler(Schedulers.trampoline())
+				.withMaxAge(1, TimeUnit.HOURS);
+		restorer.restore().blockingAwait();
+
+		assertEquals(1, restorer.getRestoredEntries());
+		assertEquals(2, restorer.getSkippedEntries());
+		assertNull(restoredStorage.get(null, "expired", String.class));
+		assertEquals("value", restoredStorage.get(null, "fresh", String.class).getData());
+		assertEquals("newValue", restoredStorage.get(null, "existing", String.class).getData());
+	}
+
+	@Test
+	public void testRestore_skipsEntriesPastTheirTtl() throws Exception {
+		File file = new File(temporaryFolder.getRoot(), "cache.snapshot");
+		long now = System.currentTimeMillis();
+		InMemoryStorage storage = new InMemoryStorage(false);
+		storage.put(null, "expired", new CacheWrapper<>(now - TimeUnit.MINUTES.toMillis(10), "value", null, null, CacheWrapper.NO_CONTENT_HASH, TimeUnit.MINUTES.toMillis(5)));
+		storage.put(null, "fresh", new CacheWrapper<>(now - TimeUnit.MINUTES.toMillis(10), "value", null, null, CacheWrapper.NO_CONTENT_HASH, TimeUnit.MINUTES.toMillis(20)));
+		new InMemorySnapshotter(storage, file).withScheduler(Schedulers.trampoline()).snapshot().blockingAwait();
+
+		InMemoryStorage restoredStorage = new InMemoryStorage(false);
+		InMemorySnapshotter restorer = new InMemorySnapshotter(restoredStorage, file).withScheduler(Schedulers.trampoline());
+		restorer.restore().blockingAwait();
+
+		assertEquals(1, restorer.getRestoredEntries());
+		assertEquals(1, restorer.getSkippedEntries());
+		assertFalse(restoredStorage.exists(null, "expired"));
+		assertTrue(restoredStorage.exists(null, "fresh"));
+	}
+
+	@Test
+	public void testRestore_skipsEntriesFailingDeserialization() throws Exception {
+		File file = new File(temporaryFolder.getRoot(), "cache.snapshot");
+		InMemoryStorage storage = new InMemoryStorage(false);
+		storage.put(null, "broken", new CacheWrapper<>(new BrokenData()));
+		storage.put(null, "key1", new CacheWrapper<>("value1"));
+		storage.put("session1", "key2", new CacheWrapper<>("value2"));
+		new InMemorySnapshotter(storage, file).withScheduler(Schedulers.trampoline()).snapshot().blockingAwait();
+
+		InMemoryStorage restoredStorage = new InMemoryStorage(false);
+		InMemorySnapshotter restorer = new InMemorySnapshotter(restoredStorage, file).withScheduler(Schedulers.trampoline());
+		restorer.restore().blockingAwait();
+
+		assertEquals(2, restorer.getRestoredEntries());
+		assertEquals(1, restorer.getSkippedEntries());
+		assertFalse(restoredStorage.exists(null, "broken"));
+		assertEquals("value1", restoredStorage.get(null, "key1", String.class).getData());
+		assertEquals("value2", restoredStorage.get("session1", "key2", String.class).getData());
+	}
+
+	@Test
+	public void testRestore_unknownFormat() throws Exception {
+		File file = new File(temporaryFolder.getRoot(), "cache.snapshot");
+		DataOutputStream output = new DataOutputStream(new FileOutputStream(file));
+		output.writeInt(InMemorySnapshotter.MAGIC);
+		output.writeInt(InMemorySnapshotter.FORMAT_VERSION + 1);
+		output.close();
+
+		InMemoryStorage storage = new InMemoryStorage(false);
+		new InMemorySnapshotter(storage, file).withScheduler(Schedulers.trampoline()).restore().blockingAwait();
+		assertEquals(0, storage.count());
+
+		new InMemorySnapshotter(storage, new File(temporaryFolder.getRoot(), "missing.snapshot")).withScheduler(Schedulers.trampoline()).restore().blockingAwait();
+		assertEquals(0, storage.count());
+	}
+
+	@Test
+	public void testScheduleSnapshots() throws Exception {
+		File file = new File(temporaryFolder.getRoot(), "cache.snapshot");
+		TestScheduler scheduler = new TestScheduler();
+		InMemoryStorage storage = new InMemoryStorage(false);
+		storage.put(null, "key", new CacheWrapper<>("value"));
+
+		InMemorySnapshotter snapshotter = new InMemorySnapshotter(storage, file).withScheduler(scheduler);
+		Disposable disposable = snapshotter.scheduleSnapshots(1, TimeUnit.MINUTES);
+		assertFalse(file.exists());
+
+		scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+		assertTrue(file.exists());
+		assertEquals(1, snapshotter.getSnapshotEntries());
+
+		storage.put(null, "key2", new CacheWrapper<>("value"));
+		disposable.dispose();
+		scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+		assertEquals(1, snapshotter.getSnapshotEntries());
+	}
+
+	/**
+	 * Data which class changed since it was saved
+	 */
+	private static class BrokenData implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private void readObject(ObjectInputStream input) throws IOException {
+			throw new InvalidClassException(BrokenData.class.getName(), "Incompatible version");
+		}
+	}
+
+}
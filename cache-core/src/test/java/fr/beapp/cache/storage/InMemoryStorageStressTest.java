@@ -0,0 +1,10 @@
+package fr.beapp.cache.storage;
+
+public class InMemoryStorageStressTest extends BaseStorageStressTest {
+
+	@Override
+	protected Storage buildStorage() throws Exception {
+		return new InMemoryStorage(false);
+	}
+
+}
@@ -0,0 +1,10 @@
+package fr.beapp.cache.storage;
+
+public class MemoStorageStressTest extends BaseStorageStressTest {
+
+	@Override
+	protected Storage buildStorage() throws Exception {
+		return new MemoStorage(new InMemoryStorage(false), 64 * 1024);
+	}
+
+}
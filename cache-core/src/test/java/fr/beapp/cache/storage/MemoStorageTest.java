@@ -0,0 +1,59 @@
+package fr.beapp.cache.storage;
+
+import org.junit.Test;
+
+import fr.beapp.cache.CacheWrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class MemoStorageTest extends BaseStorageTest {
+
+	private static final EntrySizer FIXED_SIZER = new EntrySizer() {
+		@Override
+		public long sizeOf(CacheWrapper<?> value) {
+			return 100;
+		}
+	};
+
+	@Override
+	protected Storage buildStorage() throws Exception {
+		return new MemoStorage(new InMemoryStorage(false), Long.MAX_VALUE);
+	}
+
+	@Test
+	public void testGet_memoized() throws Exception {
+		InMemoryStorage inMemoryStorage = new InMemoryStorage(false);
+		MemoStorage storage = new MemoStorage(inMemoryStorage, Long.MAX_VALUE).withEntrySizer(FIXED_SIZER);
+		storage.put(null, "key", new CacheWrapper<>("value"));
+
+		CacheWrapper<String> value = storage.get(null, "key", String.class);
+		assertSame(value, storage.get(null, "key", String.class));
+		assertEquals(1, storage.getHits());
+		assertEquals(1, storage.getMisses());
+
+		// A write made directly on the delegate, as another instance sharing the same files would do
+		inMemoryStorage.put(null, "key", new CacheWrapper<>("newValue"));
+		assertEquals("newValue", storage.get(null, "key", String.class).getData());
+		assertEquals(2, storage.getMisses());
+	}
+
+	@Test
+	public void testGet_maxBytes() throws Exception {
+		MemoStorage storage = new MemoStorage(new InMemoryStorage(false), 250).withEntrySizer(FIXED_SIZER);
+		storage.put(null, "key1", new CacheWrapper<>("value1"));
+		storage.put(null, "key2", new CacheWrapper<>("value2"));
+		storage.put(null, "key3", new CacheWrapper<>("value3"));
+
+		storage.get(null, "key1", String.class);
+		storage.get(null, "key2", String.class);
+		storage.get(null, "key3", String.class);
+		assertEquals(200, storage.getMemoBytes());
+
+		storage.get(null, "key3", String.class);
+		assertEquals(1, storage.getHits());
+		storage.get(null, "key1", String.class);
+		assertEquals(4, storage.getMisses());
+	}
+
+}
@@ -0,0 +1,119 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import fr.beapp.cache.CacheWrapper;
+import io.reactivex.schedulers.Schedulers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class QuotaStorageTest extends BaseStorageTest {
+
+	private static final EntrySizer FIXED_SIZER = new EntrySizer() {
+		@Override
+		public long sizeOf(@NotNull CacheWrapper<?> value) {
+			return 100;
+		}
+	};
+
+	@Override
+	protected Storage buildStorage() throws Exception {
+		return new QuotaStorage(new InMemoryStorage(false), Integer.MAX_VALUE);
+	}
+
+	@Test
+	public void testEviction_maxEntries() throws Exception {
+		QuotaStorage storage = new QuotaStorage(new InMemoryStorage(false), 2)
+				.withEvictionScheduler(Schedulers.trampoline());
+
+		storage.put(null, "key1", new CacheWrapper<>("value1"));
+		storage.put(null, "key2", new CacheWrapper<>("value2"));
+		storage.get(null, "key1", String.class);
+		storage.put(null, "key3", new CacheWrapper<>("value3"));
+
+		assertEquals(2, storage.count());
+		assertTrue(storage.exists(null, "key1"));
+		assertFalse(storage.exists(null, "key2"));
+		assertTrue(storage.exists(null, "key3"));
+		assertEquals(1, storage.getEvictedEntries());
+		assertEquals(1, storage.getEvictionRuns());
+	}
+
+	@Test
+	public void testEviction_maxBytes() throws Exception {
+		InMemoryStorage inMemoryStorage = new InMemoryStorage(false);
+		inMemoryStorage.put(null, "oldKey", new CacheWrapper<>("oldValue"));
+
+		QuotaStorage storage = new QuotaStorage(inMemoryStorage, FIXED_SIZER, 250, Integer.MAX_VALUE)
+				.withEvictionScheduler(Schedulers.trampoline())
+				.withSessions("");
+		storage.open();
+		assertEquals(1, storage.getTrackedEntries());
+
+		storage.put(null, "key1", new CacheWrapper<>("value1"));
+		storage.put(null, "key2", new CacheWrapper<>("value2"));
+		storage.put(null, "key3", new CacheWrapper<>("value3"));
+
+		assertFalse(storage.exists(null, "oldKey"));
+		assertFalse(storage.exists(null, "key1"));
+		assertEquals(2, storage.count());
+		assertEquals(200, storage.getTrackedBytes());
+		assertEquals(200, storage.getEvictedBytes());
+	}
+
+	@Test
+	public void testEviction_reservedSessionsIgnored() throws Exception {
+		QuotaStorage storage = new QuotaStorage(new InMemoryStorage(false), 1)
+				.withEvictionScheduler(Schedulers.trampoline());
+
+		storage.put(TaggedStorage.TAGS_SESSION, "tagKey", new CacheWrapper<>("tagValue"));
+		storage.put(GenerationalStorage.GENERATIONS_SESSION, "generationKey", new CacheWrapper<>("generationValue"));
+		storage.put(null, "key1", new CacheWrapper<>("value1"));
+		storage.get(TaggedStorage.TAGS_SESSION, "tagKey", String.class);
+
+		assertEquals(1, storage.getTrackedEntries());
+		assertEquals(0, storage.getEvictedEntries());
+		assertTrue(storage.exists(TaggedStorage.TAGS_SESSION, "tagKey"));
+		assertTrue(storage.exists(GenerationalStorage.GENERATIONS_SESSION, "generationKey"));
+		assertTrue(storage.exists(null, "key1"));
+	}
+
+	@Test
+	public void testOpen_tracksPreviousRun() throws Exception {
+		InMemoryStorage inMemoryStorage = new InMemoryStorage(false);
+		QuotaStorage previousRun = new QuotaStorage(inMemoryStorage, FIXED_SIZER, 250, Integer.MAX_VALUE)
+				.withEvictionScheduler(Schedulers.trampoline());
+		previousRun.put(null, "key1", new CacheWrapper<>("value1"));
+		previousRun.put("session", "key2", new CacheWrapper<>("value2"));
+		previousRun.delete(null, "key1");
+		previousRun.put(null, "key3", new CacheWrapper<>("value3"));
+
+		QuotaStorage storage = new QuotaStorage(inMemoryStorage, FIXED_SIZER, 250, Integer.MAX_VALUE)
+				.withEvictionScheduler(Schedulers.trampoline());
+		storage.open();
+		assertEquals(2, storage.getTrackedEntries());
+		assertEquals(200, storage.getTrackedBytes());
+		assertEquals(2, storage.count());
+
+		storage.put(null, "key4", new CacheWrapper<>("value4"));
+		assertEquals(1, storage.getEvictedEntries());
+		assertEquals(2, storage.count());
+		assertTrue(storage.exists(null, "key4"));
+	}
+
+	@Test
+	public void testClear_sessionsUntracked() throws Exception {
+		QuotaStorage storage = new QuotaStorage(new InMemoryStorage(false), FIXED_SIZER, Long.MAX_VALUE, Integer.MAX_VALUE);
+		storage.put(null, "key1", new CacheWrapper<>("value1"));
+		storage.put("session", "key2", new CacheWrapper<>("value2"));
+
+		storage.clear("session");
+		assertEquals(1, storage.getTrackedEntries());
+		assertEquals(100, storage.getTrackedBytes());
+		assertEquals(1, storage.count());
+	}
+
+}
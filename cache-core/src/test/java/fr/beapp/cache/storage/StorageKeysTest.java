@@ -0,0 +1,41 @@
+package fr.beapp.cache.storage;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StorageKeysTest {
+
+	@Test
+	public void testResolve_unambiguous() throws Exception {
+		assertNotEquals(StorageKeys.resolve("a_b", "c"), StorageKeys.resolve("a", "b_c"));
+		assertNotEquals(StorageKeys.resolve("global", "key"), StorageKeys.resolve(null, "key"));
+		assertNotEquals(StorageKeys.resolve(null, "global_key"), StorageKeys.resolve("global", "key"));
+	}
+
+	@Test
+	public void testResolve_globalSession() throws Exception {
+		assertEquals(StorageKeys.resolve(null, "key"), StorageKeys.resolve("", "key"));
+	}
+
+	@Test
+	public void testResolve_prefix() throws Exception {
+		assertTrue(StorageKeys.resolve("session", "key_1").startsWith(StorageKeys.resolve("session", "key_")));
+		assertFalse(StorageKeys.resolve("session_2", "key").startsWith(StorageKeys.resolve("session", "")));
+	}
+
+	@Test
+	public void testDecode() throws Exception {
+		String resolved = StorageKeys.resolve("a_b:1", "c_d");
+		assertEquals("a_b:1", StorageKeys.sessionOf(resolved));
+		assertEquals("c_d", StorageKeys.keyOf(resolved));
+
+		assertNull(StorageKeys.sessionOf(StorageKeys.resolve(null, "key")));
+		assertEquals("key", StorageKeys.keyOf(StorageKeys.resolve(null, "key")));
+	}
+
+}
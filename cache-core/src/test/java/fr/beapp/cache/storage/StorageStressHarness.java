@@ -0,0 +1,318 @@
+package fr.beapp.cache.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import fr.beapp.cache.CacheWrapper;
+
+/**
+ * Run a mixed, multi-threaded workload against a {@link Storage} and report throughput, latencies and consistency violations.
+ * <br/>
+ * Contended operations target keys of a shared session, picked with the configured distribution. Each thread also owns keys in a
+ * private session, which no other thread writes nor clears: reading them back right after a put or a delete must return exactly what
+ * the thread did, otherwise a lost put or a stale read is reported. Values read from the shared session must belong to the read key.
+ */
+public class StorageStressHarness {
+
+	public static final String SHARED_SESSION = "stressShared";
+	public static final String PRIVATE_SESSION = "stressPrivate";
+
+	public enum KeyDistribution {
+		UNIFORM,
+		ZIPF
+	}
+
+	private enum Operation {
+		READ,
+		WRITE,
+		DELETE,
+		CLEAR
+	}
+
+	/**
+	 * The shape of a stress run
+	 */
+	public static class Workload {
+		private int threads = 4;
+		private int operationsPerThread = 5000;
+		private int keyCount = 200;
+		private KeyDistribution keyDistribution = KeyDistribution.UNIFORM;
+		private double zipfExponent = 1.0;
+		private int readWeight = 70;
+		private int writeWeight = 25;
+		private int deleteWeight = 4;
+		private int clearWeight = 1;
+		private int privateCheckEvery = 10;
+
+		public Workload withThreads(int threads) {
+			this.threads = threads;
+			return this;
+		}
+
+		public Workload withOperationsPerThread(int operationsPerThread) {
+			this.operationsPerThread = operationsPerThread;
+			return this;
+		}
+
+		public Workload withKeys(int keyCount, @NotNull KeyDistribution keyDistribution) {
+			this.keyCount = keyCount;
+			this.keyDistribution = keyDistribution;
+			return this;
+		}
+
+		public Workload withZipfExponent(double zipfExponent) {
+			this.zipfExponent = zipfExponent;
+			return this;
+		}
+
+		/**
+		 * Set the relative weights of each operation on shared keys
+		 */
+		public Workload withRatios(int readWeight, int writeWeight, int deleteWeight, int clearWeight) {
+			this.readWeight = readWeight;
+			this.writeWeight = writeWeight;
+			this.deleteWeight = deleteWeight;
+			this.clearWeight = clearWeight;
+			return this;
+		}
+
+		/**
+		 * Set how often, in operations, each thread checks its private keys
+		 */
+		public Workload withPrivateCheckEvery(int privateCheckEvery) {
+			this.privateCheckEvery = privateCheckEvery;
+			return this;
+		}
+
+		@Override
+		public String toString() {
+			return "Workload{" +
+					"threads=" + threads +
+					", operationsPerThread=" + operationsPerThread +
+					", keyCount=" + keyCount +
+					", keyDistribution=" + keyDistribution +
+					", ratios=" + readWeight + "/" + writeWeight + "/" + deleteWeight + "/" + clearWeight +
+					'}';
+		}
+	}
+
+	/**
+	 * The outcome of a stress run
+	 */
+	public static class Report {
+		private final Workload workload;
+		private final long operations;
+		private final long durationNanos;
+		private final long[] sortedLatencyNanos;
+		private final long lostPuts;
+		private final long staleReads;
+		private final long corruptReads;
+
+		private Report(@NotNull Workload workload, long durationNanos, @NotNull long[] sortedLatencyNanos, long lostPuts, long staleReads, long corruptReads) {
+			this.workload = workload;
+			this.operations = sortedLatencyNanos.length;
+			this.durationNanos = durationNanos;
+			this.sortedLatencyNanos = sortedLatencyNanos;
+			this.lostPuts = lostPuts;
+			this.staleReads = staleReads;
+			this.corruptReads = corruptReads;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.US, "%s: %d ops, %.0f ops/s, p50=%.1fus, p95=%.1fus, p99=%.1fus, max=%.1fus, lostPuts=%d, staleReads=%d, corruptReads=%d",
+					workload, operations, getThroughput(),
+					getLatencyPercentileNanos(50) / 1e3, getLatencyPercentileNanos(95) / 1e3, getLatencyPercentileNanos(99) / 1e3, getLatencyPercentileNanos(100) / 1e3,
+					lostPuts, staleReads, corruptReads);
+		}
+
+		public long getOperations() {
+			return operations;
+		}
+
+		/**
+		 * @return Operations per second, all threads included
+		 */
+		public double getThroughput() {
+			return durationNanos == 0 ? 0 : operations * 1e9 / durationNanos;
+		}
+
+		/**
+		 * @param percentile Between 0 and 100
+		 */
+		public long getLatencyPercentileNanos(double percentile) {
+			if (sortedLatencyNanos.length == 0) {
+				return 0;
+			}
+			int index = (int) Math.ceil(percentile / 100 * sortedLatencyNanos.length) - 1;
+			return sortedLatencyNanos[Math.max(0, Math.min(index, sortedLatencyNanos.length - 1))];
+		}
+
+		/**
+		 * @return How many times a thread didn't read back the value it just wrote on its private key
+		 */
+		public long getLostPuts() {
+			return lostPuts;
+		}
+
+		/**
+		 * @return How many times a thread still read a value it just deleted from its private key
+		 */
+		public long getStaleReads() {
+			return staleReads;
+		}
+
+		/**
+		 * @return How many times a value read from a shared key wasn't written for this key
+		 */
+		public long getCorruptReads() {
+			return corruptReads;
+		}
+
+		public long getViolations() {
+			return lostPuts + staleReads + corruptReads;
+		}
+	}
+
+	private final Storage storage;
+
+	public StorageStressHarness(@NotNull Storage storage) {
+		this.storage = storage;
+	}
+
+	public Report run(@NotNull final Workload workload) throws Exception {
+		final double[] keyCdf = buildKeyCdf(workload);
+		final long[][] latencies = new long[workload.threads][];
+		final AtomicLong lostPuts = new AtomicLong();
+		final AtomicLong staleReads = new AtomicLong();
+		final AtomicLong corruptReads = new AtomicLong();
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		final CountDownLatch endLatch = new CountDownLatch(workload.threads);
+
+		for (int t = 0; t < workload.threads; t++) {
+			final int threadIndex = t;
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					Random random = new Random(threadIndex);
+					long[] threadLatencies = new long[workload.operationsPerThread];
+					latencies[threadIndex] = threadLatencies;
+					try {
+						startLatch.await();
+						for (int i = 0; i < workload.operationsPerThread; i++) {
+							long start = System.nanoTime();
+							runSharedOperation(workload, keyCdf, random, threadIndex, i, corruptReads);
+							threadLatencies[i] = System.nanoTime() - start;
+
+							if (i % workload.privateCheckEvery == 0) {
+								checkPrivateKey(threadIndex, i, lostPuts, staleReads);
+							}
+						}
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					} finally {
+						endLatch.countDown();
+					}
+				}
+			}, "storage-stress-" + t);
+			thread.start();
+		}
+
+		long startTime = System.nanoTime();
+		startLatch.countDown();
+		endLatch.await();
+		long durationNanos = System.nanoTime() - startTime;
+
+		if (failure.get() != null) {
+			throw new AssertionError("Stress thread failed", failure.get());
+		}
+
+		long[] allLatencies = new long[workload.threads * workload.operationsPerThread];
+		for (int t = 0; t < workload.threads; t++) {
+			System.arraycopy(latencies[t], 0, allLatencies, t * workload.operationsPerThread, workload.operationsPerThread);
+		}
+		Arrays.sort(allLatencies);
+		return new Report(workload, durationNanos, allLatencies, lostPuts.get(), staleReads.get(), corruptReads.get());
+	}
+
+	private void runSharedOperation(@NotNull Workload workload, @NotNull double[] keyCdf, @NotNull Random random, int threadIndex, int sequence, @NotNull AtomicLong corruptReads) {
+		String key = "key" + pickKey(keyCdf, random);
+		switch (pickOperation(workload, random)) {
+			case READ:
+				CacheWrapper<String> value = storage.get(SHARED_SESSION, key, String.class);
+				if (value != null && (value.getData() == null || !value.getData().startsWith(key + "#"))) {
+					corruptReads.incrementAndGet();
+				}
+				break;
+			case WRITE:
+				storage.put(SHARED_SESSION, key, new CacheWrapper<>(key + "#" + threadIndex + "#" + sequence));
+				break;
+			case DELETE:
+				storage.delete(SHARED_SESSION, key);
+				break;
+			case CLEAR:
+				storage.clear(SHARED_SESSION, key);
+				break;
+		}
+	}
+
+	private void checkPrivateKey(int threadIndex, int sequence, @NotNull AtomicLong lostPuts, @NotNull AtomicLong staleReads) {
+		String key = "thread" + threadIndex;
+		String expected = key + "#" + sequence;
+
+		storage.put(PRIVATE_SESSION, key, new CacheWrapper<>(expected));
+		CacheWrapper<String> value = storage.get(PRIVATE_SESSION, key, String.class);
+		if (value == null || !expected.equals(value.getData())) {
+			lostPuts.incrementAndGet();
+		}
+
+		if (sequence % 2 == 0) {
+			storage.delete(PRIVATE_SESSION, key);
+			if (storage.get(PRIVATE_SESSION, key, String.class) != null) {
+				staleReads.incrementAndGet();
+			}
+		}
+	}
+
+	private Operation pickOperation(@NotNull Workload workload, @NotNull Random random) {
+		int value = random.nextInt(workload.readWeight + workload.writeWeight + workload.deleteWeight + workload.clearWeight);
+		if (value < workload.readWeight) {
+			return Operation.READ;
+		}
+		value -= workload.readWeight;
+		if (value < workload.writeWeight) {
+			return Operation.WRITE;
+		}
+		value -= workload.writeWeight;
+		return value < workload.deleteWeight ? Operation.DELETE : Operation.CLEAR;
+	}
+
+	/**
+	 * @return The cumulative distribution of key indexes, so a key is picked with a binary search
+	 */
+	private static double[] buildKeyCdf(@NotNull Workload workload) {
+		double[] cdf = new double[workload.keyCount];
+		double total = 0;
+		for (int i = 0; i < workload.keyCount; i++) {
+			total += workload.keyDistribution == KeyDistribution.ZIPF ? 1 / Math.pow(i + 1, workload.zipfExponent) : 1;
+			cdf[i] = total;
+		}
+		for (int i = 0; i < workload.keyCount; i++) {
+			cdf[i] /= total;
+		}
+		return cdf;
+	}
+
+	private static int pickKey(@NotNull double[] keyCdf, @NotNull Random random) {
+		int index = Arrays.binarySearch(keyCdf, random.nextDouble());
+		return Math.min(index >= 0 ? index : -index - 1, keyCdf.length - 1);
+	}
+
+}
@@ -0,0 +1,116 @@
+package fr.beapp.cache.storage;
+
+import org.junit.Test;
+
+import fr.beapp.cache.CacheWrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class TaggedStorageTest extends BaseStorageTest {
+
+	@Override
+	protected Storage buildStorage() throws Exception {
+		return new TaggedStorage(new InMemoryStorage(false));
+	}
+
+	@Test
+	public void testInvalidateTags() throws Exception {
+		TaggedStorage storage = new TaggedStorage(new InMemoryStorage(false));
+		storage.put("session", "product_42", new CacheWrapper<>("product").withTags("product:42", "catalog"));
+		storage.put(null, "catalog", new CacheWrapper<>("catalog").withTags("catalog"));
+		storage.put(null, "untagged", new CacheWrapper<>("untagged"));
+
+		assertEquals(1, storage.getTaggedKeys("product:42").size());
+		assertEquals("session", storage.getTaggedKeys("product:42").get(0).getSession());
+		assertEquals(2, storage.getTaggedKeys("catalog").size());
+		assertEquals(3, storage.count());
+
+		assertEquals(2, storage.invalidateTags("catalog"));
+		assertNull(storage.get("session", "product_42", String.class));
+		assertNull(storage.get(null, "catalog", String.class));
+		assertNotNull(storage.get(null, "untagged", String.class));
+		assertEquals(0, storage.getTaggedKeys("product:42").size());
+		assertEquals(0, storage.getDelegate().count(TaggedStorage.TAGS_SESSION, ""));
+		assertEquals(2, storage.getInvalidatedKeys());
+	}
+
+	@Test
+	public void testInvalidateTags_removedBelow() throws Exception {
+		InMemoryStorage inMemoryStorage = new InMemoryStorage(false);
+		TaggedStorage storage = new TaggedStorage(inMemoryStorage);
+		storage.put(null, "evicted", new CacheWrapper<>("value").withTags("tag"));
+		storage.put(null, "kept", new CacheWrapper<>("value").withTags("tag"));
+
+		// As if evicted by a quota below the index
+		inMemoryStorage.delete(null, "evicted");
+
+		assertEquals(1, storage.invalidateTags("tag"));
+		assertEquals(1, storage.getInvalidatedKeys());
+		assertEquals(0, inMemoryStorage.count(TaggedStorage.TAGS_SESSION, ""));
+	}
+
+	@Test
+	public void testGet_prunesRemovedBelow() throws Exception {
+		InMemoryStorage inMemoryStorage = new InMemoryStorage(false);
+		TaggedStorage storage = new TaggedStorage(inMemoryStorage);
+		storage.put("session", "evicted", new CacheWrapper<>("value").withTags("tag"));
+		inMemoryStorage.delete("session", "evicted");
+
+		assertNull(storage.get("session", "evicted", String.class));
+		assertEquals(0, storage.getTaggedKeys("tag").size());
+		assertEquals(0, inMemoryStorage.count(TaggedStorage.TAGS_SESSION, ""));
+	}
+
+	@Test
+	public void testPut_retag() throws Exception {
+		TaggedStorage storage = new TaggedStorage(new InMemoryStorage(false));
+		storage.put(null, "key", new CacheWrapper<>("value").withTags("first", "second"));
+		storage.put(null, "key", new CacheWrapper<>("value").withTags("second", "third"));
+
+		assertEquals(0, storage.getTaggedKeys("first").size());
+		assertEquals(1, storage.getTaggedKeys("second").size());
+		assertEquals(1, storage.getTaggedKeys("third").size());
+
+		storage.put(null, "key", new CacheWrapper<>("value"));
+		assertEquals(0, storage.getDelegate().count(TaggedStorage.TAGS_SESSION, ""));
+	}
+
+	@Test
+	public void testDeleteAndClear_unindex() throws Exception {
+		TaggedStorage storage = new TaggedStorage(new InMemoryStorage(false));
+		storage.put("session", "first", new CacheWrapper<>("value").withTags("tag"));
+		storage.put("session", "second", new CacheWrapper<>("value").withTags("tag"));
+		storage.put("other", "third", new CacheWrapper<>("value").withTags("tag"));
+
+		storage.delete("session", "first");
+		assertEquals(2, storage.getTaggedKeys("tag").size());
+
+		storage.clear("session");
+		assertEquals(1, storage.getTaggedKeys("tag").size());
+		assertEquals("third", storage.getTaggedKeys("tag").get(0).getKey());
+	}
+
+	@Test
+	public void testGetTaggedKeys_prefixedTags() throws Exception {
+		TaggedStorage storage = new TaggedStorage(new InMemoryStorage(false));
+		storage.put(null, "first", new CacheWrapper<>("value").withTags("product"));
+		storage.put(null, "second", new CacheWrapper<>("value").withTags("product_42"));
+
+		assertEquals(1, storage.getTaggedKeys("product").size());
+		assertEquals("first", storage.getTaggedKeys("product").get(0).getKey());
+	}
+
+	@Test
+	public void testIndex_persisted() throws Exception {
+		InMemoryStorage inMemoryStorage = new InMemoryStorage(false);
+		new TaggedStorage(inMemoryStorage).put(null, "key", new CacheWrapper<>("value").withTags("tag"));
+
+		// As if the storage was opened again by a new process
+		TaggedStorage storage = new TaggedStorage(inMemoryStorage);
+		assertEquals(1, storage.invalidateTags("tag"));
+		assertNull(storage.get(null, "key", String.class));
+	}
+
+}
@@ -5,6 +5,7 @@ import android.content.Context;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -17,12 +18,41 @@ import io.paperdb.Paper;
  * <br/>
  * This library relies on <a href="https://github.com/EsotericSoftware/kryo">Kryo</a> in order to provide fast serialization.
  */
-public class PaperDbStorage implements Storage {
+public class PaperDbStorage extends AbstractStorage {
 
 	private static final String DEFAULT_PAPER_BOOK = "io.paperdb";
+	private static final String TOUCH_BOOK_SUFFIX = ".touch";
+	private static final String VERSION_BOOK_SUFFIX = ".version";
 
+	protected final Context context;
+	protected boolean versionTracking = false;
+
+	private volatile boolean opened = false;
+
+	/**
+	 * Create a new PaperDb storage. PaperDb will be initialized on first access or on {@link #open()}, allowing it to be done on a background thread.
+	 */
 	public PaperDbStorage(@NotNull Context context) {
-		Paper.init(context);
+		this.context = context;
+	}
+
+	/**
+	 * Track entry versions, returned by {@link #getVersion(String, String)}, as needed by {@link MemoStorage}. Disabled by default, as it
+	 * costs an extra write on each put and touch.
+	 * <br/>
+	 * It must be enabled on every run using the same database, otherwise versions recorded by a previous run may be outdated.
+	 */
+	public PaperDbStorage withVersionTracking(boolean versionTracking) {
+		this.versionTracking = versionTracking;
+		return this;
+	}
+
+	@Override
+	public synchronized void open() {
+		if (!opened) {
+			Paper.init(context);
+			opened = true;
+		}
 	}
 
 	@Override
@@ -32,8 +62,14 @@ public class PaperDbStorage implements Storage {
 
 	@Override
 	public int count() {
-		Set<String> bookNames = PaperUtils.getAllPaperBookNames();
-		return count(bookNames.toArray(new String[0]));
+		open();
+		int count = 0;
+		for (String bookName : PaperUtils.getAllPaperBookNames()) {
+			if (!bookName.endsWith(TOUCH_BOOK_SUFFIX) && !bookName.endsWith(VERSION_BOOK_SUFFIX)) {
+				count += getBook(bookName).getAllKeys().size();
+			}
+		}
+		return count;
 	}
 
 	@Override
@@ -46,7 +82,7 @@ public class PaperDbStorage implements Storage {
 	}
 
 	@Override
-	public int count(@NotNull String session, @NotNull String keyPrefix) {
+	public int count(@Nullable String session, @NotNull String keyPrefix) {
 		List<String> allKeys = getBook(session).getAllKeys();
 
 		int count = 0;
@@ -58,8 +94,21 @@ public class PaperDbStorage implements Storage {
 		return count;
 	}
 
+	@NotNull
+	@Override
+	public synchronized List<String> keys(@Nullable String session, @NotNull String keyPrefix) {
+		List<String> keys = new ArrayList<>();
+		for (String key : getBook(session).getAllKeys()) {
+			if (key.startsWith(keyPrefix)) {
+				keys.add(key);
+			}
+		}
+		return keys;
+	}
+
 	@Override
 	public synchronized void clear() {
+		open();
 		Set<String> bookNames = PaperUtils.getAllPaperBookNames();
 		clear(bookNames.toArray(new String[0]));
 	}
@@ -68,6 +117,8 @@ public class PaperDbStorage implements Storage {
 	public synchronized void clear(@NotNull String... sessions) {
 		for (String session : sessions) {
 			getBook(session).destroy();
+			getTouchBook(session).destroy();
+			getVersionBook(session).destroy();
 		}
 	}
 
@@ -79,28 +130,86 @@ public class PaperDbStorage implements Storage {
 				getBook(session).delete(key);
 			}
 		}
+
+		for (Book sideBook : new Book[]{getTouchBook(session), getVersionBook(session)}) {
+			for (String key : sideBook.getAllKeys()) {
+				if (key.startsWith(keyPrefix)) {
+					sideBook.delete(key);
+				}
+			}
+		}
 	}
 
 	@Override
 	public synchronized <T> void put(@Nullable String session, @NotNull String key, @Nullable CacheWrapper<T> value) {
 		getBook(session).write(key, value);
+
+		Book touchBook = getTouchBook(session);
+		if (touchBook.contains(key)) {
+			touchBook.delete(key);
+		}
+		if (versionTracking) {
+			getVersionBook(session).write(key, EntryVersions.next());
+		}
 	}
 
 	@Override
 	public synchronized void delete(@Nullable String session, @NotNull String key) {
 		getBook(session).delete(key);
+		getTouchBook(session).delete(key);
+		if (versionTracking) {
+			getVersionBook(session).delete(key);
+		}
+	}
+
+	/**
+	 * Cached dates are stored in a separate book, so the data doesn't need to be written again
+	 */
+	@Override
+	public synchronized boolean touch(@Nullable String session, @NotNull String key, long cachedDate) {
+		if (getBook(session).contains(key)) {
+			getTouchBook(session).write(key, cachedDate);
+			if (versionTracking) {
+				getVersionBook(session).write(key, EntryVersions.next());
+			}
+			return true;
+		}
+		return false;
 	}
 
 	@Nullable
 	@Override
 	public synchronized <T> CacheWrapper<T> get(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz) {
-		return getBook(session).read(key);
+		CacheWrapper<T> value = getBook(session).read(key);
+		if (value != null) {
+			Book touchBook = getTouchBook(session);
+			if (touchBook.contains(key)) {
+				Long cachedDate = touchBook.read(key);
+				if (cachedDate != null) {
+					value = value.withCachedDate(cachedDate);
+				}
+			}
+		}
+		return value;
 	}
 
 	@NotNull
 	@Override
 	public synchronized <T> CacheWrapper<T> get(@Nullable String session, @NotNull String key, @NotNull Class<T> clazz, @NotNull T defaultValue) {
-		return getBook(session).read(key, new CacheWrapper<>(defaultValue));
+		CacheWrapper<T> value = get(session, key, clazz);
+		return value != null ? value : new CacheWrapper<>(defaultValue);
+	}
+
+	/**
+	 * Versions are stored in a separate book, so they can be checked without reading the data. See {@link #withVersionTracking(boolean)}
+	 */
+	@Override
+	public synchronized long getVersion(@Nullable String session, @NotNull String key) {
+		if (!versionTracking) {
+			return NO_VERSION;
+		}
+		Long version = getVersionBook(session).read(key);
+		return version != null ? version : NO_VERSION;
 	}
 
 	@Override
@@ -109,7 +218,31 @@ public class PaperDbStorage implements Storage {
 	}
 
 	protected Book getBook(@Nullable String session) {
+		if (!opened) {
+			open();
+		}
 		return session != null && !session.isEmpty() && !DEFAULT_PAPER_BOOK.equals(session) ? Paper.book(session) : Paper.book();
 	}
 
+	/**
+	 * @return The book holding cached dates updated by {@link #touch(String, String, long)} for the given session
+	 */
+	protected Book getTouchBook(@Nullable String session) {
+		return getSideBook(session, TOUCH_BOOK_SUFFIX);
+	}
+
+	/**
+	 * @return The book holding versions returned by {@link #getVersion(String, String)} for the given session
+	 */
+	protected Book getVersionBook(@Nullable String session) {
+		return getSideBook(session, VERSION_BOOK_SUFFIX);
+	}
+
+	private Book getSideBook(@Nullable String session, @NotNull String suffix) {
+		if (!opened) {
+			open();
+		}
+		return Paper.book((session != null && !session.isEmpty() ? session : DEFAULT_PAPER_BOOK) + suffix);
+	}
+
 }
\ No newline at end of file
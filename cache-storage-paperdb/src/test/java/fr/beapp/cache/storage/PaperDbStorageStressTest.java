@@ -0,0 +1,20 @@
+package fr.beapp.cache.storage;
+
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class PaperDbStorageStressTest extends BaseStorageStressTest {
+
+	@Override
+	protected Storage buildStorage() throws Exception {
+		return PaperDbStorageTest.buildPaperDbStorage();
+	}
+
+	@Override
+	protected StorageStressHarness.Workload buildWorkload() {
+		return super.buildWorkload()
+				.withOperationsPerThread(500);
+	}
+
+}
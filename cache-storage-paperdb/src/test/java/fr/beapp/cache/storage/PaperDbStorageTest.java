@@ -18,6 +18,10 @@ public class PaperDbStorageTest extends BaseStorageTest {
 
 	@Override
 	protected Storage buildStorage() throws Exception {
+		return buildPaperDbStorage();
+	}
+
+	static PaperDbStorage buildPaperDbStorage() throws Exception {
 		Context context = ApplicationProvider.getApplicationContext();
 
 		purgeFolder(context.getFilesDir());
@@ -30,7 +34,7 @@ public class PaperDbStorageTest extends BaseStorageTest {
 		return new PaperDbStorage(context);
 	}
 
-	private void purgeFolder(File folder) {
+	private static void purgeFolder(File folder) {
 		if (folder.isDirectory()) {
 			File[] files = folder.listFiles();
 			for (File file : files) {
@@ -10,6 +10,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 import fr.beapp.cache.CacheWrapper;
 import fr.beapp.logger.Logger;
@@ -19,8 +21,31 @@ import fr.beapp.logger.Logger;
  * <br/>
  * This library relies on <a href="https://github.com/EsotericSoftware/kryo">Kryo</a> in order to provide fast serialization.
  */
-public class SnappyDBStorage implements Storage {
+public class SnappyDBStorage extends AbstractStorage {
+	/**
+	 * Version of the key format, see {@link #buildKey(String, String)}. Databases written with another format are emptied when opened
+	 */
+	protected static final int FORMAT_VERSION = 2;
+
+	/**
+	 * Prefix of keys which don't hold cached data. Encoded keys always start with a digit
+	 */
+	private static final String META_KEY_PREFIX = "\u0001";
+	/**
+	 * Key holding the {@link #FORMAT_VERSION} of the database
+	 */
+	private static final String FORMAT_KEY = META_KEY_PREFIX + "format";
+	/**
+	 * Prefix of keys holding cached dates updated by {@link #touch(String, String, long)}, so the data doesn't need to be written again
+	 */
+	private static final String TOUCH_KEY_PREFIX = META_KEY_PREFIX + "touch_";
+	/**
+	 * Prefix of keys holding versions returned by {@link #getVersion(String, String)}, so they can be checked without reading the data
+	 */
+	private static final String VERSION_KEY_PREFIX = META_KEY_PREFIX + "version_";
+
 	protected final Context context;
+	protected boolean versionTracking = false;
 
 	protected DB db;
 
@@ -28,6 +53,22 @@ public class SnappyDBStorage implements Storage {
 		this.context = context;
 	}
 
+	/**
+	 * Track entry versions, returned by {@link #getVersion(String, String)}, as needed by {@link MemoStorage}. Disabled by default, as it
+	 * costs an extra write on each put and touch.
+	 * <br/>
+	 * It must be enabled on every run using the same database, otherwise versions recorded by a previous run may be outdated.
+	 */
+	public SnappyDBStorage withVersionTracking(boolean versionTracking) {
+		this.versionTracking = versionTracking;
+		return this;
+	}
+
+	@Override
+	public void open() {
+		getDb();
+	}
+
 	@Override
 	public synchronized void close() {
 		if (db != null) {
@@ -45,7 +86,7 @@ public class SnappyDBStorage implements Storage {
 	@Override
 	public int count() {
 		try {
-			return getDb().countKeys("");
+			return getDb().countKeys("") - getDb().countKeys(META_KEY_PREFIX);
 		} catch (SnappydbException e) {
 			Logger.warn("Couldn't count cached values", e);
 		}
@@ -62,7 +103,7 @@ public class SnappyDBStorage implements Storage {
 	}
 
 	@Override
-	public int count(@NotNull String session, @NotNull String keyPrefix) {
+	public int count(@Nullable String session, @NotNull String keyPrefix) {
 		try {
 			return getDb().countKeys(buildKey(session, keyPrefix));
 		} catch (SnappydbException e) {
@@ -71,6 +112,21 @@ public class SnappyDBStorage implements Storage {
 		return 0;
 	}
 
+	@NotNull
+	@Override
+	public synchronized List<String> keys(@Nullable String session, @NotNull String keyPrefix) {
+		List<String> keys = new ArrayList<>();
+		int sessionPrefixLength = buildKey(session, "").length();
+		try {
+			for (String key : getDb().findKeys(buildKey(session, keyPrefix))) {
+				keys.add(key.substring(sessionPrefixLength));
+			}
+		} catch (SnappydbException e) {
+			Logger.warn("Couldn't list keys with prefix %s", e, keyPrefix);
+		}
+		return keys;
+	}
+
 	@Override
 	public synchronized void clear() {
 		try {
@@ -94,6 +150,13 @@ public class SnappyDBStorage implements Storage {
 			for (String key : keys) {
 				getDb().del(key);
 			}
+
+			for (String sideKeyPrefix : new String[]{TOUCH_KEY_PREFIX, VERSION_KEY_PREFIX}) {
+				String[] sideKeys = getDb().findKeys(sideKeyPrefix + buildKey(session, keyPrefix));
+				for (String sideKey : sideKeys) {
+					getDb().del(sideKey);
+				}
+			}
 		} catch (SnappydbException e) {
 			Logger.warn("Couldn't clear keys with prefix %s", e, keyPrefix);
 		}
@@ -103,7 +166,13 @@ public class SnappyDBStorage implements Storage {
 	public synchronized <T> void put(@Nullable String session, @NotNull String key, @Nullable CacheWrapper<T> value) {
 		String finalKey = buildKey(session, key);
 		try {
-			getDb().put(key, value);
+			getDb().put(finalKey, value);
+			if (getDb().exists(TOUCH_KEY_PREFIX + finalKey)) {
+				getDb().del(TOUCH_KEY_PREFIX + finalKey);
+			}
+			if (versionTracking) {
+				getDb().putLong(VERSION_KEY_PREFIX + finalKey, EntryVersions.next());
+			}
 		} catch (SnappydbException e) {
 			Logger.warn("Data with key %s couldn't be put in cache", e, finalKey);
 		}
@@ -114,11 +183,34 @@ public class SnappyDBStorage implements Storage {
 		String finalKey = buildKey(session, key);
 		try {
 			getDb().del(finalKey);
+			if (getDb().exists(TOUCH_KEY_PREFIX + finalKey)) {
+				getDb().del(TOUCH_KEY_PREFIX + finalKey);
+			}
+			if (versionTracking && getDb().exists(VERSION_KEY_PREFIX + finalKey)) {
+				getDb().del(VERSION_KEY_PREFIX + finalKey);
+			}
 		} catch (SnappydbException e) {
 			Logger.warn("Data with key %s couldn't be deleted from cache", e, finalKey);
 		}
 	}
 
+	@Override
+	public synchronized boolean touch(@Nullable String session, @NotNull String key, long cachedDate) {
+		String finalKey = buildKey(session, key);
+		try {
+			if (getDb().exists(finalKey)) {
+				getDb().putLong(TOUCH_KEY_PREFIX + finalKey, cachedDate);
+				if (versionTracking) {
+					getDb().putLong(VERSION_KEY_PREFIX + finalKey, EntryVersions.next());
+				}
+				return true;
+			}
+		} catch (SnappydbException e) {
+			Logger.warn("Data with key %s couldn't be touched", e, finalKey);
+		}
+		return false;
+	}
+
 	@Nullable
 	@Override
 	@SuppressWarnings("unchecked")
@@ -126,7 +218,11 @@ public class SnappyDBStorage implements Storage {
 		String finalKey = buildKey(session, key);
 		try {
 			if (getDb().exists(finalKey)) {
-				return getDb().get(finalKey, CacheWrapper.class);
+				CacheWrapper<T> value = getDb().get(finalKey, CacheWrapper.class);
+				if (value != null && getDb().exists(TOUCH_KEY_PREFIX + finalKey)) {
+					value = value.withCachedDate(getDb().getLong(TOUCH_KEY_PREFIX + finalKey));
+				}
+				return value;
 			} else {
 				return null;
 			}
@@ -144,6 +240,22 @@ public class SnappyDBStorage implements Storage {
 		return value != null ? value : new CacheWrapper<>(defaultValue);
 	}
 
+	@Override
+	public synchronized long getVersion(@Nullable String session, @NotNull String key) {
+		if (!versionTracking) {
+			return NO_VERSION;
+		}
+		String finalKey = buildKey(session, key);
+		try {
+			if (getDb().exists(VERSION_KEY_PREFIX + finalKey)) {
+				return getDb().getLong(VERSION_KEY_PREFIX + finalKey);
+			}
+		} catch (SnappydbException e) {
+			Logger.warn("Can't read version of data with key %s", e, finalKey);
+		}
+		return NO_VERSION;
+	}
+
 	@Override
 	public synchronized boolean exists(@Nullable String session, @NotNull String key) {
 		String finalKey = buildKey(session, key);
@@ -170,6 +282,7 @@ public class SnappyDBStorage implements Storage {
 			Logger.info("Initializing SnappyDB database %s at %s", databaseName, path);
 
 			db = openDb(path, databaseName);
+			migrate(db);
 		} catch (Exception e) {
 			Logger.error("Can't open cache database. No data will be cached", e);
 
@@ -207,8 +320,33 @@ public class SnappyDBStorage implements Storage {
 				.build();
 	}
 
+	/**
+	 * Bring a database written with a previous key format to the current {@link #FORMAT_VERSION}.
+	 * <br/>
+	 * The first format joined sessions and keys with a separator, so its keys can't be decoded unambiguously and are dropped.
+	 *
+	 * @param db The database just opened
+	 * @throws SnappydbException if the database couldn't be read or written
+	 */
+	protected void migrate(@NotNull DB db) throws SnappydbException {
+		if (db.exists(FORMAT_KEY) && db.getInt(FORMAT_KEY) == FORMAT_VERSION) {
+			return;
+		}
+
+		String[] keys = db.findKeys("");
+		Logger.info("Dropping %d keys written with a previous format of SnappyDB cache", keys.length);
+		for (String key : keys) {
+			db.del(key);
+		}
+		db.putInt(FORMAT_KEY, FORMAT_VERSION);
+	}
+
+	/**
+	 * Encode the given session and key with {@link StorageKeys#resolve(String, String)}, so keys of different sessions never collide and
+	 * prefix scans never leak to other sessions
+	 */
 	protected String buildKey(@Nullable String session, @NotNull String key) {
-		return session != null && !session.isEmpty() ? session + "_" + key : "global" + key;
+		return StorageKeys.resolve(session, key);
 	}
 
 }
\ No newline at end of file
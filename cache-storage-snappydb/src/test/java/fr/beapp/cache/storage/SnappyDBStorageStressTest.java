@@ -0,0 +1,24 @@
+package fr.beapp.cache.storage;
+
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import androidx.test.core.app.ApplicationProvider;
+
+@RunWith(RobolectricTestRunner.class)
+public class SnappyDBStorageStressTest extends BaseStorageStressTest {
+
+	@Override
+	protected Storage buildStorage() throws Exception {
+		SnappyDBStorage storage = new SnappyDBStorage(ApplicationProvider.getApplicationContext());
+		storage.clear();
+		return storage;
+	}
+
+	@Override
+	protected StorageStressHarness.Workload buildWorkload() {
+		return super.buildWorkload()
+				.withOperationsPerThread(500);
+	}
+
+}